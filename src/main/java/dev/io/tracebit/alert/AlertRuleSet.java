@@ -0,0 +1,142 @@
+package dev.io.tracebit.alert;
+
+import dev.io.tracebit.dto.MatchField;
+import dev.io.tracebit.dto.MatchType;
+import dev.io.tracebit.entity.AlertRule;
+import dev.io.tracebit.entity.AuditLog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Immutable snapshot of the active alert rules, compiled for matching: regexes are
+ * precompiled and literals lowercased once, and rules are grouped by startup, so
+ * checking a log neither touches the database nor compiles anything. Changes produce
+ * a new set. Inactive rules, and rules whose regex no longer compiles, are left out.
+ */
+public final class AlertRuleSet {
+
+    public static final AlertRuleSet EMPTY = new AlertRuleSet(new TreeMap<>());
+
+    private static final MatchField[] FIELDS = MatchField.values();
+
+    private final Map<Long, Rule> byId;
+    private final Map<String, List<Rule>> byStartup = new HashMap<>();
+
+    private AlertRuleSet(TreeMap<Long, Rule> byId) {
+        this.byId = byId;
+        for (Rule rule : byId.values()) {
+            byStartup.computeIfAbsent(rule.startupId(), startupId -> new ArrayList<>()).add(rule);
+        }
+    }
+
+    public static AlertRuleSet of(Collection<AlertRule> rules) {
+        TreeMap<Long, Rule> byId = new TreeMap<>();
+        for (AlertRule rule : rules) {
+            Rule compiled = compile(rule);
+            if (compiled != null) {
+                byId.put(compiled.id(), compiled);
+            }
+        }
+        return new AlertRuleSet(byId);
+    }
+
+    /**
+     * This set with the rule added, replaced, or removed if it is no longer active.
+     */
+    public AlertRuleSet with(AlertRule rule) {
+        TreeMap<Long, Rule> copy = new TreeMap<>(byId);
+        Rule compiled = compile(rule);
+        if (compiled != null) {
+            copy.put(compiled.id(), compiled);
+        } else {
+            copy.remove(rule.getId());
+        }
+        return new AlertRuleSet(copy);
+    }
+
+    public AlertRuleSet without(Long id) {
+        if (!byId.containsKey(id)) {
+            return this;
+        }
+        TreeMap<Long, Rule> copy = new TreeMap<>(byId);
+        copy.remove(id);
+        return new AlertRuleSet(copy);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * The rules of the log's startup that match it, in id order. Each field is
+     * lowercased at most once per log.
+     */
+    public List<Rule> matching(AuditLog auditLog) {
+        List<Rule> rules = byStartup.get(auditLog.getStartupId());
+        if (rules == null) {
+            return List.of();
+        }
+        String[] lowercased = new String[FIELDS.length];
+        List<Rule> matched = new ArrayList<>(0);
+        for (Rule rule : rules) {
+            String value = switch (rule.field()) {
+                case USER_ID -> auditLog.getUserId();
+                case ACTION -> auditLog.getAction();
+                case TARGET -> auditLog.getTarget();
+            };
+            if (value == null) {
+                continue;
+            }
+            boolean matches = switch (rule.matchType()) {
+                case EXACT -> value.equalsIgnoreCase(rule.literal());
+                case CONTAINS -> {
+                    int field = rule.field().ordinal();
+                    if (lowercased[field] == null) {
+                        lowercased[field] = value.toLowerCase(Locale.ROOT);
+                    }
+                    yield lowercased[field].contains(rule.literal());
+                }
+                case REGEX -> rule.regex().matcher(value).matches();
+            };
+            if (matches) {
+                matched.add(rule);
+            }
+        }
+        return matched;
+    }
+
+    private static Rule compile(AlertRule rule) {
+        if (!rule.isActive() || rule.getPattern() == null) {
+            return null;
+        }
+        Pattern regex = null;
+        String literal = null;
+        if (rule.getMatchType() == MatchType.REGEX) {
+            try {
+                regex = Pattern.compile(rule.getPattern());
+            } catch (PatternSyntaxException e) {
+                return null;
+            }
+        } else {
+            literal = rule.getPattern().toLowerCase(Locale.ROOT);
+        }
+        return new Rule(rule.getId(), rule.getName(), rule.getStartupId(), rule.getField(), rule.getMatchType(),
+                regex, literal, rule.getCallbackUrl(), rule.getSecretToken());
+    }
+
+    /**
+     * A compiled rule with what its webhook needs; {@code regex} is set for REGEX rules
+     * and the lowercased {@code literal} for the others.
+     */
+    public record Rule(Long id, String name, String startupId, MatchField field, MatchType matchType,
+                       Pattern regex, String literal, String callbackUrl, String secretToken) {
+    }
+}
@@ -0,0 +1,27 @@
+package dev.io.tracebit.archive;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+
+/**
+ * Sparse index entry of one compressed, encrypted block inside a segment file.
+ * Timestamps are epoch microseconds; minExpiresAt is Long.MAX_VALUE when no row in
+ * the block has an expiry.
+ */
+public record ArchiveBlock(long offset, int length, int rowCount,
+                           long minId, long maxId, long minCreatedAt, long maxCreatedAt, long minExpiresAt) {
+
+    static final int ENCODED_SIZE = 8 + 4 + 4 + 8 * 5;
+
+    public boolean overlaps(AuditLogFilter filter) {
+        return filter.overlaps(ArchiveSegment.fromMicros(minCreatedAt), ArchiveSegment.fromMicros(maxCreatedAt));
+    }
+
+    public boolean within(AuditLogFilter filter) {
+        return (filter.getFrom() == null || minCreatedAt >= ArchiveSegment.toMicros(filter.getFrom()))
+                && (filter.getTo() == null || maxCreatedAt <= ArchiveSegment.toMicros(filter.getTo()));
+    }
+
+    public boolean containsId(long id) {
+        return id >= minId && id <= maxId;
+    }
+}
@@ -0,0 +1,214 @@
+package dev.io.tracebit.archive;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.entity.MetaData;
+import dev.io.tracebit.security.AttributeEncryptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Read-only view of a segment written by {@link ArchiveSegmentWriter}. The file is
+ * memory-mapped once; the footer is parsed eagerly so the segment and block statistics
+ * can rule out reads without touching the blocks themselves.
+ */
+public class ArchiveSegment {
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final AttributeEncryptor encryptor;
+    private final List<ArchiveBlock> blocks;
+    private final long rowCount;
+    private final long minId;
+    private final long maxId;
+    private final long minCreatedAt;
+    private final long maxCreatedAt;
+    private final long archivedBefore;
+
+    private ArchiveSegment(Path file, MappedByteBuffer buffer, AttributeEncryptor encryptor) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        this.encryptor = encryptor;
+
+        int size = buffer.capacity();
+        if (size < 16 || buffer.getInt(0) != ArchiveSegmentWriter.MAGIC || buffer.getInt(size - 4) != ArchiveSegmentWriter.MAGIC) {
+            throw new IOException("Not an archive segment: " + file);
+        }
+        if (buffer.getInt(4) != ArchiveSegmentWriter.VERSION) {
+            throw new IOException("Unsupported archive segment version in " + file);
+        }
+
+        int footerLength = buffer.getInt(size - 8);
+        int position = size - 8 - footerLength;
+        int blockCount = buffer.getInt(position);
+        position += 4;
+
+        List<ArchiveBlock> index = new ArrayList<>(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            index.add(new ArchiveBlock(buffer.getLong(position), buffer.getInt(position + 8), buffer.getInt(position + 12),
+                    buffer.getLong(position + 16), buffer.getLong(position + 24),
+                    buffer.getLong(position + 32), buffer.getLong(position + 40), buffer.getLong(position + 48)));
+            position += ArchiveBlock.ENCODED_SIZE;
+        }
+        this.blocks = Collections.unmodifiableList(index);
+        this.rowCount = buffer.getLong(position);
+        this.minId = buffer.getLong(position + 8);
+        this.maxId = buffer.getLong(position + 16);
+        this.minCreatedAt = buffer.getLong(position + 24);
+        this.maxCreatedAt = buffer.getLong(position + 32);
+        this.archivedBefore = buffer.getLong(position + 40);
+    }
+
+    public static ArchiveSegment open(Path file, AttributeEncryptor encryptor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            return new ArchiveSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), encryptor);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public List<ArchiveBlock> getBlocks() {
+        return blocks;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getMinId() {
+        return minId;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public LocalDateTime getMinCreatedAt() {
+        return fromMicros(minCreatedAt);
+    }
+
+    public LocalDateTime getMaxCreatedAt() {
+        return fromMicros(maxCreatedAt);
+    }
+
+    public LocalDateTime getArchivedBefore() {
+        return fromMicros(archivedBefore);
+    }
+
+    public boolean overlaps(AuditLogFilter filter) {
+        return rowCount > 0 && filter.overlaps(getMinCreatedAt(), getMaxCreatedAt());
+    }
+
+    public boolean containsId(long id) {
+        return rowCount > 0 && id >= minId && id <= maxId;
+    }
+
+    public Optional<AuditLog> findById(long id) throws IOException {
+        if (!containsId(id)) {
+            return Optional.empty();
+        }
+        // Blocks are in id order, so the first block whose maxId reaches the id is the only candidate.
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blocks.get(mid).maxId() < id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        ArchiveBlock block = blocks.get(low);
+        if (!block.containsId(id)) {
+            return Optional.empty();
+        }
+        return readBlock(block).stream().filter(log -> log.getId() == id).findFirst();
+    }
+
+    /**
+     * Decrypts and inflates one block. Rows are returned in id order, including rows
+     * whose expiry has passed.
+     */
+    public List<AuditLog> readBlock(ArchiveBlock block) throws IOException {
+        byte[] encrypted = new byte[block.length()];
+        buffer.get((int) block.offset() + 4, encrypted);
+
+        byte[] compressed;
+        try {
+            compressed = encryptor.decrypt(encrypted);
+        } catch (Exception e) {
+            throw new IOException("Error decrypting archive block in " + file, e);
+        }
+
+        List<AuditLog> rows = new ArrayList<>(block.rowCount());
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed)))) {
+            for (int i = 0; i < block.rowCount(); i++) {
+                long id = in.readLong();
+                long createdAt = in.readLong();
+                long expiresAt = in.readLong();
+                rows.add(AuditLog.builder()
+                        .id(id)
+                        .createdAt(fromMicros(createdAt))
+                        .expiresAt(expiresAt != Long.MAX_VALUE ? fromMicros(expiresAt) : null)
+                        .startupId(readString(in))
+                        .userId(readString(in))
+                        .action(readString(in))
+                        .target(readString(in))
+                        .meta(MetaData.builder()
+                                .ip(readString(in))
+                                .device(readString(in))
+                                .location(readString(in))
+                                .build())
+                        .build());
+            }
+        }
+        return rows;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Epoch microseconds, saturating at Long.MIN_VALUE/MAX_VALUE for times outside the
+     * representable range such as LocalDateTime.MIN.
+     */
+    public static long toMicros(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        if (seconds <= Long.MIN_VALUE / 1_000_000L) {
+            return Long.MIN_VALUE;
+        }
+        if (seconds >= Long.MAX_VALUE / 1_000_000L) {
+            return Long.MAX_VALUE;
+        }
+        return seconds * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    public static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
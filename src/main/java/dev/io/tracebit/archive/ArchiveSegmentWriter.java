@@ -0,0 +1,179 @@
+package dev.io.tracebit.archive;
+
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.security.AttributeEncryptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes an immutable archive segment. Rows are appended in id order and grouped into
+ * blocks of {@code blockRows}; each block is deflated and then encrypted on its own so
+ * a reader only has to decode the blocks its query touches.
+ *
+ * <pre>
+ * [MAGIC][VERSION]
+ * [int length][encrypted block] ...
+ * [int blockCount][block index entries]
+ * [rowCount][minId][maxId][minCreatedAt][maxCreatedAt][archivedBefore]
+ * [int footerLength][MAGIC]
+ * </pre>
+ */
+public class ArchiveSegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x54424152; // "TBAR"
+    static final int VERSION = 1;
+
+    private final FileChannel channel;
+    private final AttributeEncryptor encryptor;
+    private final int blockRows;
+    private final List<ArchiveBlock> blocks = new ArrayList<>();
+
+    private ByteArrayOutputStream blockBytes;
+    private DataOutputStream blockOut;
+    private int blockRowCount;
+    private long blockMinId;
+    private long blockMaxId;
+    private long blockMinCreatedAt;
+    private long blockMaxCreatedAt;
+    private long blockMinExpiresAt;
+    private long position;
+
+    public ArchiveSegmentWriter(Path file, AttributeEncryptor encryptor, int blockRows) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        this.encryptor = encryptor;
+        this.blockRows = blockRows;
+        write(ByteBuffer.allocate(8).putInt(MAGIC).putInt(VERSION).flip());
+    }
+
+    public void append(AuditLog log) throws IOException {
+        if (blockOut == null) {
+            startBlock();
+        }
+
+        long createdAt = ArchiveSegment.toMicros(log.getCreatedAt());
+        long expiresAt = log.getExpiresAt() != null ? ArchiveSegment.toMicros(log.getExpiresAt()) : Long.MAX_VALUE;
+
+        blockOut.writeLong(log.getId());
+        blockOut.writeLong(createdAt);
+        blockOut.writeLong(expiresAt);
+        writeString(log.getStartupId());
+        writeString(log.getUserId());
+        writeString(log.getAction());
+        writeString(log.getTarget());
+        writeString(log.getMeta() != null ? log.getMeta().getIp() : null);
+        writeString(log.getMeta() != null ? log.getMeta().getDevice() : null);
+        writeString(log.getMeta() != null ? log.getMeta().getLocation() : null);
+
+        if (blockRowCount == 0) {
+            blockMinId = log.getId();
+        }
+        blockMaxId = log.getId();
+        blockMinCreatedAt = Math.min(blockMinCreatedAt, createdAt);
+        blockMaxCreatedAt = Math.max(blockMaxCreatedAt, createdAt);
+        blockMinExpiresAt = Math.min(blockMinExpiresAt, expiresAt);
+
+        if (++blockRowCount == blockRows) {
+            finishBlock();
+        }
+    }
+
+    public int rowCount() {
+        return blocks.stream().mapToInt(ArchiveBlock::rowCount).sum() + blockRowCount;
+    }
+
+    /**
+     * Writes the sparse index and footer and forces the file to disk.
+     *
+     * @param archivedBefore the cutoff the rows were selected with
+     */
+    public void finish(LocalDateTime archivedBefore) throws IOException {
+        if (blockOut != null) {
+            finishBlock();
+        }
+
+        ByteBuffer footer = ByteBuffer.allocate(4 + blocks.size() * ArchiveBlock.ENCODED_SIZE + 8 * 6);
+        footer.putInt(blocks.size());
+        for (ArchiveBlock block : blocks) {
+            footer.putLong(block.offset()).putInt(block.length()).putInt(block.rowCount())
+                    .putLong(block.minId()).putLong(block.maxId())
+                    .putLong(block.minCreatedAt()).putLong(block.maxCreatedAt()).putLong(block.minExpiresAt());
+        }
+        footer.putLong(rowCount())
+                .putLong(blocks.isEmpty() ? 0 : blocks.get(0).minId())
+                .putLong(blocks.isEmpty() ? 0 : blocks.get(blocks.size() - 1).maxId())
+                .putLong(blocks.stream().mapToLong(ArchiveBlock::minCreatedAt).min().orElse(0))
+                .putLong(blocks.stream().mapToLong(ArchiveBlock::maxCreatedAt).max().orElse(0))
+                .putLong(ArchiveSegment.toMicros(archivedBefore));
+        int footerLength = footer.position();
+        write(footer.flip());
+        write(ByteBuffer.allocate(8).putInt(footerLength).putInt(MAGIC).flip());
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void startBlock() {
+        blockBytes = new ByteArrayOutputStream(blockRows * 256);
+        blockOut = new DataOutputStream(blockBytes);
+        blockRowCount = 0;
+        blockMinCreatedAt = Long.MAX_VALUE;
+        blockMaxCreatedAt = Long.MIN_VALUE;
+        blockMinExpiresAt = Long.MAX_VALUE;
+    }
+
+    private void finishBlock() throws IOException {
+        blockOut.flush();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(blockBytes.size() / 3);
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(compressed, new Deflater(Deflater.BEST_COMPRESSION))) {
+            blockBytes.writeTo(deflater);
+        }
+
+        byte[] encrypted;
+        try {
+            encrypted = encryptor.encrypt(compressed.toByteArray());
+        } catch (Exception e) {
+            throw new IOException("Error encrypting archive block", e);
+        }
+
+        long offset = position;
+        write(ByteBuffer.allocate(4).putInt(encrypted.length).flip());
+        write(ByteBuffer.wrap(encrypted));
+        blocks.add(new ArchiveBlock(offset, encrypted.length, blockRowCount, blockMinId, blockMaxId,
+                blockMinCreatedAt, blockMaxCreatedAt, blockMinExpiresAt));
+        blockOut = null;
+        blockBytes = null;
+        blockRowCount = 0;
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            blockOut.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        blockOut.writeInt(bytes.length);
+        blockOut.write(bytes);
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+}
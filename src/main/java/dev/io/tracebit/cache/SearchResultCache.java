@@ -0,0 +1,124 @@
+package dev.io.tracebit.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, short-lived cache of search results keyed by the normalised query. A new log
+ * invalidates only the entries whose time range and filters match it, so results for
+ * closed ranges and other users or actions survive ingest. Loads that race with an
+ * invalidation are not kept.
+ */
+public class SearchResultCache<V> {
+
+    private final Cache<Key, V> cache;
+    private final Set<Load> loads = ConcurrentHashMap.newKeySet();
+
+    public SearchResultCache(long maxEntries, Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public V get(Key key, Supplier<V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Load load = new Load(key);
+        loads.add(load);
+        try {
+            V value = loader.get();
+            // Put before checking, so an invalidation that misses the flag still finds the entry.
+            cache.put(key, value);
+            if (load.stale) {
+                cache.invalidate(key);
+            }
+            return value;
+        } finally {
+            loads.remove(load);
+        }
+    }
+
+    /**
+     * Drops every result the new log would appear in.
+     */
+    public void invalidate(AuditLog log) {
+        for (Load load : loads) {
+            if (load.key.matches(log)) {
+                load.stale = true;
+            }
+        }
+        cache.asMap().keySet().removeIf(key -> key.matches(log));
+    }
+
+    /**
+     * Drops every result whose range reaches back before the cutoff, after older logs
+     * were deleted.
+     */
+    public void invalidateBefore(LocalDateTime cutoff) {
+        for (Load load : loads) {
+            if (load.key.startsBefore(cutoff)) {
+                load.stale = true;
+            }
+        }
+        cache.asMap().keySet().removeIf(key -> key.startsBefore(cutoff));
+    }
+
+    public Cache<Key, V> getCache() {
+        return cache;
+    }
+
+    /**
+     * Normalised search query. Matching is case-insensitive, so filters are lower-cased,
+     * and blank filters and unbounded ends are null so equivalent queries share an entry.
+     * An open-ended range stays open in the key; new logs invalidate it as they arrive.
+     */
+    public record Key(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to, int page, int size) {
+
+        public static Key of(AuditLogFilter filter, boolean openEnded, int page, int size) {
+            LocalDateTime from = filter.getFrom() == null || filter.getFrom().equals(LocalDateTime.MIN) ? null : filter.getFrom();
+            return new Key(filter.getStartupId(), normalise(filter.getUserId()), normalise(filter.getAction()),
+                    from, openEnded ? null : filter.getTo(), page, size);
+        }
+
+        boolean matches(AuditLog log) {
+            LocalDateTime createdAt = log.getCreatedAt();
+            return (startupId == null || startupId.equals(log.getStartupId()))
+                    && (from == null || !createdAt.isBefore(from)) && (to == null || !createdAt.isAfter(to))
+                    && contains(log.getUserId(), userId) && contains(log.getAction(), action);
+        }
+
+        boolean startsBefore(LocalDateTime cutoff) {
+            return from == null || from.isBefore(cutoff);
+        }
+
+        private static boolean contains(String value, String part) {
+            return part == null || value != null && value.toLowerCase(Locale.ROOT).contains(part);
+        }
+
+        private static String normalise(String value) {
+            return value == null || value.isEmpty() ? null : value.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final class Load {
+        private final Key key;
+        private volatile boolean stale;
+
+        Load(Key key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package dev.io.tracebit.cache;
+
+import dev.io.tracebit.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader and
+ * every caller arriving while it runs waits for, and shares, its result or exception.
+ * Nothing is kept once the load finishes; caching is left to the caller.
+ * <p>
+ * Each load has its own deadline of {@code timeout} from when it started. Callers
+ * waiting on it give up at the deadline with a 503, and a caller arriving after it
+ * starts a fresh load instead of joining one that is stuck.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+    private final LongAdder led = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public SingleFlight(Duration timeout) {
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        while (true) {
+            Flight<V> flight = new Flight<>(System.nanoTime() + timeoutNanos);
+            Flight<V> current = flights.putIfAbsent(key, flight);
+            if (current == null) {
+                return lead(key, flight, loader);
+            }
+            long remaining = current.deadline - System.nanoTime();
+            if (remaining > 0) {
+                return join(current, remaining);
+            }
+            flights.remove(key, current);
+        }
+    }
+
+    /**
+     * Registers the counts as {@code tracebit.singleflight.requests}, tagged with the
+     * name and whether a request ran the load, shared another's or timed out waiting.
+     */
+    public void bindTo(MeterRegistry registry, String name) {
+        register(registry, name, "led", led);
+        register(registry, name, "coalesced", coalesced);
+        register(registry, name, "timeout", timedOut);
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    private V lead(K key, Flight<V> flight, Supplier<V> loader) {
+        led.increment();
+        try {
+            V value = loader.get();
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private V join(Flight<V> flight, long remainingNanos) {
+        try {
+            V value = flight.result.get(remainingNanos, TimeUnit.NANOSECONDS);
+            coalesced.increment();
+            return value;
+        } catch (ExecutionException e) {
+            coalesced.increment();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            throw new ServiceUnavailableException("audit log reads", "an identical request is taking too long");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("audit log reads", "interrupted while waiting for an identical request");
+        }
+    }
+
+    private static void register(MeterRegistry registry, String name, String outcome, LongAdder count) {
+        FunctionCounter.builder("tracebit.singleflight.requests", count, LongAdder::sum)
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .description("Reads that ran a load, shared an identical concurrent one, or timed out waiting for it")
+                .register(registry);
+    }
+
+    private record Flight<V>(long deadline, CompletableFuture<V> result) {
+
+        Flight(long deadline) {
+            this(deadline, new CompletableFuture<>());
+        }
+    }
+}
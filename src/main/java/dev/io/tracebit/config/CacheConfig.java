@@ -0,0 +1,113 @@
+package dev.io.tracebit.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dev.io.tracebit.dto.response.AuditLogView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Caffeine caches behind lookups by id. Found logs are cached as their immutable
+ * {@link AuditLogView}, weighed by size and kept for {@code ttl-ms}, or only until the
+ * log's own expiry when that comes sooner, so the cache never serves a log the
+ * database would already hide; unknown ids are
+ * remembered for a much shorter {@code miss-ttl-ms} so repeated lookups of them do not
+ * all reach the database. Every cache records stats,
+ * which Spring Boot binds to the cache.* Micrometer metrics.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String AUDIT_LOG_CACHE = "auditLogCache";
+    public static final String AUDIT_LOG_MISS_CACHE = "auditLogMissCache";
+
+    @Value("${tracebit.id-cache.max-megabytes:32}")
+    private long maxMegabytes;
+
+    @Value("${tracebit.id-cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    @Value("${tracebit.id-cache.miss-max-entries:10000}")
+    private long missMaxEntries;
+
+    @Value("${tracebit.id-cache.miss-ttl-ms:30000}")
+    private long missTtlMs;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        // Caches not registered below are still bounded.
+        cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(1000).recordStats());
+
+        cacheManager.registerCustomCache(AUDIT_LOG_CACHE, Caffeine.newBuilder()
+                .maximumWeight(maxMegabytes * 1024 * 1024)
+                .<Object, Object>weigher((id, log) -> weigh((AuditLogView) log))
+                .expireAfter(new AuditLogExpiry(Duration.ofMillis(ttlMs).toNanos()))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(AUDIT_LOG_MISS_CACHE, Caffeine.newBuilder()
+                .maximumSize(missMaxEntries)
+                .expireAfterWrite(Duration.ofMillis(missTtlMs))
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    /**
+     * Expires a cached log after the TTL or at its expiresAt, whichever comes first.
+     * Reads do not extend the lifetime, and a log that has already expired is dropped
+     * as soon as it is put.
+     */
+    static final class AuditLogExpiry implements Expiry<Object, Object> {
+
+        private final long ttlNanos;
+
+        AuditLogExpiry(long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            LocalDateTime expiresAt = ((AuditLogView) value).expiresAt();
+            LocalDateTime now = LocalDateTime.now();
+            if (expiresAt == null || expiresAt.isAfter(now.plusNanos(ttlNanos))) {
+                return ttlNanos;
+            }
+            return expiresAt.isAfter(now) ? Duration.between(now, expiresAt).toNanos() : 0;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Approximate heap size of a cached log in bytes: the records and timestamps, plus
+     * each String with its array.
+     */
+    static int weigh(AuditLogView log) {
+        int bytes = 200;
+        for (String value : new String[]{log.userId(), log.action(), log.target()}) {
+            bytes += value == null ? 0 : 40 + value.length();
+        }
+        if (log.meta() != null) {
+            for (String value : new String[]{log.meta().ip(), log.meta().device(), log.meta().location()}) {
+                bytes += value == null ? 0 : 40 + value.length();
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,31 @@
+package dev.io.tracebit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas that serve read-only transactions. Credentials default to those of the
+ * primary. A replica is only used while its replay lag is at most maxLagMs.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "tracebit.datasource")
+public class ReplicaProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    private long maxLagMs = 10000;
+    private int replicaPoolSize = 10;
+    private long connectionTimeoutMs = 2000;
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,36 @@
+package dev.io.tracebit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Retention policies and the throttling limits of the purge job. A policy applies to
+ * an action, to a startup, or to one action of one startup; the most specific match
+ * wins. Partitions are kept for the longest policy or tracebit.data.retention-days,
+ * whichever is longer, and rows due earlier are deleted by the purge.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "tracebit.retention")
+public class RetentionProperties {
+
+    private List<Policy> policies = new ArrayList<>();
+
+    private int batchSize = 500;
+    private int rowsPerSecond = 1000;
+    private long maxReplicationLagMs = 10000;
+    private int maxActiveConnections = 50;
+    private long pauseMs = 30000;
+    private long maxRunMs = 7200000;
+
+    @Data
+    public static class Policy {
+        private String startupId;
+        private String action;
+        private int days;
+    }
+}
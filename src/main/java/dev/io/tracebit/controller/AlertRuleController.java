@@ -3,6 +3,7 @@ package dev.io.tracebit.controller;
 import dev.io.tracebit.dto.request.AlertRuleRequest;
 import dev.io.tracebit.dto.response.ApiResponse;
 import dev.io.tracebit.dto.response.ProblemDetails;
+import dev.io.tracebit.security.ApiKeyAuthFilter;
 import dev.io.tracebit.service.AlertRuleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -49,9 +50,10 @@ public class AlertRuleController {
     })
     @PostMapping
     public ResponseEntity<ApiResponse> createAlertRule(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
             @Valid @RequestBody AlertRuleRequest request
     ) {
-        return ResponseEntity.ok(alertRuleService.createAlertRule(request));
+        return ResponseEntity.ok(alertRuleService.createAlertRule(startupId, request));
     }
 
     @Operation(
@@ -72,10 +74,11 @@ public class AlertRuleController {
     })
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse> updateAlertRule(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
             @Parameter(description = "Alert rule ID") @PathVariable Long id,
             @Valid @RequestBody AlertRuleRequest request
     ) {
-        return ResponseEntity.ok(alertRuleService.updateAlertRule(id, request));
+        return ResponseEntity.ok(alertRuleService.updateAlertRule(startupId, id, request));
     }
 
     @Operation(
@@ -96,9 +99,10 @@ public class AlertRuleController {
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse> deleteAlertRule(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
             @Parameter(description = "Alert rule ID") @PathVariable Long id
     ) {
-        return ResponseEntity.ok(alertRuleService.deleteAlertRule(id));
+        return ResponseEntity.ok(alertRuleService.deleteAlertRule(startupId, id));
     }
 
     @Operation(
@@ -119,14 +123,15 @@ public class AlertRuleController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse> getAlertRuleById(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
             @Parameter(description = "Alert rule ID") @PathVariable Long id
     ) {
-        return ResponseEntity.ok(alertRuleService.getAlertRuleById(id));
+        return ResponseEntity.ok(alertRuleService.getAlertRuleById(startupId, id));
     }
 
     @Operation(
             summary = "Get alert rules by startup ID",
-            description = "Returns all active alert rules that belong to a given startup."
+            description = "Returns all active alert rules that belong to a given startup, which must be the startup of the API key."
     )
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -137,8 +142,9 @@ public class AlertRuleController {
     })
     @GetMapping("/startup/{startupId}")
     public ResponseEntity<ApiResponse> getAlertRulesByStartupId(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String callerStartupId,
             @Parameter(description = "Startup ID") @PathVariable String startupId
     ) {
-        return ResponseEntity.ok(alertRuleService.getAlertRulesByStartupId(startupId));
+        return ResponseEntity.ok(alertRuleService.getAlertRulesByStartupId(callerStartupId, startupId));
     }
 }
@@ -1,10 +1,22 @@
 package dev.io.tracebit.controller;
 
+import dev.io.tracebit.dto.RollupDimension;
+import dev.io.tracebit.dto.RollupGranularity;
 import dev.io.tracebit.dto.request.AuditLogRequest;
 import dev.io.tracebit.dto.response.ApiResponse;
+import dev.io.tracebit.dto.response.AuditLogView;
 import dev.io.tracebit.dto.response.ProblemDetails;
+import dev.io.tracebit.export.ExportCompression;
+import dev.io.tracebit.security.ApiKeyAuthFilter;
+import dev.io.tracebit.security.AuditLogETags;
 import dev.io.tracebit.service.AuditLogExportService;
+import dev.io.tracebit.service.AuditLogRollupService;
 import dev.io.tracebit.service.AuditLogService;
+import dev.io.tracebit.service.AuditLogStreamService;
+import dev.io.tracebit.service.ChangeFeedService;
+import dev.io.tracebit.service.HeavyHitterService;
+import dev.io.tracebit.service.LiveTailService;
+import dev.io.tracebit.service.impl.AuditLogStreamServiceImpl;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,13 +28,25 @@ import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 
 @RestController
@@ -34,10 +58,28 @@ public class AuditLogController {
 
     private final AuditLogService auditLogService;
     private final AuditLogExportService auditLogExportService;
+    private final AuditLogRollupService auditLogRollupService;
+    private final HeavyHitterService heavyHitterService;
+    private final AuditLogStreamService auditLogStreamService;
+    private final LiveTailService liveTailService;
+    private final ChangeFeedService changeFeedService;
+    private final AuditLogETags auditLogETags;
 
-    public AuditLogController(AuditLogService auditLogService, AuditLogExportService auditLogExportService) {
+    @Value("${tracebit.http-cache.record-max-age-seconds:86400}")
+    private long recordMaxAgeSeconds;
+
+    public AuditLogController(AuditLogService auditLogService, AuditLogExportService auditLogExportService,
+                              AuditLogRollupService auditLogRollupService, HeavyHitterService heavyHitterService,
+                              AuditLogStreamService auditLogStreamService, LiveTailService liveTailService,
+                              ChangeFeedService changeFeedService, AuditLogETags auditLogETags) {
         this.auditLogService = auditLogService;
         this.auditLogExportService = auditLogExportService;
+        this.auditLogRollupService = auditLogRollupService;
+        this.heavyHitterService = heavyHitterService;
+        this.auditLogStreamService = auditLogStreamService;
+        this.liveTailService = liveTailService;
+        this.changeFeedService = changeFeedService;
+        this.auditLogETags = auditLogETags;
     }
 
     @Operation(
@@ -59,14 +101,16 @@ public class AuditLogController {
     })
     @PostMapping
     public ResponseEntity<ApiResponse> saveLog(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
             @Valid @RequestBody AuditLogRequest request
     ) {
-        return ResponseEntity.ok(auditLogService.createAuditLog(request));
+        return ResponseEntity.ok(auditLogService.createAuditLog(startupId, request));
     }
 
     @Operation(
         summary = "Search audit logs",
-        description = "Retrieves audit logs with optional filtering by user ID, action, and date range"
+        description = "Retrieves audit logs with optional filtering by user ID, action, and date range. " +
+                "The q parameter runs a full-text search over target, action and device"
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -77,6 +121,10 @@ public class AuditLogController {
     })
     @GetMapping
     public ResponseEntity<ApiResponse> searchLogs(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
+            @Parameter(description = "Full-text query over target, action and device, e.g. invoice 8812")
+            @RequestParam(required = false) String q,
+
             @Parameter(description = "Filter by user ID (partial match supported)")
             @RequestParam(required = false) String userId,
 
@@ -97,12 +145,213 @@ public class AuditLogController {
             @Parameter(description = "Page size")
             @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer size
     ) {
-        return ResponseEntity.ok(auditLogService.searchAuditLogs(userId, action, from, to, page, size));
+        return ResponseEntity.ok(auditLogService.searchAuditLogs(startupId, q, userId, action, from, to, page, size));
+    }
+
+    @Operation(
+        summary = "Stream audit logs",
+        description = "Streams every matching audit log as newline-delimited JSON, oldest first, when the request " +
+                "sends Accept: application/x-ndjson. Intended for bulk pulls of large ranges"
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Audit logs streamed successfully",
+            content = @Content(mediaType = AuditLogStreamServiceImpl.NDJSON)
+        )
+    })
+    @GetMapping(produces = AuditLogStreamServiceImpl.NDJSON)
+    public void streamLogs(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
+            @Parameter(description = "Filter by user ID (partial match supported)")
+            @RequestParam(required = false) String userId,
+
+            @Parameter(description = "Filter by action (partial match supported)")
+            @RequestParam(required = false) String action,
+
+            @Parameter(description = "Filter logs from this date/time (ISO format)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Filter logs until this date/time (ISO format)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+
+            HttpServletResponse response
+    ) throws IOException {
+        auditLogStreamService.streamAuditLogs(startupId, userId, action, from, to, response);
+    }
+
+    @Operation(
+        summary = "Tail audit logs",
+        description = "Pushes newly saved audit logs matching the filters as Server-Sent Events. Each log is a " +
+                "'log' event; a 'dropped' event reports logs skipped because the client fell behind"
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Live tail opened",
+            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "503",
+            description = "Too many open tails",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProblemDetails.class))
+        )
+    })
+    @GetMapping(value = "/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter tailLogs(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
+            @Parameter(description = "Filter by user ID (partial match supported)")
+            @RequestParam(required = false) String userId,
+
+            @Parameter(description = "Filter by action (partial match supported)")
+            @RequestParam(required = false) String action,
+
+            @Parameter(description = "Filter by target (partial match supported)")
+            @RequestParam(required = false) String target
+    ) {
+        return liveTailService.subscribe(startupId, userId, action, target);
+    }
+
+    @Operation(
+        summary = "Get audit log changes",
+        description = "Returns logs saved after the cursor, in commit order, with the cursor to pass next time. " +
+                "With waitMs, a caught-up consumer waits up to that long for new logs instead of getting an empty page"
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved audit log changes",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor, limit or wait",
+            content = @Content(schema = @Schema(implementation = ProblemDetails.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "503",
+            description = "Too many waiting consumers",
+            content = @Content(schema = @Schema(implementation = ProblemDetails.class))
+        )
+    })
+    @GetMapping("/changes")
+    public DeferredResult<ApiResponse> getChanges(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
+            @Parameter(description = "Cursor returned as next by the previous call; omit to start from the beginning")
+            @RequestParam(required = false) String after,
+
+            @Parameter(description = "Maximum number of logs to return")
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) Integer limit,
+
+            @Parameter(description = "Milliseconds to wait for new logs when there are none yet")
+            @RequestParam(defaultValue = "0") @Min(0) Long waitMs
+    ) {
+        return changeFeedService.getChanges(startupId, after, limit, waitMs);
+    }
+
+    @Operation(
+        summary = "Get audit log stats",
+        description = "Returns log counts per time bucket from pre-aggregated rollups, optionally grouped by action or user ID"
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved audit log stats",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Invalid bucket, group or range",
+            content = @Content(schema = @Schema(implementation = ProblemDetails.class))
+        )
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse> getStats(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
+            @Parameter(description = "Bucket size: MINUTE, HOUR or DAY")
+            @RequestParam(defaultValue = "HOUR") RollupGranularity bucket,
+
+            @Parameter(description = "Group counts by NONE, ACTION or USER_ID")
+            @RequestParam(defaultValue = "NONE") RollupDimension groupBy,
+
+            @Parameter(description = "Start of the range (ISO format); defaults to a range fitting the bucket size")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "End of the range (ISO format); defaults to now")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return ResponseEntity.ok(auditLogRollupService.getStats(startupId, bucket, groupBy, from, to));
+    }
+
+    @Operation(
+        summary = "Get heavy hitters",
+        description = "Returns the most frequent actions or users in the current, or last closed, one-minute, " +
+                "one-hour or one-day window. Counts are approximate: each may overestimate by up to its error"
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved heavy hitters",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "Invalid dimension, window or k",
+            content = @Content(schema = @Schema(implementation = ProblemDetails.class))
+        )
+    })
+    @GetMapping("/top")
+    public ResponseEntity<ApiResponse> getTop(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
+            @Parameter(description = "What to rank: ACTION or USER_ID")
+            @RequestParam(defaultValue = "USER_ID") RollupDimension dimension,
+
+            @Parameter(description = "Window size: MINUTE, HOUR or DAY")
+            @RequestParam(defaultValue = "MINUTE") RollupGranularity window,
+
+            @Parameter(description = "Number of entries to return")
+            @RequestParam(defaultValue = "10") Integer k,
+
+            @Parameter(description = "Rank the last closed window instead of the one in progress")
+            @RequestParam(defaultValue = "false") boolean closed
+    ) {
+        return ResponseEntity.ok(heavyHitterService.getTop(startupId, dimension, window, k, closed));
+    }
+
+    @Operation(
+        summary = "Get audit logs by IDs",
+        description = "Retrieves many audit logs in one call, in the order of the requested IDs, and lists the IDs " +
+                "that were not found"
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the audit logs",
+            content = @Content(schema = @Schema(implementation = ApiResponse.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "400",
+            description = "No IDs, or too many",
+            content = @Content(schema = @Schema(implementation = ProblemDetails.class))
+        )
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<ApiResponse> getLogsByIds(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
+            @Parameter(description = "Comma-separated audit log IDs, at most 500")
+            @RequestParam List<Long> ids
+    ) {
+        return ResponseEntity.ok(auditLogService.getAuditLogsByIds(startupId, ids));
     }
 
     @Operation(
         summary = "Get audit log by ID",
-        description = "Retrieves a specific audit log by its ID"
+        description = "Retrieves a specific audit log by its ID. Logs never change, so responses carry a strong ETag " +
+                "and may be cached privately; send the ETag back in If-None-Match to revalidate"
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -110,6 +359,10 @@ public class AuditLogController {
             description = "Successfully retrieved the audit log",
             content = @Content(schema = @Schema(implementation = ApiResponse.class))
         ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "304",
+            description = "The copy identified by If-None-Match is still current"
+        ),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "404",
             description = "Audit log not found",
@@ -118,15 +371,50 @@ public class AuditLogController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse> getLogById(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
             @Parameter(description = "Audit log ID")
-            @PathVariable Long id
+            @PathVariable Long id,
+
+            @Parameter(description = "ETag of a previously fetched copy; a match is answered with 304")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        return ResponseEntity.ok(auditLogService.getAuditLogById(id));
+        // Logs never change, so a matching tag is answered without loading the log, and
+        // with the same lifetime as the 200 it revalidates, as a 304 replaces its headers.
+        Optional<AuditLogETags.Match> match = auditLogETags.match(ifNoneMatch, startupId, id, LocalDateTime.now());
+        if (match.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(match.get().eTag())
+                    .cacheControl(recordCacheControl(match.get().expiresAt()))
+                    .build();
+        }
+
+        ApiResponse response = auditLogService.getAuditLogById(startupId, id);
+        if (response.isError()) {
+            return ResponseEntity.ok(response);
+        }
+        AuditLogView log = (AuditLogView) response.getData();
+        return ResponseEntity.ok()
+                .eTag(auditLogETags.of(startupId, id, log.expiresAt()))
+                .lastModified(log.createdAt().atZone(ZoneId.systemDefault()))
+                .cacheControl(recordCacheControl(log.expiresAt()))
+                .body(response);
+    }
+
+    /**
+     * Lets clients keep a log for record-max-age-seconds, but not past the point where
+     * retention deletes it.
+     */
+    private CacheControl recordCacheControl(LocalDateTime expiresAt) {
+        long maxAge = recordMaxAgeSeconds;
+        if (expiresAt != null) {
+            maxAge = Math.min(maxAge, Math.max(0, Duration.between(LocalDateTime.now(), expiresAt).toSeconds()));
+        }
+        return CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePrivate().immutable();
     }
 
     @Operation(
             summary = "Export audit logs",
-            description = "Exports audit logs in the specified format (CSV or PDF) with optional filtering"
+            description = "Exports audit logs in the specified format (CSV, PDF or Parquet) with optional filtering, compressed with gzip or zstd on request"
     )
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -142,19 +430,31 @@ public class AuditLogController {
     })
     @GetMapping("/export")
     public void exportLogs(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
             @RequestParam(defaultValue = "csv", required = false) String format,
             @RequestParam(required = false) String userId,
             @RequestParam(required = false) String action,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Workers fetching a CSV or Parquet export at once, capped by the connection pool; defaults to tracebit.export.parallel.default-parallelism")
+            @RequestParam(required = false) Integer parallelism,
+            @Parameter(description = "gzip, zstd or none; without it, CSV exports are compressed as Accept-Encoding allows")
+            @RequestParam(required = false) String compression,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
             HttpServletResponse response
     ) throws IOException {
         switch (format.toLowerCase()) {
             case "csv":
-                auditLogExportService.exportToCsv(userId, action, from, to, response);
+                auditLogExportService.exportToCsv(startupId, userId, action, from, to, parallelism,
+                        ExportCompression.negotiate(compression, acceptEncoding), response);
                 break;
+            // PDF and Parquet are compressed already, so they are only wrapped when asked to.
             case "pdf":
-                auditLogExportService.exportToPdf(userId, action, from, to, response);
+                auditLogExportService.exportToPdf(startupId, userId, action, from, to, ExportCompression.of(compression), response);
+                break;
+            case "parquet":
+                auditLogExportService.exportToParquet(startupId, userId, action, from, to, parallelism,
+                        ExportCompression.of(compression), response);
                 break;
             default:
                 throw new IllegalArgumentException("Invalid export format: " + format);
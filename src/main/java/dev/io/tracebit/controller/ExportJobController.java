@@ -0,0 +1,139 @@
+package dev.io.tracebit.controller;
+
+import dev.io.tracebit.dto.response.ApiResponse;
+import dev.io.tracebit.dto.response.ProblemDetails;
+import dev.io.tracebit.security.ApiKeyAuthFilter;
+import dev.io.tracebit.service.ExportJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+
+@RestController
+@RequestMapping("/api/v1/export-jobs")
+@SecurityRequirement(name = "tracebit-key")
+@Tag(name = "Export Jobs", description = "API for generating large audit log exports in the background")
+@Validated
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    public ExportJobController(ExportJobService exportJobService) {
+        this.exportJobService = exportJobService;
+    }
+
+    @Operation(
+            summary = "Submit export job",
+            description = "Queues a CSV, PDF or Parquet export of the matching audit logs. Submitting the same export while it is " +
+                    "still queued or running returns the existing job"
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "202",
+                    description = "Export job queued",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid export format specified",
+                    content = @Content(schema = @Schema(implementation = ProblemDetails.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "503",
+                    description = "Too many exports queued",
+                    content = @Content(schema = @Schema(implementation = ProblemDetails.class))
+            )
+    })
+    @PostMapping
+    public ResponseEntity<ApiResponse> submitExportJob(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
+            @RequestParam(defaultValue = "csv", required = false) String format,
+            @Parameter(description = "gzip or zstd to store and download the export as a compressed file; none by default")
+            @RequestParam(required = false) String compression,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Workers fetching a CSV or Parquet export at once, capped by the connection pool")
+            @RequestParam(required = false) Integer parallelism
+    ) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(exportJobService.submit(startupId, format, compression, userId, action, from, to, parallelism));
+    }
+
+    @Operation(
+            summary = "Get export job",
+            description = "Returns the status of an export job and, once it has completed, where to download it"
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "Export job retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = ApiResponse.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Export job not found or expired",
+                    content = @Content(schema = @Schema(implementation = ProblemDetails.class))
+            )
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse> getExportJob(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
+            @Parameter(description = "Export job ID") @PathVariable String id
+    ) {
+        return ResponseEntity.ok(exportJobService.getStatus(startupId, id));
+    }
+
+    @Operation(
+            summary = "Download export",
+            description = "Downloads a completed export. Supports single Range requests, with If-Range, to resume downloads"
+    )
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "200",
+                    description = "The export file"
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "206",
+                    description = "The requested part of the export file"
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "400",
+                    description = "Export job has not completed",
+                    content = @Content(schema = @Schema(implementation = ProblemDetails.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "404",
+                    description = "Export job not found or expired",
+                    content = @Content(schema = @Schema(implementation = ProblemDetails.class))
+            ),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(
+                    responseCode = "416",
+                    description = "Range outside the export file"
+            )
+    })
+    @GetMapping("/{id}/download")
+    public void downloadExport(
+            @Parameter(hidden = true) @RequestAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE) String startupId,
+            @Parameter(description = "Export job ID") @PathVariable String id,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        exportJobService.download(startupId, id, request, response);
+    }
+}
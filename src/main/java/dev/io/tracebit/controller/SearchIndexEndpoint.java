@@ -0,0 +1,42 @@
+package dev.io.tracebit.controller;
+
+import dev.io.tracebit.service.SearchIndexService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Operator endpoint for the node's search index, at {@code /actuator/searchindex} once
+ * exposed. It acts on every startup's documents, so it is served by actuator rather
+ * than under the API keys; it is not exposed by default.
+ */
+@Component
+@Endpoint(id = "searchindex")
+public class SearchIndexEndpoint {
+
+    private final SearchIndexService searchIndexService;
+
+    public SearchIndexEndpoint(SearchIndexService searchIndexService) {
+        this.searchIndexService = searchIndexService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return Map.of(
+                "enabled", searchIndexService.isEnabled(),
+                "rebuilding", searchIndexService.isRebuilding());
+    }
+
+    /**
+     * Re-indexes every log in the background; progress is logged.
+     */
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        return Map.of(
+                "started", searchIndexService.startRebuild(),
+                "rebuilding", searchIndexService.isRebuilding());
+    }
+}
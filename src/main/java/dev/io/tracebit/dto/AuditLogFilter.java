@@ -0,0 +1,40 @@
+package dev.io.tracebit.dto;
+
+import dev.io.tracebit.entity.AuditLog;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Search criteria for audit logs. startupId is an exact match and scopes the search to
+ * one tenant; it is only left null by maintenance jobs that work across tenants.
+ * userId and action are partial, case-insensitive matches; from and to are inclusive
+ * and optional.
+ */
+@Value
+@Builder(toBuilder = true)
+public class AuditLogFilter {
+    String startupId;
+    String userId;
+    String action;
+    LocalDateTime from;
+    LocalDateTime to;
+
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        return (from == null || !end.isBefore(from)) && (to == null || !start.isAfter(to));
+    }
+
+    public boolean matches(AuditLog log) {
+        return (startupId == null || startupId.equals(log.getStartupId()))
+                && overlaps(log.getCreatedAt(), log.getCreatedAt())
+                && containsIgnoreCase(log.getUserId(), userId)
+                && containsIgnoreCase(log.getAction(), action);
+    }
+
+    private static boolean containsIgnoreCase(String value, String part) {
+        if (part == null || part.isEmpty()) return true;
+        return value != null && value.toLowerCase(Locale.ROOT).contains(part.toLowerCase(Locale.ROOT));
+    }
+}
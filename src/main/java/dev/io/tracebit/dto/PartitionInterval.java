@@ -0,0 +1,19 @@
+package dev.io.tracebit.dto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum PartitionInterval {
+    DAILY,
+    MONTHLY;
+
+    public LocalDateTime truncate(LocalDateTime time) {
+        LocalDateTime day = time.truncatedTo(ChronoUnit.DAYS);
+        return this == DAILY ? day : day.withDayOfMonth(1);
+    }
+
+    public LocalDateTime nextBoundary(LocalDateTime time) {
+        LocalDateTime start = truncate(time);
+        return this == DAILY ? start.plusDays(1) : start.plusMonths(1);
+    }
+}
@@ -0,0 +1,21 @@
+package dev.io.tracebit.dto;
+
+import dev.io.tracebit.entity.AuditLog;
+
+public enum RollupDimension {
+    NONE,
+    ACTION,
+    USER_ID;
+
+    /**
+     * The value a log is grouped under, or an empty string for NONE.
+     */
+    public String valueOf(AuditLog log) {
+        String value = switch (this) {
+            case NONE -> "";
+            case ACTION -> log.getAction();
+            case USER_ID -> log.getUserId();
+        };
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,37 @@
+package dev.io.tracebit.dto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupGranularity {
+    MINUTE(ChronoUnit.MINUTES, 60),
+    HOUR(ChronoUnit.HOURS, 24),
+    DAY(ChronoUnit.DAYS, 30);
+
+    private final ChronoUnit unit;
+    private final int defaultBuckets;
+
+    RollupGranularity(ChronoUnit unit, int defaultBuckets) {
+        this.unit = unit;
+        this.defaultBuckets = defaultBuckets;
+    }
+
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public LocalDateTime previous(LocalDateTime bucketStart) {
+        return bucketStart.minus(1, unit);
+    }
+
+    public long bucketsBetween(LocalDateTime from, LocalDateTime to) {
+        return unit.between(truncate(from), to);
+    }
+
+    /**
+     * Start of the range shown when a stats request has no from parameter.
+     */
+    public LocalDateTime defaultFrom(LocalDateTime to) {
+        return truncate(to).minus(defaultBuckets - 1, unit);
+    }
+}
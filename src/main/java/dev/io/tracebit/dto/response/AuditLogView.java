@@ -0,0 +1,24 @@
+package dev.io.tracebit.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import dev.io.tracebit.entity.AuditLog;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable, decrypted audit log as returned by the read path. Serialises to the same
+ * JSON as the entity.
+ */
+public record AuditLogView(Long id, @JsonIgnore String startupId, String userId, String action, String target, Meta meta,
+                           LocalDateTime createdAt, @JsonIgnore LocalDateTime expiresAt) {
+
+    public record Meta(String ip, String device, String location) {
+    }
+
+    public static AuditLogView of(AuditLog log) {
+        Meta meta = log.getMeta() == null ? null
+                : new Meta(log.getMeta().getIp(), log.getMeta().getDevice(), log.getMeta().getLocation());
+        return new AuditLogView(log.getId(), log.getStartupId(), log.getUserId(), log.getAction(), log.getTarget(), meta,
+                log.getCreatedAt(), log.getExpiresAt());
+    }
+}
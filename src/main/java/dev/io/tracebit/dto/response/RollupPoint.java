@@ -0,0 +1,10 @@
+package dev.io.tracebit.dto.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * One bar of a stats series: the number of logs in a bucket, for a group when the
+ * series is grouped.
+ */
+public record RollupPoint(LocalDateTime bucketStart, String group, long count) {
+}
@@ -1,5 +1,6 @@
 package dev.io.tracebit.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import dev.io.tracebit.security.AttributeEncryptor;
 import jakarta.persistence.*;
 import lombok.*;
@@ -18,6 +19,11 @@ public class AuditLog {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // The tenant, taken from the API key; stored in the clear so queries can be scoped by it.
+    @JsonIgnore
+    @Column(name = "startup_id", nullable = false)
+    private String startupId;
+
     @Convert(converter = AttributeEncryptor.class)
     private String userId;
 
@@ -32,5 +38,9 @@ public class AuditLog {
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
+
+    @JsonIgnore
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
 }
 
@@ -0,0 +1,11 @@
+package dev.io.tracebit.event;
+
+import dev.io.tracebit.entity.AlertRule;
+
+/**
+ * Published when an alert rule is created, updated or deleted; {@code rule} is null
+ * for a deletion. Listeners should use {@code @TransactionalEventListener} so they only
+ * see changes that committed.
+ */
+public record AlertRuleChangedEvent(Long ruleId, AlertRule rule) {
+}
@@ -0,0 +1,11 @@
+package dev.io.tracebit.event;
+
+import dev.io.tracebit.entity.AuditLog;
+
+/**
+ * Published by the async save path for every stored audit log. Listeners that keep
+ * derived state in sync should use {@code @TransactionalEventListener} so they only
+ * see logs whose transaction committed.
+ */
+public record AuditLogPersistedEvent(AuditLog auditLog) {
+}
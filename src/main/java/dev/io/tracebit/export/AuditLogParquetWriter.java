@@ -0,0 +1,284 @@
+package dev.io.tracebit.export;
+
+import com.github.luben.zstd.Zstd;
+import dev.io.tracebit.archive.ArchiveSegment;
+import dev.io.tracebit.dto.response.AuditLogView;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.xerial.snappy.Snappy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes audit logs to a Parquet file on an output stream, one row group at a time:
+ * rows are encoded into column pages as they arrive and the row group is written out
+ * once it reaches the configured size, so memory use is bounded by the row group rather
+ * than the export. String columns are dictionary encoded, which collapses the few
+ * distinct actions, devices and locations to small integers before compression.
+ * <p>
+ * Parquet's own codecs go through Hadoop, so pages are compressed here with the zstd
+ * and snappy libraries directly and no Hadoop classes are loaded.
+ */
+public class AuditLogParquetWriter implements Closeable {
+
+    static final MessageType SCHEMA = Types.buildMessage()
+            .required(PrimitiveTypeName.INT64).named("id")
+            .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("user_id")
+            .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("action")
+            .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("target")
+            .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("ip")
+            .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("device")
+            .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("location")
+            .required(PrimitiveTypeName.INT64).as(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MICROS)).named("created_at")
+            .named("audit_log");
+
+    private static final int ZSTD_LEVEL = 3;
+
+    private final ParquetWriter<AuditLogView> writer;
+
+    private AuditLogParquetWriter(ParquetWriter<AuditLogView> writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Starts a file on the stream. Closing the writer writes the footer and flushes the
+     * stream; the caller closes it.
+     *
+     * @param codec        zstd, snappy or uncompressed
+     * @param rowGroupSize bytes of encoded rows buffered before a row group is written
+     */
+    public static AuditLogParquetWriter open(OutputStream out, String codec, long rowGroupSize) throws IOException {
+        return new AuditLogParquetWriter(new Builder(new StreamOutputFile(out))
+                .withConf(new PlainParquetConfiguration())
+                .withCodecFactory(new Codecs())
+                .withCompressionCodec(codecName(codec))
+                .withRowGroupSize(rowGroupSize)
+                .withDictionaryEncoding(true)
+                .withDictionaryEncoding("id", false)
+                .withDictionaryEncoding("created_at", false)
+                .build());
+    }
+
+    static CompressionCodecName codecName(String codec) {
+        return switch (codec.toLowerCase(Locale.ROOT)) {
+            case "zstd" -> CompressionCodecName.ZSTD;
+            case "snappy" -> CompressionCodecName.SNAPPY;
+            case "none", "uncompressed" -> CompressionCodecName.UNCOMPRESSED;
+            default -> throw new IllegalArgumentException("Unsupported Parquet codec: " + codec);
+        };
+    }
+
+    public void write(AuditLogView log) throws IOException {
+        writer.write(log);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static class Builder extends ParquetWriter.Builder<AuditLogView, Builder> {
+
+        Builder(OutputFile file) {
+            super(file);
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        /**
+         * Still abstract in Parquet, but never called: the builder is given a
+         * {@link ParquetConfiguration}.
+         */
+        @Deprecated
+        @Override
+        protected WriteSupport<AuditLogView> getWriteSupport(Configuration conf) {
+            throw new UnsupportedOperationException("Parquet exports do not use a Hadoop configuration");
+        }
+
+        @Override
+        protected WriteSupport<AuditLogView> getWriteSupport(ParquetConfiguration conf) {
+            return new AuditLogWriteSupport();
+        }
+    }
+
+    /**
+     * Feeds each log straight into the column writers, without an intermediate record.
+     */
+    private static class AuditLogWriteSupport extends WriteSupport<AuditLogView> {
+
+        private RecordConsumer consumer;
+
+        /**
+         * Still abstract in Parquet, but never called, as for the builder.
+         */
+        @Deprecated
+        @Override
+        public WriteContext init(Configuration configuration) {
+            throw new UnsupportedOperationException("Parquet exports do not use a Hadoop configuration");
+        }
+
+        @Override
+        public WriteContext init(ParquetConfiguration configuration) {
+            return new WriteContext(SCHEMA, Map.of("writer", "tracebit"));
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(AuditLogView log) {
+            AuditLogView.Meta meta = log.meta();
+            consumer.startMessage();
+            addLong(0, "id", log.id());
+            addString(1, "user_id", log.userId());
+            addString(2, "action", log.action());
+            addString(3, "target", log.target());
+            addString(4, "ip", meta != null ? meta.ip() : null);
+            addString(5, "device", meta != null ? meta.device() : null);
+            addString(6, "location", meta != null ? meta.location() : null);
+            addLong(7, "created_at", ArchiveSegment.toMicros(log.createdAt()));
+            consumer.endMessage();
+        }
+
+        private void addLong(int index, String field, long value) {
+            consumer.startField(field, index);
+            consumer.addLong(value);
+            consumer.endField(field, index);
+        }
+
+        private void addString(int index, String field, String value) {
+            if (value == null) {
+                return;
+            }
+            consumer.startField(field, index);
+            consumer.addBinary(Binary.fromString(value));
+            consumer.endField(field, index);
+        }
+    }
+
+    /**
+     * Compresses pages with zstd-jni and snappy-java. Exports are never read back here,
+     * so there are no decompressors.
+     */
+    private static class Codecs implements CompressionCodecFactory {
+
+        @Override
+        public BytesInputCompressor getCompressor(CompressionCodecName codecName) {
+            return new BytesInputCompressor() {
+                @Override
+                public BytesInput compress(BytesInput bytes) throws IOException {
+                    return switch (codecName) {
+                        case ZSTD -> BytesInput.from(Zstd.compress(toByteArray(bytes), ZSTD_LEVEL));
+                        case SNAPPY -> BytesInput.from(Snappy.compress(toByteArray(bytes)));
+                        case UNCOMPRESSED -> bytes;
+                        default -> throw new IllegalArgumentException("Unsupported Parquet codec: " + codecName);
+                    };
+                }
+
+                @Override
+                public CompressionCodecName getCodecName() {
+                    return codecName;
+                }
+
+                @Override
+                public void release() {
+                }
+            };
+        }
+
+        private static byte[] toByteArray(BytesInput bytes) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.toIntExact(bytes.size()));
+            bytes.writeAllTo(out);
+            return out.toByteArray();
+        }
+
+        @Override
+        public BytesInputDecompressor getDecompressor(CompressionCodecName codecName) {
+            throw new UnsupportedOperationException("Parquet exports are write-only");
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+
+    /**
+     * Presents the output stream as a Parquet file, tracking the position Parquet records
+     * in the footer. Closing it only flushes, leaving the stream to its owner.
+     */
+    private record StreamOutputFile(OutputStream out) implements OutputFile {
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) {
+            return new PositionOutputStream() {
+                private long position;
+
+                @Override
+                public long getPos() {
+                    return position;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    position++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    position += len;
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.flush();
+                }
+            };
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+            return create(blockSizeHint);
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+    }
+}
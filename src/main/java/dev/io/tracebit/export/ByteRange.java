@@ -0,0 +1,50 @@
+package dev.io.tracebit.export;
+
+/**
+ * A single byte range from an HTTP Range header, as inclusive offsets into a file.
+ */
+public record ByteRange(long start, long end) {
+
+    /**
+     * Parses {@code bytes=a-b}, {@code bytes=a-} or {@code bytes=-n} against a file of the
+     * given length, clamping the end to the file. Returns null when the header should be
+     * ignored and the whole file sent: it is malformed, or asks for several ranges.
+     */
+    public static ByteRange parse(String header, long length) {
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                return suffix <= 0 ? new ByteRange(length, length - 1) : new ByteRange(Math.max(0, length - suffix), length - 1);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            return new ByteRange(start, Math.min(end, length - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether any of the range lies inside the file; if not, the answer is 416.
+     */
+    public boolean isSatisfiable(long length) {
+        return start < length && start <= end;
+    }
+
+    public long length() {
+        return end - start + 1;
+    }
+}
@@ -0,0 +1,114 @@
+package dev.io.tracebit.export;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An export generated in the background and kept on local disk until it expires.
+ * Requests with the same {@link Key} share a job while it is queued or running. The
+ * file is only deleted while no download of it is running or recently started.
+ */
+@Getter
+public class ExportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Key key;
+    private final Integer parallelism;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile Path file;
+    private volatile long size;
+    private volatile LocalDateTime completedAt;
+    private volatile LocalDateTime expiresAt;
+    private volatile String error;
+    @Getter(AccessLevel.NONE)
+    private int downloads;
+    @Getter(AccessLevel.NONE)
+    private LocalDateTime lastDownloadAt;
+    @Getter(AccessLevel.NONE)
+    private boolean deleted;
+
+    public ExportJob(Key key, Integer parallelism) {
+        this.key = key;
+        this.parallelism = parallelism;
+    }
+
+    public void start() {
+        status = Status.RUNNING;
+    }
+
+    public void complete(Path file, long size, LocalDateTime expiresAt) {
+        this.file = file;
+        this.size = size;
+        this.completedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+        this.status = Status.COMPLETED;
+    }
+
+    public void fail(String error, LocalDateTime expiresAt) {
+        this.error = error;
+        this.completedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+        this.status = Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    /**
+     * Counts a download of the file until {@link #finishDownload()}; false once the file
+     * has been deleted.
+     */
+    public synchronized boolean startDownload() {
+        if (deleted) {
+            return false;
+        }
+        downloads++;
+        lastDownloadAt = LocalDateTime.now();
+        return true;
+    }
+
+    public synchronized void finishDownload() {
+        downloads--;
+    }
+
+    /**
+     * Gives the file up for deletion unless a download is running or started after
+     * {@code downloadedBefore}; later downloads are refused.
+     */
+    public synchronized boolean markDeleted(LocalDateTime downloadedBefore) {
+        if (downloads > 0 || lastDownloadAt != null && lastDownloadAt.isAfter(downloadedBefore)) {
+            return false;
+        }
+        deleted = true;
+        return true;
+    }
+
+    /**
+     * Strong tag of the finished file, for If-Range on resumed downloads.
+     */
+    public String getETag() {
+        return "\"" + id + "-" + size + "\"";
+    }
+
+    /**
+     * What an export contains; format is lower case.
+     */
+    public record Key(String startupId, String format, ExportCompression compression, String userId, String action,
+                      LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Name the file is downloaded under, such as audit-logs.csv.gz.
+     */
+    public String getFileName() {
+        return "audit-logs." + key.format() + key.compression().getExtension();
+    }
+}
@@ -0,0 +1,142 @@
+package dev.io.tracebit.export;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs the parts of a scan at once, at most {@code parallelism} at a time, and hands
+ * their rows to a single consumer in part order, as if they had been scanned one after
+ * another. Each part fills its own queue
+ * of row batches, which holds at most {@code queueBatches} batches: a part that gets
+ * ahead of the consumer blocks until the parts before it are drained, so memory is
+ * bounded by the parts running, not by their size.
+ * <p>
+ * Parts are submitted in order, and a part is only submitted once the one
+ * {@code parallelism} places before it has been drained, so on a FIFO executor the part
+ * the consumer waits for has always been submitted. If the consumer or a part fails, the remaining parts are
+ * interrupted and the failure is rethrown.
+ */
+public class OrderedParallelScan<T> {
+
+    @FunctionalInterface
+    public interface Part<T> {
+        void scan(Consumer<T> sink) throws Exception;
+    }
+
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final int queueBatches;
+
+    public OrderedParallelScan(ExecutorService executor, int batchSize, int queueBatches) {
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.queueBatches = queueBatches;
+    }
+
+    public void forEach(List<? extends Part<T>> parts, Consumer<? super T> consumer) {
+        forEach(parts, parts.size(), consumer);
+    }
+
+    public void forEach(List<? extends Part<T>> parts, int parallelism, Consumer<? super T> consumer) {
+        List<Chunk> chunks = new ArrayList<>(parts.size());
+        try {
+            for (int i = 0; i < Math.min(parallelism, parts.size()); i++) {
+                submit(parts.get(i), chunks);
+            }
+            for (int i = 0; i < parts.size(); i++) {
+                chunks.get(i).drainTo(consumer);
+                if (i + parallelism < parts.size()) {
+                    submit(parts.get(i + parallelism), chunks);
+                }
+            }
+        } finally {
+            for (Chunk chunk : chunks) {
+                if (chunk.future != null) {
+                    chunk.future.cancel(true);
+                }
+            }
+        }
+    }
+
+    private void submit(Part<T> part, List<Chunk> chunks) {
+        Chunk chunk = new Chunk();
+        chunks.add(chunk);
+        chunk.future = executor.submit(() -> chunk.fill(part));
+    }
+
+    private class Chunk {
+
+        private final BlockingQueue<List<T>> queue = new ArrayBlockingQueue<>(queueBatches);
+        private final List<T> end = new ArrayList<>(0);
+        private List<T> batch = new ArrayList<>(batchSize);
+        private volatile Throwable error;
+        private volatile Future<?> future;
+
+        void fill(Part<T> part) {
+            try {
+                part.scan(this::add);
+                if (!batch.isEmpty()) {
+                    put(batch);
+                }
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                if (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        queue.put(end);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+
+        private void add(T row) {
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                put(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        private void put(List<T> rows) {
+            try {
+                queue.put(rows);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Scan cancelled");
+            }
+        }
+
+        void drainTo(Consumer<? super T> consumer) {
+            while (true) {
+                List<T> rows;
+                try {
+                    rows = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Scan interrupted");
+                }
+                if (rows == end) {
+                    if (error instanceof RuntimeException e) {
+                        throw e;
+                    }
+                    if (error instanceof Error e) {
+                        throw e;
+                    }
+                    if (error != null) {
+                        throw new IllegalStateException("Scan part failed", error);
+                    }
+                    return;
+                }
+                rows.forEach(consumer);
+            }
+        }
+    }
+}
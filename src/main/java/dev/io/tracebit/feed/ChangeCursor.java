@@ -0,0 +1,46 @@
+package dev.io.tracebit.feed;
+
+import dev.io.tracebit.exception.ValidationException;
+
+import java.util.Map;
+
+/**
+ * Position in the change feed: the inserting transaction and id of the last row a
+ * consumer has received. Rows from before the feed existed have no transaction and
+ * come first, in id order, under txId 0. Clients treat the text form as opaque.
+ */
+public record ChangeCursor(long txId, long id) {
+
+    public static final ChangeCursor START = new ChangeCursor(0, 0);
+
+    /**
+     * Parses a cursor returned by the feed; a missing cursor starts from the beginning.
+     */
+    public static ChangeCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return START;
+        }
+        int separator = value.indexOf('.');
+        try {
+            if (separator > 0) {
+                ChangeCursor cursor = new ChangeCursor(Long.parseLong(value.substring(0, separator)),
+                        Long.parseLong(value.substring(separator + 1)));
+                if (cursor.txId() >= 0 && cursor.id() >= 0) {
+                    return cursor;
+                }
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new ValidationException("Invalid change cursor", Map.of("after", "Use the next cursor of a previous response"));
+    }
+
+    public boolean isLegacy() {
+        return txId == 0;
+    }
+
+    @Override
+    public String toString() {
+        return txId + "." + id;
+    }
+}
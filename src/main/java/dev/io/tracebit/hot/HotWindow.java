@@ -0,0 +1,327 @@
+package dev.io.tracebit.hot;
+
+import dev.io.tracebit.archive.ArchiveSegment;
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.entity.MetaData;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fixed-capacity, column-oriented ring of the most recently persisted audit logs.
+ * Ids and timestamps live in primitive arrays; startupId, userId, action and device are
+ * dictionary-encoded into int columns so filters and group-bys are evaluated once
+ * per distinct value rather than once per row. When the ring is full the oldest
+ * row is overwritten.
+ * <p>
+ * The window only answers for time ranges it holds completely: from the moment it
+ * was created, or from just after the newest evicted row, whichever is later.
+ */
+public class HotWindow {
+
+    private static final int NULL_CODE = -1;
+    private static final int ANY_CODE = -2;
+
+    private final int capacity;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final long[] ids;
+    private final long[] createdAt;
+    private final long[] expiresAt;
+    private final int[] startupIds;
+    private final int[] userIds;
+    private final int[] actions;
+    private final int[] devices;
+    private final String[] targets;
+    private final String[] ips;
+    private final String[] locations;
+
+    private Dictionary startupIdDictionary = new Dictionary();
+    private Dictionary userIdDictionary = new Dictionary();
+    private Dictionary actionDictionary = new Dictionary();
+    private Dictionary deviceDictionary = new Dictionary();
+
+    // Index of the next slot to write; rows occupy the size slots before it.
+    private int head;
+    private int size;
+    private long coveredFrom;
+
+    public HotWindow(int capacity, LocalDateTime createdAt) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Hot window capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ids = new long[capacity];
+        this.createdAt = new long[capacity];
+        this.expiresAt = new long[capacity];
+        this.startupIds = new int[capacity];
+        this.userIds = new int[capacity];
+        this.actions = new int[capacity];
+        this.devices = new int[capacity];
+        this.targets = new String[capacity];
+        this.ips = new String[capacity];
+        this.locations = new String[capacity];
+        this.coveredFrom = ArchiveSegment.toMicros(createdAt);
+    }
+
+    public void append(AuditLog log) {
+        MetaData meta = log.getMeta() != null ? log.getMeta() : new MetaData();
+        lock.writeLock().lock();
+        try {
+            if (size == capacity) {
+                // Anything at or before the evicted row may now be incomplete.
+                coveredFrom = Math.max(coveredFrom, createdAt[head] + 1);
+            } else {
+                size++;
+            }
+            ids[head] = log.getId();
+            createdAt[head] = ArchiveSegment.toMicros(log.getCreatedAt());
+            expiresAt[head] = log.getExpiresAt() != null ? ArchiveSegment.toMicros(log.getExpiresAt()) : Long.MAX_VALUE;
+            startupIds[head] = startupIdDictionary.encode(log.getStartupId());
+            userIds[head] = userIdDictionary.encode(log.getUserId());
+            actions[head] = actionDictionary.encode(log.getAction());
+            devices[head] = deviceDictionary.encode(meta.getDevice());
+            targets[head] = log.getTarget();
+            ips[head] = meta.getIp();
+            locations[head] = meta.getLocation();
+            head = (head + 1) % capacity;
+
+            // Evicted values linger in the dictionaries; rebuild them before they outgrow the ring.
+            if (startupIdDictionary.size() > 2 * capacity || userIdDictionary.size() > 2 * capacity
+                    || actionDictionary.size() > 2 * capacity || deviceDictionary.size() > 2 * capacity) {
+                compactDictionaries();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * True when every log the filter could match is held by the window.
+     */
+    public boolean covers(AuditLogFilter filter) {
+        lock.readLock().lock();
+        try {
+            return filter.getFrom() != null && ArchiveSegment.toMicros(filter.getFrom()) >= coveredFrom;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public LocalDateTime getCoveredFrom() {
+        lock.readLock().lock();
+        try {
+            return ArchiveSegment.fromMicros(coveredFrom);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of matches, newest first, and the total number of matches.
+     */
+    public Result search(AuditLogFilter filter, LocalDateTime now, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int[] matches = match(filter, now);
+            Integer[] ordered = new Integer[matches.length];
+            for (int i = 0; i < matches.length; i++) {
+                ordered[i] = matches[i];
+            }
+            Arrays.sort(ordered, Comparator.<Integer>comparingLong(slot -> createdAt[slot])
+                    .thenComparingLong(slot -> ids[slot])
+                    .reversed());
+
+            List<AuditLog> page = new ArrayList<>();
+            for (long i = offset; i < ordered.length && page.size() < limit; i++) {
+                page.add(toAuditLog(ordered[(int) i]));
+            }
+            return new Result(page, ordered.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every match, oldest first.
+     */
+    public List<AuditLog> list(AuditLogFilter filter, LocalDateTime now) {
+        lock.readLock().lock();
+        try {
+            int[] matches = match(filter, now);
+            List<AuditLog> logs = new ArrayList<>(matches.length);
+            for (int slot : matches) {
+                logs.add(toAuditLog(slot));
+            }
+            logs.sort(Comparator.comparing(AuditLog::getCreatedAt).thenComparing(AuditLog::getId));
+            return logs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts matches per action. Counting happens on the dictionary codes; strings are
+     * only looked up once per distinct action.
+     */
+    public Map<String, Long> countByAction(AuditLogFilter filter, LocalDateTime now) {
+        lock.readLock().lock();
+        try {
+            long[] counts = new long[actionDictionary.size()];
+            for (int slot : match(filter, now)) {
+                if (actions[slot] != NULL_CODE) {
+                    counts[actions[slot]]++;
+                }
+            }
+
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (int code = 0; code < counts.length; code++) {
+                if (counts[code] > 0) {
+                    result.put(actionDictionary.decode(code), counts[code]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Slots matching the filter, newest appended first. Callers must hold the read lock.
+     */
+    private int[] match(AuditLogFilter filter, LocalDateTime now) {
+        long from = filter.getFrom() != null ? ArchiveSegment.toMicros(filter.getFrom()) : Long.MIN_VALUE;
+        long to = filter.getTo() != null ? ArchiveSegment.toMicros(filter.getTo()) : Long.MAX_VALUE;
+        long nowMicros = ArchiveSegment.toMicros(now);
+        int startupCode = filter.getStartupId() != null ? startupIdDictionary.codeOf(filter.getStartupId()) : ANY_CODE;
+        if (startupCode == NULL_CODE) {
+            return new int[0];
+        }
+        boolean[] userIdMatches = userIdDictionary.matching(filter.getUserId());
+        boolean[] actionMatches = actionDictionary.matching(filter.getAction());
+
+        int[] matches = new int[size];
+        int count = 0;
+        for (int i = 1; i <= size; i++) {
+            int slot = (head - i + capacity) % capacity;
+            if ((startupCode == ANY_CODE || startupIds[slot] == startupCode)
+                    && createdAt[slot] >= from && createdAt[slot] <= to && expiresAt[slot] > nowMicros
+                    && matches(userIdMatches, userIds[slot]) && matches(actionMatches, actions[slot])) {
+                matches[count++] = slot;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private static boolean matches(boolean[] dictionaryMatches, int code) {
+        if (dictionaryMatches == null) {
+            return true;
+        }
+        return code != NULL_CODE && dictionaryMatches[code];
+    }
+
+    private AuditLog toAuditLog(int slot) {
+        return AuditLog.builder()
+                .id(ids[slot])
+                .createdAt(ArchiveSegment.fromMicros(createdAt[slot]))
+                .expiresAt(expiresAt[slot] != Long.MAX_VALUE ? ArchiveSegment.fromMicros(expiresAt[slot]) : null)
+                .startupId(startupIdDictionary.decode(startupIds[slot]))
+                .userId(userIdDictionary.decode(userIds[slot]))
+                .action(actionDictionary.decode(actions[slot]))
+                .target(targets[slot])
+                .meta(MetaData.builder()
+                        .ip(ips[slot])
+                        .device(deviceDictionary.decode(devices[slot]))
+                        .location(locations[slot])
+                        .build())
+                .build();
+    }
+
+    private void compactDictionaries() {
+        startupIdDictionary = startupIdDictionary.recode(startupIds, size, head, capacity);
+        userIdDictionary = userIdDictionary.recode(userIds, size, head, capacity);
+        actionDictionary = actionDictionary.recode(actions, size, head, capacity);
+        deviceDictionary = deviceDictionary.recode(devices, size, head, capacity);
+    }
+
+    public record Result(List<AuditLog> logs, long total) {
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return NULL_CODE;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        /**
+         * Code of an exact value, or NULL_CODE when the value is not in the dictionary.
+         */
+        int codeOf(String value) {
+            return codes.getOrDefault(value, NULL_CODE);
+        }
+
+        String decode(int code) {
+            return code == NULL_CODE ? null : values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        /**
+         * Per-code result of the partial, case-insensitive match used by search, or
+         * null when there is nothing to filter on.
+         */
+        boolean[] matching(String part) {
+            if (part == null || part.isEmpty()) {
+                return null;
+            }
+            String needle = part.toLowerCase(Locale.ROOT);
+            boolean[] result = new boolean[values.size()];
+            for (int code = 0; code < result.length; code++) {
+                result[code] = values.get(code).toLowerCase(Locale.ROOT).contains(needle);
+            }
+            return result;
+        }
+
+        /**
+         * Builds a dictionary holding only the values still referenced by the live
+         * slots of the column, rewriting the column in place.
+         */
+        Dictionary recode(int[] column, int size, int head, int capacity) {
+            Dictionary compacted = new Dictionary();
+            for (int i = size; i >= 1; i--) {
+                int slot = (head - i + capacity) % capacity;
+                column[slot] = compacted.encode(decode(column[slot]));
+            }
+            return compacted;
+        }
+    }
+}
@@ -5,9 +5,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface AlertRuleRepository extends JpaRepository<AlertRule, Long> {
     List<AlertRule> findByStartupIdAndActiveTrue(String startupId);
 
-    List<AlertRule> findAllByActiveTrue();
+    List<AlertRule> findByActiveTrue();
+
+    Optional<AlertRule> findByIdAndStartupId(Long id, String startupId);
 }
\ No newline at end of file
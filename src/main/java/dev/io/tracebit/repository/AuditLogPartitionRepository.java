@@ -0,0 +1,114 @@
+package dev.io.tracebit.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Partition DDL for the range-partitioned {@code audit_logs} table.
+ * Partition names are generated internally, never taken from user input.
+ */
+@Repository
+public class AuditLogPartitionRepository {
+
+    private static final Pattern RANGE_BOUND = Pattern.compile("FOR VALUES FROM \\((.+)\\) TO \\((.+)\\)");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String LOCK_TIMEOUT = "SET LOCAL lock_timeout = '5s'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditLogPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Lists the range partitions of audit_logs. The default partition is not included.
+     */
+    public List<Partition> findRangePartitions() {
+        List<Partition> partitions = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'audit_logs'::regclass",
+                rs -> {
+                    Matcher matcher = RANGE_BOUND.matcher(rs.getString(2));
+                    if (matcher.matches()) {
+                        partitions.add(new Partition(rs.getString(1), parseBound(matcher.group(1)), parseBound(matcher.group(2))));
+                    }
+                });
+        return partitions;
+    }
+
+    /**
+     * Creates a partition for [from, to). Rows that already landed in the default
+     * partition for that range are moved into it before it is attached.
+     */
+    @Transactional
+    public void createPartition(String name, LocalDateTime from, LocalDateTime to) {
+        jdbcTemplate.execute(LOCK_TIMEOUT);
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE audit_logs)");
+        jdbcTemplate.update("WITH moved AS (DELETE FROM audit_logs_default WHERE created_at >= ? AND created_at < ? RETURNING *) " +
+                "INSERT INTO " + name + " SELECT * FROM moved", from, to);
+        jdbcTemplate.execute("ALTER TABLE audit_logs ATTACH PARTITION " + name +
+                " FOR VALUES FROM ('" + BOUND_FORMAT.format(from) + "') TO ('" + BOUND_FORMAT.format(to) + "')");
+    }
+
+    @Transactional
+    public void dropPartition(String name) {
+        jdbcTemplate.execute(LOCK_TIMEOUT);
+        jdbcTemplate.execute("ALTER TABLE audit_logs DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE " + name);
+    }
+
+    /**
+     * Runs the job while holding the named session advisory lock, so that only one node
+     * runs it at a time. The lock is taken on a connection of its own and held across
+     * the job's transactions. Returns false, without running the job, when another node
+     * holds the lock.
+     */
+    public boolean runLocked(String lockName, Runnable job) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!advisoryLock(connection, "pg_try_advisory_lock", lockName)) {
+                return false;
+            }
+            try {
+                job.run();
+                return true;
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock", lockName);
+            }
+        }));
+    }
+
+    private static boolean advisoryLock(Connection connection, String function, String lockName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(hashtext(?))")) {
+            statement.setString(1, lockName);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private LocalDateTime parseBound(String bound) {
+        return switch (bound) {
+            case "MINVALUE" -> LocalDateTime.MIN;
+            case "MAXVALUE" -> LocalDateTime.MAX;
+            default -> LocalDateTime.parse(bound.substring(1, 20), BOUND_FORMAT);
+        };
+    }
+
+    public record Partition(String name, LocalDateTime from, LocalDateTime to) {
+    }
+}
@@ -0,0 +1,287 @@
+package dev.io.tracebit.repository;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.dto.response.AuditLogView;
+import dev.io.tracebit.feed.ChangeCursor;
+import dev.io.tracebit.security.AttributeEncryptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Read side of audit_logs over plain JDBC. Rows are mapped straight into
+ * {@link AuditLogView} records, without entities, persistence context snapshots or
+ * per-attribute converters, and columns are only decrypted when they are needed: the
+ * filter columns of every row in range, the rest only for rows that are returned.
+ * userId and action are encrypted with random IVs, so they are matched after decryption.
+ * Every query is scoped to one startup through the tenant-leading index, except where
+ * a filter leaves the startup out for maintenance work across tenants. Expired logs
+ * are never returned, even before the purge has removed them. Streaming queries need
+ * a surrounding transaction for the fetch size to take effect.
+ */
+@Repository
+public class AuditLogReadRepository {
+
+    private static final String COLUMNS = "id, user_id, action, target, ip, device, location, created_at, expires_at, startup_id";
+    private static final String NOT_EXPIRED = "(expires_at IS NULL OR expires_at > ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AttributeEncryptor encryptor;
+
+    @Value("${tracebit.stream.fetch-size:1000}")
+    private int fetchSize;
+
+    public AuditLogReadRepository(JdbcTemplate jdbcTemplate, AttributeEncryptor encryptor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.encryptor = encryptor;
+    }
+
+    public Optional<AuditLogView> findById(String startupId, long id) {
+        List<AuditLogView> found = jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM audit_logs WHERE startup_id = ? AND id = ? AND " + NOT_EXPIRED,
+                (rs, rowNum) -> toView(rs, decrypt(rs.getString(2)), decrypt(rs.getString(3))), startupId, id, now());
+        return found.stream().findFirst();
+    }
+
+    /**
+     * Logs with the given ids, in no particular order; ids that do not exist are skipped.
+     */
+    public List<AuditLogView> findAllById(String startupId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                con -> {
+                    var ps = con.prepareStatement(
+                            "SELECT " + COLUMNS + " FROM audit_logs WHERE startup_id = ? AND id = ANY (?) AND " + NOT_EXPIRED);
+                    ps.setString(1, startupId);
+                    ps.setArray(2, con.createArrayOf("bigint", ids.toArray()));
+                    ps.setTimestamp(3, now());
+                    return ps;
+                },
+                (rs, rowNum) -> toView(rs, decrypt(rs.getString(2)), decrypt(rs.getString(3))));
+    }
+
+    /**
+     * One page of matches, newest first, and the total match count. Without userId and
+     * action filters the page and count come straight from SQL; with them, the rows in
+     * the time range are streamed and matched after decrypting only the filter columns.
+     */
+    public Page search(AuditLogFilter filter, long offset, int limit) {
+        String userId = normalise(filter.getUserId());
+        String action = normalise(filter.getAction());
+        List<Object> args = new ArrayList<>();
+        String where = where(filter, args);
+
+        if (userId == null && action == null) {
+            Long total = jdbcTemplate.queryForObject("SELECT count(*) FROM audit_logs" + where, Long.class, args.toArray());
+            args.add(limit);
+            args.add(offset);
+            List<AuditLogView> logs = jdbcTemplate.query(
+                    "SELECT " + COLUMNS + " FROM audit_logs" + where + " ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?",
+                    (rs, rowNum) -> toView(rs, decrypt(rs.getString(2)), decrypt(rs.getString(3))), args.toArray());
+            return new Page(logs, total != null ? total : 0);
+        }
+
+        List<AuditLogView> logs = new ArrayList<>(limit);
+        long[] total = {0};
+        jdbcTemplate.query(streaming("SELECT " + COLUMNS + " FROM audit_logs" + where + " ORDER BY created_at DESC, id DESC", args),
+                rs -> {
+                    String rowUserId = userId == null ? null : decrypt(rs.getString(2));
+                    String rowAction = action == null ? null : decrypt(rs.getString(3));
+                    if (!contains(rowUserId, userId) || !contains(rowAction, action)) {
+                        return;
+                    }
+                    long index = total[0]++;
+                    if (index >= offset && index < offset + limit) {
+                        logs.add(toView(rs,
+                                rowUserId != null ? rowUserId : decrypt(rs.getString(2)),
+                                rowAction != null ? rowAction : decrypt(rs.getString(3))));
+                    }
+                });
+        return new Page(logs, total[0]);
+    }
+
+    /**
+     * Streams every match, oldest first, to the consumer.
+     */
+    public void scan(AuditLogFilter filter, Consumer<AuditLogView> consumer) {
+        scan(filter, null, consumer);
+    }
+
+    /**
+     * Streams every match created before {@code before}, oldest first, to the consumer.
+     * With the filter's inclusive range this scans one half-open slice of a larger range.
+     */
+    public void scan(AuditLogFilter filter, LocalDateTime before, Consumer<AuditLogView> consumer) {
+        String userId = normalise(filter.getUserId());
+        String action = normalise(filter.getAction());
+        List<Object> args = new ArrayList<>();
+        String where = where(filter, args);
+        if (before != null) {
+            where += " AND created_at < ?";
+            args.add(Timestamp.valueOf(before));
+        }
+
+        jdbcTemplate.query(streaming("SELECT " + COLUMNS + " FROM audit_logs" + where + " ORDER BY created_at, id", args),
+                rs -> {
+                    String rowUserId = decrypt(rs.getString(2));
+                    String rowAction = decrypt(rs.getString(3));
+                    if (contains(rowUserId, userId) && contains(rowAction, action)) {
+                        consumer.accept(toView(rs, rowUserId, rowAction));
+                    }
+                });
+    }
+
+    /**
+     * Oldest and newest creation time of the unexpired logs in the filter's startup and
+     * time range, or null when it holds none. User ID and action are not applied.
+     */
+    public CreatedAtRange findCreatedAtRange(AuditLogFilter filter) {
+        List<Object> args = new ArrayList<>();
+        String where = where(filter, args);
+        return jdbcTemplate.queryForObject("SELECT min(created_at), max(created_at) FROM audit_logs" + where,
+                (rs, rowNum) -> rs.getTimestamp(1) == null ? null
+                        : new CreatedAtRange(rs.getTimestamp(1).toLocalDateTime(), rs.getTimestamp(2).toLocalDateTime()),
+                args.toArray());
+    }
+
+    /**
+     * Number of matches per action. Actions are encrypted with random IVs, so they cannot
+     * be grouped in SQL; only the user ID and action columns are read and decrypted.
+     */
+    public Map<String, Long> countByAction(AuditLogFilter filter) {
+        String userId = normalise(filter.getUserId());
+        String action = normalise(filter.getAction());
+        List<Object> args = new ArrayList<>();
+        String where = where(filter, args);
+
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query(streaming("SELECT user_id, action FROM audit_logs" + where, args),
+                rs -> {
+                    String rowUserId = userId == null ? null : decrypt(rs.getString(1));
+                    String rowAction = decrypt(rs.getString(2));
+                    if (contains(rowUserId, userId) && contains(rowAction, action)) {
+                        counts.merge(rowAction, 1L, Long::sum);
+                    }
+                });
+        return counts;
+    }
+
+    /**
+     * Up to {@code limit} of a startup's logs after the cursor, in commit order, and the
+     * cursor of the last one. Only rows inserted by transactions older than every
+     * transaction still running are returned: they are all committed, so no row can
+     * turn up behind the returned cursor later. Rows from before the feed existed have
+     * no transaction and come first, in id order.
+     */
+    public Changes findChanges(String startupId, ChangeCursor after, int limit) {
+        List<AuditLogView> logs = new ArrayList<>(limit);
+        ChangeCursor[] next = {after};
+        Timestamp now = now();
+        if (after.isLegacy()) {
+            jdbcTemplate.query("SELECT " + COLUMNS + " FROM audit_logs " +
+                            "WHERE startup_id = ? AND tx_id IS NULL AND id > ? AND " + NOT_EXPIRED + " ORDER BY id LIMIT ?",
+                    rs -> {
+                        logs.add(toView(rs, decrypt(rs.getString(2)), decrypt(rs.getString(3))));
+                        next[0] = new ChangeCursor(0, rs.getLong(1));
+                    },
+                    startupId, after.id(), now, limit);
+        }
+        if (logs.size() < limit) {
+            Long horizon = jdbcTemplate.queryForObject("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint", Long.class);
+            jdbcTemplate.query("SELECT " + COLUMNS + ", tx_id FROM audit_logs " +
+                            "WHERE startup_id = ? AND (tx_id, id) > (?, ?) AND tx_id < ? AND " + NOT_EXPIRED +
+                            " ORDER BY tx_id, id LIMIT ?",
+                    rs -> {
+                        logs.add(toView(rs, decrypt(rs.getString(2)), decrypt(rs.getString(3))));
+                        next[0] = new ChangeCursor(rs.getLong(11), rs.getLong(1));
+                    },
+                    startupId, after.isLegacy() ? 0 : after.txId(), after.isLegacy() ? 0 : after.id(), horizon, now,
+                    limit - logs.size());
+        }
+        return new Changes(logs, next[0]);
+    }
+
+    private PreparedStatementCreator streaming(String sql, List<Object> args) {
+        return con -> {
+            var ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        };
+    }
+
+    private static String where(AuditLogFilter filter, List<Object> args) {
+        StringBuilder where = new StringBuilder(" WHERE ").append(NOT_EXPIRED);
+        args.add(now());
+        if (filter.getStartupId() != null) {
+            where.append(" AND startup_id = ?");
+            args.add(filter.getStartupId());
+        }
+        if (filter.getFrom() != null && !filter.getFrom().equals(LocalDateTime.MIN)) {
+            where.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            where.append(" AND created_at <= ?");
+            args.add(Timestamp.valueOf(filter.getTo()));
+        }
+        return where.toString();
+    }
+
+    // expires_at is written from LocalDateTime.now(), so it is compared with the same clock.
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    private AuditLogView toView(ResultSet rs, String userId, String action) throws SQLException {
+        Timestamp expiresAt = rs.getTimestamp(9);
+        return new AuditLogView(
+                rs.getLong(1),
+                rs.getString(10),
+                userId,
+                action,
+                decrypt(rs.getString(4)),
+                new AuditLogView.Meta(decrypt(rs.getString(5)), decrypt(rs.getString(6)), decrypt(rs.getString(7))),
+                rs.getTimestamp(8).toLocalDateTime(),
+                expiresAt != null ? expiresAt.toLocalDateTime() : null);
+    }
+
+    private String decrypt(String value) {
+        return encryptor.convertToEntityAttribute(value);
+    }
+
+    private static boolean contains(String value, String part) {
+        return part == null || value != null && value.toLowerCase(Locale.ROOT).contains(part);
+    }
+
+    private static String normalise(String value) {
+        return value == null || value.isEmpty() ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    public record Page(List<AuditLogView> logs, long total) {
+    }
+
+    public record Changes(List<AuditLogView> logs, ChangeCursor next) {
+    }
+
+    public record CreatedAtRange(LocalDateTime first, LocalDateTime last) {
+    }
+}
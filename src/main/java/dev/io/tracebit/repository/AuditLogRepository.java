@@ -1,29 +1,58 @@
 package dev.io.tracebit.repository;
 
 import dev.io.tracebit.entity.AuditLog;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
-    List<AuditLog> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to);
-
-    @Query("SELECT a FROM AuditLog a WHERE " +
-           "(:userId IS NULL OR LOWER(a.userId) LIKE LOWER(CONCAT('%', :userId, '%'))) AND " +
-           "(:action IS NULL OR LOWER(a.action) LIKE LOWER(CONCAT('%', :action, '%'))) AND " +
-           "a.createdAt BETWEEN :from AND :to")
-    Page<AuditLog> searchAuditLogs(
-            @Param("userId") String userId,
-            @Param("action") String action,
-            @Param("from") LocalDateTime from,
-            @Param("to") LocalDateTime to,
-            Pageable pageable
-    );
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM AuditLog a WHERE a.createdAt < :before AND a.id > :afterId ORDER BY a.id")
+    Stream<AuditLog> streamCreatedBefore(@Param("before") LocalDateTime before, @Param("afterId") long afterId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM AuditLog a WHERE a.createdAt >= :from AND a.createdAt < :to AND a.id > :afterId ORDER BY a.id")
+    Stream<AuditLog> streamCreatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                          @Param("afterId") long afterId);
+
+    @Query("SELECT MIN(a.id) FROM AuditLog a")
+    Long findMinId();
+
+    @Query("SELECT MAX(a.id) FROM AuditLog a")
+    Long findMaxId();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM AuditLog a WHERE a.id >= :fromId AND a.id < :toId")
+    Stream<AuditLog> streamByIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM AuditLog a WHERE a.createdAt >= :since")
+    Stream<AuditLog> streamCreatedSince(@Param("since") LocalDateTime since);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM AuditLog a WHERE a.createdAt >= :from AND a.createdAt < :to")
+    Stream<AuditLog> streamCreatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
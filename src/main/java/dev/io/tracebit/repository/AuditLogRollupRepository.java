@@ -0,0 +1,83 @@
+package dev.io.tracebit.repository;
+
+import dev.io.tracebit.dto.RollupDimension;
+import dev.io.tracebit.dto.RollupGranularity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class AuditLogRollupRepository {
+
+    private static final String UPSERT =
+            "INSERT INTO audit_log_rollups (startup_id, granularity, dimension, bucket_start, value_hash, value, count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (startup_id, granularity, dimension, bucket_start, value_hash) " +
+            "DO UPDATE SET count = audit_log_rollups.count + EXCLUDED.count";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditLogRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the counts to their buckets, creating buckets that do not exist yet.
+     */
+    @Transactional
+    public void addCounts(List<Rollup> rollups) {
+        jdbcTemplate.batchUpdate(UPSERT, rollups, 500, (ps, rollup) -> {
+            ps.setString(1, rollup.startupId());
+            ps.setString(2, rollup.granularity().name());
+            ps.setString(3, rollup.dimension().name());
+            ps.setTimestamp(4, Timestamp.valueOf(rollup.bucketStart()));
+            ps.setString(5, rollup.valueHash());
+            ps.setString(6, rollup.value());
+            ps.setLong(7, rollup.count());
+        });
+    }
+
+    /**
+     * Replaces every bucket of the granularity that starts in [from, to), across all
+     * startups, with the given recomputed counts. Every node reconciles on the same
+     * schedule, so replacements are serialised with an advisory lock; otherwise two of
+     * them could add up their counts.
+     */
+    @Transactional
+    public void replaceCounts(RollupGranularity granularity, LocalDateTime from, LocalDateTime to, List<Rollup> rollups) {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(hashtext('audit_log_rollups'))");
+        jdbcTemplate.update("DELETE FROM audit_log_rollups WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ?",
+                granularity.name(), from, to);
+        addCounts(rollups);
+    }
+
+    /**
+     * Buckets of one startup's series in [from, to), oldest first.
+     */
+    public List<Rollup> findRollups(String startupId, RollupGranularity granularity, RollupDimension dimension,
+                                    LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(
+                "SELECT bucket_start, value_hash, value, count FROM audit_log_rollups " +
+                "WHERE startup_id = ? AND granularity = ? AND dimension = ? AND bucket_start >= ? AND bucket_start < ? " +
+                "ORDER BY bucket_start",
+                (rs, rowNum) -> new Rollup(startupId, granularity, dimension, rs.getTimestamp(1).toLocalDateTime(),
+                        rs.getString(2), rs.getString(3), rs.getLong(4)),
+                startupId, granularity.name(), dimension.name(), from, to);
+    }
+
+    public int deleteOlderThan(RollupGranularity granularity, LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM audit_log_rollups WHERE granularity = ? AND bucket_start < ?",
+                granularity.name(), cutoff);
+    }
+
+    /**
+     * One bucket. value is the encrypted label of the grouped value.
+     */
+    public record Rollup(String startupId, RollupGranularity granularity, RollupDimension dimension, LocalDateTime bucketStart,
+                         String valueHash, String value, long count) {
+    }
+}
@@ -0,0 +1,61 @@
+package dev.io.tracebit.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class RetentionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RetentionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long findCheckpoint(String job) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT last_id FROM retention_checkpoints WHERE job = ?", Long.class, job);
+        return ids.isEmpty() ? 0L : ids.get(0);
+    }
+
+    @Transactional
+    public void saveCheckpoint(String job, long lastId) {
+        jdbcTemplate.update("INSERT INTO retention_checkpoints (job, last_id, updated_at) VALUES (?, ?, LOCALTIMESTAMP) " +
+                "ON CONFLICT (job) DO UPDATE SET last_id = EXCLUDED.last_id, updated_at = EXCLUDED.updated_at", job, lastId);
+    }
+
+    /**
+     * Deletes up to {@code limit} expired rows with an id above {@code afterId}, in id order,
+     * and advances the checkpoint in the same short transaction.
+     *
+     * @return the ids that were deleted
+     */
+    @Transactional
+    public List<Long> deleteExpiredBatch(String job, long afterId, LocalDateTime now, int limit) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '2s'");
+        jdbcTemplate.execute("SET LOCAL statement_timeout = '30s'");
+        List<Long> ids = jdbcTemplate.queryForList(
+                "DELETE FROM audit_logs WHERE (id, created_at) IN (" +
+                "SELECT id, created_at FROM audit_logs WHERE id > ? AND expires_at <= ? ORDER BY id LIMIT ?) " +
+                "RETURNING id", Long.class, afterId, now, limit);
+        if (!ids.isEmpty()) {
+            saveCheckpoint(job, ids.stream().mapToLong(Long::longValue).max().getAsLong());
+        }
+        return ids;
+    }
+
+    public long replicationLagMs() {
+        Long lag = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(EXTRACT(EPOCH FROM replay_lag) * 1000), 0)::bigint FROM pg_stat_replication", Long.class);
+        return lag != null ? lag : 0L;
+    }
+
+    public int activeConnections() {
+        Integer active = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_stat_activity WHERE state = 'active' AND datname = current_database()", Integer.class);
+        return active != null ? active : 0;
+    }
+}
@@ -0,0 +1,242 @@
+package dev.io.tracebit.search;
+
+import dev.io.tracebit.archive.ArchiveSegment;
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.FSDirectory;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lucene index over the decrypted free-text fields of audit logs. Only ids are stored;
+ * matches are joined back to the database or archive by the caller. Index files are
+ * encrypted through {@link EncryptedDirectory}.
+ */
+public class AuditLogIndex implements Closeable {
+
+    static final String ID = "id";
+    static final String ID_VALUE = "id_value";
+    static final String CREATED_AT = "created_at";
+    static final String EXPIRES_AT = "expires_at";
+    static final String STARTUP_ID = "startup_id";
+    static final String TARGET = "target";
+    static final String ACTION = "action";
+    static final String DEVICE = "device";
+    static final String USER_ID_KEY = "user_id_key";
+    static final String ACTION_KEY = "action_key";
+    private static final String COMMITTED_AT = "committed_at";
+
+    private static final Map<String, Float> TEXT_FIELDS = Map.of(TARGET, 1f, ACTION, 1f, DEVICE, 1f);
+    private static final Sort NEWEST_FIRST = new Sort(
+            new SortField(CREATED_AT, SortField.Type.LONG, true),
+            new SortField(ID_VALUE, SortField.Type.LONG, true));
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final EncryptedDirectory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    private AuditLogIndex(EncryptedDirectory directory) throws IOException {
+        this.directory = directory;
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setRAMBufferSizeMB(64);
+        this.writer = new IndexWriter(directory, config);
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    /**
+     * Opens or creates the index in the given directory. Merges run in the background
+     * on Lucene's ConcurrentMergeScheduler.
+     */
+    public static AuditLogIndex open(Path path, SecretKeySpec key) throws IOException {
+        return new AuditLogIndex(new EncryptedDirectory(FSDirectory.open(path), key));
+    }
+
+    /**
+     * Adds the log, replacing any earlier version of the same id.
+     */
+    public void index(AuditLog log) throws IOException {
+        writer.updateDocument(new Term(ID, String.valueOf(log.getId())), toDocument(log));
+    }
+
+    public void deleteCreatedBefore(LocalDateTime cutoff) throws IOException {
+        writer.deleteDocuments(LongPoint.newRangeQuery(CREATED_AT, Long.MIN_VALUE, ArchiveSegment.toMicros(cutoff) - 1));
+    }
+
+    public boolean isEmpty() {
+        return writer.getDocStats().numDocs == 0;
+    }
+
+    /**
+     * Makes everything indexed so far visible to searches.
+     */
+    public void refresh() throws IOException {
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * Durably commits pending changes. The commit records the time it started, so after a
+     * crash only logs persisted since then need to be indexed again.
+     */
+    public void commit() throws IOException {
+        if (writer.hasUncommittedChanges()) {
+            writer.setLiveCommitData(Map.of(COMMITTED_AT, LocalDateTime.now().toString()).entrySet());
+            writer.commit();
+        }
+    }
+
+    /**
+     * Start time of the last commit, or null when the index has never been committed.
+     */
+    public LocalDateTime getLastCommit() {
+        Iterable<Map.Entry<String, String>> data = writer.getLiveCommitData();
+        if (data != null) {
+            for (Map.Entry<String, String> entry : data) {
+                if (COMMITTED_AT.equals(entry.getKey())) {
+                    return LocalDateTime.parse(entry.getValue());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the ids of one page of matches, newest first, and the total match count.
+     */
+    public Hits search(String q, AuditLogFilter filter, LocalDateTime now, long offset, int limit) throws IOException {
+        Query query = buildQuery(q, filter, now);
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            int total = searcher.count(query);
+            List<Long> ids = new ArrayList<>();
+            if (offset < total && limit > 0) {
+                int wanted = (int) Math.min(total, offset + limit);
+                TopFieldDocs top = searcher.search(query, wanted, NEWEST_FIRST);
+                StoredFields storedFields = searcher.storedFields();
+                for (int i = (int) offset; i < top.scoreDocs.length; i++) {
+                    ScoreDoc hit = top.scoreDocs[i];
+                    ids.add(storedFields.document(hit.doc, Set.of(ID_VALUE)).getField(ID_VALUE).numericValue().longValue());
+                }
+            }
+            return new Hits(ids, total);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private Query buildQuery(String q, AuditLogFilter filter, LocalDateTime now) {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, TEXT_FIELDS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+
+        long from = filter.getFrom() != null ? ArchiveSegment.toMicros(filter.getFrom()) : Long.MIN_VALUE;
+        long to = filter.getTo() != null ? ArchiveSegment.toMicros(filter.getTo()) : Long.MAX_VALUE;
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(parser.parse(q), BooleanClause.Occur.MUST)
+                .add(LongPoint.newRangeQuery(CREATED_AT, from, to), BooleanClause.Occur.FILTER)
+                .add(LongPoint.newRangeQuery(EXPIRES_AT, ArchiveSegment.toMicros(now) + 1, Long.MAX_VALUE), BooleanClause.Occur.FILTER);
+        if (filter.getStartupId() != null) {
+            query.add(new TermQuery(new Term(STARTUP_ID, filter.getStartupId())), BooleanClause.Occur.FILTER);
+        }
+        addContains(query, USER_ID_KEY, filter.getUserId());
+        addContains(query, ACTION_KEY, filter.getAction());
+        return query.build();
+    }
+
+    /**
+     * Same partial, case-insensitive match as the database search, run against the
+     * lower-cased keyword field.
+     */
+    private static void addContains(BooleanQuery.Builder query, String field, String part) {
+        if (part == null || part.isEmpty()) {
+            return;
+        }
+        StringBuilder pattern = new StringBuilder("*");
+        for (char c : part.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (c == WildcardQuery.WILDCARD_STRING || c == WildcardQuery.WILDCARD_CHAR || c == WildcardQuery.WILDCARD_ESCAPE) {
+                pattern.append(WildcardQuery.WILDCARD_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        pattern.append('*');
+        query.add(new WildcardQuery(new Term(field, pattern.toString())), BooleanClause.Occur.FILTER);
+    }
+
+    private static Document toDocument(AuditLog log) {
+        long createdAt = ArchiveSegment.toMicros(log.getCreatedAt());
+        long expiresAt = log.getExpiresAt() != null ? ArchiveSegment.toMicros(log.getExpiresAt()) : Long.MAX_VALUE;
+
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(log.getId()), Field.Store.NO));
+        document.add(new StoredField(ID_VALUE, log.getId()));
+        document.add(new NumericDocValuesField(ID_VALUE, log.getId()));
+        document.add(new LongPoint(CREATED_AT, createdAt));
+        document.add(new NumericDocValuesField(CREATED_AT, createdAt));
+        document.add(new LongPoint(EXPIRES_AT, expiresAt));
+        if (log.getStartupId() != null) {
+            document.add(new StringField(STARTUP_ID, log.getStartupId(), Field.Store.NO));
+        }
+        addText(document, TARGET, log.getTarget());
+        addText(document, ACTION, log.getAction());
+        addText(document, DEVICE, log.getMeta() != null ? log.getMeta().getDevice() : null);
+        addKeyword(document, USER_ID_KEY, log.getUserId());
+        addKeyword(document, ACTION_KEY, log.getAction());
+        return document;
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    private static void addKeyword(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new StringField(field, value.toLowerCase(Locale.ROOT), Field.Store.NO));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (directory; writer; searcherManager) {
+            commit();
+        }
+    }
+
+    public record Hits(List<Long> ids, long total) {
+    }
+}
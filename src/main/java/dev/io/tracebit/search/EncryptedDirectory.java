@@ -0,0 +1,126 @@
+package dev.io.tracebit.search;
+
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.store.BufferedIndexInput;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+/**
+ * Directory that encrypts and authenticates every index file with AES/GCM. Each file
+ * starts with a random 8-byte id, followed by the plaintext in blocks of
+ * {@link #BLOCK_SIZE} bytes, each sealed on its own with a 16-byte tag. A block's nonce
+ * is the file id and the block number, so blocks cannot be moved within or between
+ * files, and the last block is marked as such, so a file cannot be truncated unnoticed.
+ * Lucene can still read any slice, decrypting only the blocks it covers. File lengths
+ * and pointers seen by Lucene are in plaintext bytes, and checksums are computed over
+ * the plaintext as usual.
+ */
+public class EncryptedDirectory extends FilterDirectory {
+
+    static final int HEADER_LENGTH = 8;
+    static final int BLOCK_SIZE = 4096;
+    static final int TAG_LENGTH = 16;
+    static final int SEALED_BLOCK_SIZE = BLOCK_SIZE + TAG_LENGTH;
+    private static final String ALGORITHM = "AES/GCM/NoPadding";
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+
+    public EncryptedDirectory(Directory in, SecretKeySpec key) {
+        super(in);
+        this.key = key;
+    }
+
+    @Override
+    public IndexOutput createOutput(String name, IOContext context) throws IOException {
+        return new EncryptedIndexOutput(in.createOutput(name, context), key, newFileId());
+    }
+
+    @Override
+    public IndexOutput createTempOutput(String prefix, String suffix, IOContext context) throws IOException {
+        return new EncryptedIndexOutput(in.createTempOutput(prefix, suffix, context), key, newFileId());
+    }
+
+    @Override
+    public IndexInput openInput(String name, IOContext context) throws IOException {
+        IndexInput raw = in.openInput(name, context);
+        try {
+            long length = plaintextLength(raw.length());
+            if (length < 0) {
+                throw new CorruptIndexException("length does not match any sealed file", raw);
+            }
+            byte[] fileId = new byte[HEADER_LENGTH];
+            raw.readBytes(fileId, 0, HEADER_LENGTH);
+            return new EncryptedIndexInput("EncryptedIndexInput(" + raw + ")", raw, key, fileId,
+                    0, length, length, BufferedIndexInput.bufferSize(context));
+        } catch (IOException | RuntimeException e) {
+            raw.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public long fileLength(String name) throws IOException {
+        return Math.max(0, plaintextLength(in.fileLength(name)));
+    }
+
+    /**
+     * The plaintext length of a file of the given size on disk, or -1 if no file written
+     * by {@link EncryptedIndexOutput} can have that size.
+     */
+    static long plaintextLength(long sealedLength) {
+        long body = sealedLength - HEADER_LENGTH;
+        if (body < TAG_LENGTH) {
+            return -1;
+        }
+        long blocks = body / SEALED_BLOCK_SIZE;
+        long last = body % SEALED_BLOCK_SIZE;
+        if (last == 0) {
+            return blocks * BLOCK_SIZE;
+        }
+        return last < TAG_LENGTH ? -1 : blocks * BLOCK_SIZE + last - TAG_LENGTH;
+    }
+
+    private byte[] newFileId() {
+        byte[] fileId = new byte[HEADER_LENGTH];
+        random.nextBytes(fileId);
+        return fileId;
+    }
+
+    static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES/GCM is not available", e);
+        }
+    }
+
+    /**
+     * Prepares the cipher to seal or open one block of a file. The nonce is the file id
+     * followed by the block number; whether the block is the file's last is bound in as
+     * associated data.
+     */
+    static void init(Cipher cipher, int mode, SecretKeySpec key, byte[] fileId, long block, boolean last) {
+        byte[] nonce = new byte[HEADER_LENGTH + 4];
+        System.arraycopy(fileId, 0, nonce, 0, HEADER_LENGTH);
+        for (int i = 0; i < 4; i++) {
+            nonce[HEADER_LENGTH + i] = (byte) (block >>> (24 - 8 * i));
+        }
+        try {
+            cipher.init(mode, key, new GCMParameterSpec(TAG_LENGTH * 8, nonce));
+            cipher.updateAAD(new byte[]{(byte) (last ? 1 : 0)});
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not initialise index cipher", e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package dev.io.tracebit.search;
+
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.store.BufferedIndexInput;
+import org.apache.lucene.store.IndexInput;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+
+/**
+ * Decrypting input read through {@link EncryptedDirectory}. Buffer refills open the
+ * blocks they cover and fail if any of them does not authenticate; the last opened
+ * block is kept, since Lucene's buffer is usually smaller than a block. Clones and
+ * slices read independently. offset and length are in plaintext bytes, relative to the
+ * end of the file id; fileLength is the plaintext length of the whole file.
+ */
+final class EncryptedIndexInput extends BufferedIndexInput {
+
+    private final SecretKeySpec key;
+    private final byte[] fileId;
+    private final long offset;
+    private final long length;
+    private final long fileLength;
+
+    private IndexInput in;
+    private Cipher cipher = EncryptedDirectory.newCipher();
+    private byte[] sealed;
+    private byte[] block;
+    private long blockIndex = -1;
+    private boolean isClone;
+
+    EncryptedIndexInput(String resourceDescription, IndexInput in, SecretKeySpec key, byte[] fileId,
+                        long offset, long length, long fileLength, int bufferSize) {
+        super(resourceDescription, bufferSize);
+        this.in = in;
+        this.key = key;
+        this.fileId = fileId;
+        this.offset = offset;
+        this.length = length;
+        this.fileLength = fileLength;
+    }
+
+    @Override
+    protected void readInternal(ByteBuffer b) throws IOException {
+        long position = getFilePointer();
+        if (position + b.remaining() > length) {
+            throw new EOFException("read past EOF: " + this);
+        }
+        long filePosition = offset + position;
+        while (b.hasRemaining()) {
+            int blockLength = openBlock(filePosition / EncryptedDirectory.BLOCK_SIZE);
+            int from = (int) (filePosition % EncryptedDirectory.BLOCK_SIZE);
+            int chunk = Math.min(b.remaining(), blockLength - from);
+            b.put(block, from, chunk);
+            filePosition += chunk;
+        }
+    }
+
+    /**
+     * Decrypts and authenticates the given block into {@link #block}, unless it is
+     * already there, and returns its plaintext length.
+     */
+    private int openBlock(long index) throws IOException {
+        long start = index * EncryptedDirectory.BLOCK_SIZE;
+        int blockLength = (int) Math.min(EncryptedDirectory.BLOCK_SIZE, fileLength - start);
+        if (index == blockIndex) {
+            return blockLength;
+        }
+        if (block == null) {
+            sealed = new byte[EncryptedDirectory.SEALED_BLOCK_SIZE];
+            block = new byte[EncryptedDirectory.BLOCK_SIZE];
+        }
+        blockIndex = -1;
+        int sealedLength = blockLength + EncryptedDirectory.TAG_LENGTH;
+        in.seek(EncryptedDirectory.HEADER_LENGTH + index * EncryptedDirectory.SEALED_BLOCK_SIZE);
+        in.readBytes(sealed, 0, sealedLength);
+
+        boolean last = start + blockLength == fileLength;
+        EncryptedDirectory.init(cipher, Cipher.DECRYPT_MODE, key, fileId, index, last);
+        try {
+            cipher.doFinal(sealed, 0, sealedLength, block, 0);
+        } catch (AEADBadTagException e) {
+            throw new CorruptIndexException("block " + index + " failed authentication", this, e);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not decrypt index data: " + this, e);
+        }
+        blockIndex = index;
+        return blockLength;
+    }
+
+    @Override
+    protected void seekInternal(long pos) throws IOException {
+        if (pos > length) {
+            throw new EOFException("seek past EOF: " + this);
+        }
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public IndexInput slice(String sliceDescription, long sliceOffset, long sliceLength) throws IOException {
+        if (sliceOffset < 0 || sliceLength < 0 || sliceOffset + sliceLength > length) {
+            throw new IllegalArgumentException("slice() " + sliceDescription + " out of bounds: " + this);
+        }
+        EncryptedIndexInput slice = new EncryptedIndexInput(getFullSliceDescription(sliceDescription), in.clone(),
+                key, fileId, offset + sliceOffset, sliceLength, fileLength, getBufferSize());
+        slice.isClone = true;
+        return slice;
+    }
+
+    @Override
+    public EncryptedIndexInput clone() {
+        EncryptedIndexInput clone = (EncryptedIndexInput) super.clone();
+        clone.in = in.clone();
+        clone.cipher = EncryptedDirectory.newCipher();
+        clone.sealed = null;
+        clone.block = null;
+        clone.blockIndex = -1;
+        clone.isClone = true;
+        return clone;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!isClone) {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package dev.io.tracebit.search;
+
+import org.apache.lucene.store.IndexOutput;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.zip.CRC32;
+
+/**
+ * Encrypting output written through {@link EncryptedDirectory}. A full block is only
+ * sealed once more bytes follow it, so that whichever block is open at close is sealed
+ * as the last one. The file pointer and the checksum refer to the plaintext, which is
+ * what Lucene's codecs expect.
+ */
+final class EncryptedIndexOutput extends IndexOutput {
+
+    private static final long MAX_BLOCKS = 1L << 32;
+
+    private final IndexOutput out;
+    private final SecretKeySpec key;
+    private final byte[] fileId;
+    private final Cipher cipher = EncryptedDirectory.newCipher();
+    private final CRC32 crc = new CRC32();
+    private final byte[] buffer = new byte[EncryptedDirectory.BLOCK_SIZE];
+    private final byte[] sealed = new byte[EncryptedDirectory.SEALED_BLOCK_SIZE];
+    private int buffered;
+    private long block;
+    private long written;
+
+    EncryptedIndexOutput(IndexOutput out, SecretKeySpec key, byte[] fileId) throws IOException {
+        super("EncryptedIndexOutput(" + out + ")", out.getName());
+        this.out = out;
+        this.key = key;
+        this.fileId = fileId;
+        out.writeBytes(fileId, 0, fileId.length);
+    }
+
+    @Override
+    public void writeByte(byte b) throws IOException {
+        if (buffered == buffer.length) {
+            sealBlock(false);
+        }
+        buffer[buffered++] = b;
+        crc.update(b);
+        written++;
+    }
+
+    @Override
+    public void writeBytes(byte[] b, int offset, int length) throws IOException {
+        crc.update(b, offset, length);
+        written += length;
+        while (length > 0) {
+            if (buffered == buffer.length) {
+                sealBlock(false);
+            }
+            int chunk = Math.min(length, buffer.length - buffered);
+            System.arraycopy(b, offset, buffer, buffered, chunk);
+            buffered += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    @Override
+    public long getFilePointer() {
+        return written;
+    }
+
+    @Override
+    public long getChecksum() {
+        return crc.getValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            sealBlock(true);
+        }
+    }
+
+    private void sealBlock(boolean last) throws IOException {
+        if (block == MAX_BLOCKS) {
+            throw new IOException("Index file is too large to encrypt: " + this);
+        }
+        EncryptedDirectory.init(cipher, Cipher.ENCRYPT_MODE, key, fileId, block++, last);
+        try {
+            int length = cipher.doFinal(buffer, 0, buffered, sealed, 0);
+            out.writeBytes(sealed, 0, length);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not encrypt index data", e);
+        }
+        buffered = 0;
+    }
+}
@@ -8,18 +8,25 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Authenticates requests by API key and resolves the startup (tenant) the key belongs
+ * to. Keys are configured as {@code key:startupId}; a key without a startup belongs to
+ * {@code tracebit.api.default-startup-id}. The startup is exposed to controllers as the
+ * {@link #STARTUP_ID_ATTRIBUTE} request attribute, and every read and write is scoped to it.
+ */
 @Slf4j
 @Component
 public class ApiKeyAuthFilter implements Filter {
 
-    private final Set<String> validApiKeys;
+    public static final String STARTUP_ID_ATTRIBUTE = "tracebit.startupId";
+
+    private final Map<String, String> apiKeyStartups = new HashMap<>();
     private final ConcurrentMap<String, AtomicInteger> requestCounter = new ConcurrentHashMap<>();
     private final int rateLimit;
     private final long rateLimitResetMs;
@@ -27,7 +34,8 @@ public class ApiKeyAuthFilter implements Filter {
     public ApiKeyAuthFilter(
             @Value("${tracebit.api.keys:#{environment.TRACEBIT_API_KEYS}}") String apiKeys,
             @Value("${tracebit.api.rate-limit:100}") int rateLimit,
-            @Value("${tracebit.api.rate-limit-reset-ms:60000}") long rateLimitResetMs) {
+            @Value("${tracebit.api.rate-limit-reset-ms:60000}") long rateLimitResetMs,
+            @Value("${tracebit.api.default-startup-id:default}") String defaultStartupId) {
 
         // Default API key for backward compatibility
         if (apiKeys == null || apiKeys.isEmpty() || apiKeys.equals("#{environment.TRACEBIT_API_KEYS}")) {
@@ -35,7 +43,14 @@ public class ApiKeyAuthFilter implements Filter {
             log.warn("Using default API key. This is not secure for production!");
         }
 
-        this.validApiKeys = new HashSet<>(Arrays.asList(apiKeys.split(",")));
+        for (String entry : apiKeys.split(",")) {
+            int separator = entry.indexOf(':');
+            String key = (separator < 0 ? entry : entry.substring(0, separator)).trim();
+            String startupId = separator < 0 ? defaultStartupId : entry.substring(separator + 1).trim();
+            if (!key.isEmpty()) {
+                apiKeyStartups.put(key, startupId.isEmpty() ? defaultStartupId : startupId);
+            }
+        }
         this.rateLimit = rateLimit;
         this.rateLimitResetMs = rateLimitResetMs;
 
@@ -72,7 +87,8 @@ public class ApiKeyAuthFilter implements Filter {
         String clientIp = getClientIp(req);
 
         // Check if API key is valid
-        if (apiKey == null || !validApiKeys.contains(apiKey)) {
+        String startupId = apiKey != null ? apiKeyStartups.get(apiKey) : null;
+        if (startupId == null) {
             log.warn("Invalid API key attempt from IP: {}", clientIp);
             resp.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Missing or invalid Tracebit key");
             return;
@@ -100,6 +116,7 @@ public class ApiKeyAuthFilter implements Filter {
         // Log successful API key usage
         log.debug("Valid API key used from IP: {}", clientIp);
 
+        req.setAttribute(STARTUP_ID_ATTRIBUTE, startupId);
         chain.doFilter(request, response);
     }
 
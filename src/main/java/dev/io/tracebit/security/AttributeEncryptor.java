@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.ByteBuffer;
@@ -54,26 +55,8 @@ public class AttributeEncryptor implements AttributeConverter<String, String> {
     public String convertToDatabaseColumn(String plainText) {
         if (plainText == null) return null;
         try {
-            // Generate a random IV
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            SecureRandom random = new SecureRandom();
-            random.nextBytes(iv);
-
-            // Initialize cipher with GCM parameters
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.ENCRYPT_MODE, key, parameterSpec);
-
-            // Encrypt the data
-            byte[] encryptedData = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
-
-            // Combine IV and encrypted data
-            ByteBuffer byteBuffer = ByteBuffer.allocate(iv.length + encryptedData.length);
-            byteBuffer.put(iv);
-            byteBuffer.put(encryptedData);
-
             // Encode as Base64 string
-            return Base64.getEncoder().encodeToString(byteBuffer.array());
+            return Base64.getEncoder().encodeToString(encrypt(plainText.getBytes(StandardCharsets.UTF_8)));
         } catch (Exception e) {
             log.error("Error encrypting data", e);
             throw new RuntimeException("Encryption failed");
@@ -92,21 +75,7 @@ public class AttributeEncryptor implements AttributeConverter<String, String> {
                 return legacyDecrypt(encrypted);
             }
 
-            // Extract IV and encrypted data
-            ByteBuffer byteBuffer = ByteBuffer.wrap(encryptedBytes);
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            byteBuffer.get(iv);
-            byte[] encryptedData = new byte[byteBuffer.remaining()];
-            byteBuffer.get(encryptedData);
-
-            // Initialize cipher with GCM parameters
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.DECRYPT_MODE, key, parameterSpec);
-
-            // Decrypt the data
-            byte[] decryptedData = cipher.doFinal(encryptedData);
-            return new String(decryptedData, StandardCharsets.UTF_8);
+            return new String(decrypt(encryptedBytes), StandardCharsets.UTF_8);
         } catch (Exception e) {
             log.error("Error decrypting data", e);
             try {
@@ -119,6 +88,58 @@ public class AttributeEncryptor implements AttributeConverter<String, String> {
         }
     }
 
+    /**
+     * Encrypts raw bytes with AES/GCM and a random IV. The IV is prepended to the result.
+     */
+    public byte[] encrypt(byte[] plainBytes) throws Exception {
+        // Generate a random IV
+        byte[] iv = new byte[GCM_IV_LENGTH];
+        SecureRandom random = new SecureRandom();
+        random.nextBytes(iv);
+
+        // Initialize cipher with GCM parameters
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
+        cipher.init(Cipher.ENCRYPT_MODE, key, parameterSpec);
+
+        // Encrypt the data
+        byte[] encryptedData = cipher.doFinal(plainBytes);
+
+        // Combine IV and encrypted data
+        ByteBuffer byteBuffer = ByteBuffer.allocate(iv.length + encryptedData.length);
+        byteBuffer.put(iv);
+        byteBuffer.put(encryptedData);
+        return byteBuffer.array();
+    }
+
+    /**
+     * Decrypts bytes produced by {@link #encrypt(byte[])}.
+     */
+    public byte[] decrypt(byte[] encryptedBytes) throws Exception {
+        // Initialize cipher with GCM parameters, the IV is the first GCM_IV_LENGTH bytes
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, encryptedBytes, 0, GCM_IV_LENGTH);
+        cipher.init(Cipher.DECRYPT_MODE, key, parameterSpec);
+
+        // Decrypt the data
+        return cipher.doFinal(encryptedBytes, GCM_IV_LENGTH, encryptedBytes.length - GCM_IV_LENGTH);
+    }
+
+    /**
+     * Derives a separate key for another use of the encryption secret, so the column key
+     * itself is never reused with a different cipher mode.
+     */
+    public SecretKeySpec deriveKey(String purpose, String algorithm) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key.getEncoded(), "HmacSHA256"));
+            byte[] derived = mac.doFinal(purpose.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(derived, 0, key.getEncoded().length, algorithm);
+        } catch (Exception e) {
+            throw new IllegalStateException("Key derivation failed", e);
+        }
+    }
+
     // Method to handle decryption of data encrypted with the old method
     private String legacyDecrypt(String encrypted) throws Exception {
         Cipher cipher = Cipher.getInstance("AES");
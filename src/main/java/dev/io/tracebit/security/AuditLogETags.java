@@ -0,0 +1,91 @@
+package dev.io.tracebit.security;
+
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Strong entity tags for audit logs. Logs never change once written, so the tag only
+ * depends on the startup, the id, the log's expiry and the version of the response
+ * format, and a conditional request can be answered without loading the log. The
+ * expiry is carried in the tag in clear, so a 304 can be given the same clamped
+ * lifetime as the 200 it revalidates, and a tag stops matching once its log expires;
+ * the price is that the tag shows the client when its log expires. Tags are keyed
+ * hashes, so a startup cannot forge the tag of another startup's log to learn that it
+ * exists, nor push its own log's expiry back.
+ */
+@Component
+public class AuditLogETags {
+
+    // Bump when the JSON form of a log changes, so clients drop what they cached.
+    private static final String FORMAT_VERSION = "2";
+    private static final String NO_EXPIRY = "-";
+
+    private final SecretKeySpec key;
+
+    public AuditLogETags(AttributeEncryptor encryptor) {
+        this.key = encryptor.deriveKey("audit-log-etag", "HmacSHA256");
+    }
+
+    /**
+     * Quoted tag of the startup's log, {@code "<version>.<expiry>.<mac>"}, where the
+     * expiry is in epoch seconds, rounded down, or {@code -} for a log that never expires.
+     */
+    public String of(String startupId, long id, LocalDateTime expiresAt) {
+        return tag(startupId, id, expiresAt != null ? String.valueOf(expiresAt.toEpochSecond(ZoneOffset.UTC)) : NO_EXPIRY);
+    }
+
+    /**
+     * Finds the tag of the startup's log among those an If-None-Match header lists, as
+     * long as the log has not expired by now. Like HTTP, the comparison is weak, so a
+     * tag a proxy marked weak after compressing the response still matches.
+     */
+    public Optional<Match> match(String ifNoneMatch, String startupId, long id, LocalDateTime now) {
+        if (ifNoneMatch == null) {
+            return Optional.empty();
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            // "*" is not honoured: answering it would confirm that any id exists.
+            String[] parts = candidate.split("\\.");
+            if (parts.length != 3 || !parts[0].equals("\"" + FORMAT_VERSION) || !candidate.equals(tag(startupId, id, parts[1]))) {
+                continue;
+            }
+            if (parts[1].equals(NO_EXPIRY)) {
+                return Optional.of(new Match(candidate, null));
+            }
+            LocalDateTime expiresAt = LocalDateTime.ofEpochSecond(Long.parseLong(parts[1]), 0, ZoneOffset.UTC);
+            if (expiresAt.isAfter(now)) {
+                return Optional.of(new Match(candidate, expiresAt));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private String tag(String startupId, long id, String expiry) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            byte[] digest = mac.doFinal((FORMAT_VERSION + ":" + startupId + ":" + id + ":" + expiry).getBytes(StandardCharsets.UTF_8));
+            return "\"" + FORMAT_VERSION + "." + expiry + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 27) + "\"";
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not compute ETag", e);
+        }
+    }
+
+    /**
+     * A matched tag and the expiry it carries, rounded down to the second.
+     */
+    public record Match(String eTag, LocalDateTime expiresAt) {
+    }
+}
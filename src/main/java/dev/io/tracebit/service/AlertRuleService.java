@@ -6,15 +6,15 @@ import dev.io.tracebit.entity.AuditLog;
 
 public interface AlertRuleService {
 
-    ApiResponse createAlertRule(AlertRuleRequest request);
+    ApiResponse createAlertRule(String startupId, AlertRuleRequest request);
 
-    ApiResponse updateAlertRule(Long id, AlertRuleRequest request);
+    ApiResponse updateAlertRule(String startupId, Long id, AlertRuleRequest request);
 
-    ApiResponse deleteAlertRule(Long id);
+    ApiResponse deleteAlertRule(String startupId, Long id);
 
-    ApiResponse getAlertRuleById(Long id);
+    ApiResponse getAlertRuleById(String startupId, Long id);
 
-    ApiResponse getAlertRulesByStartupId(String startupId);
+    ApiResponse getAlertRulesByStartupId(String callerStartupId, String startupId);
 
     void processAuditLogForAlerts(AuditLog auditLog);
 }
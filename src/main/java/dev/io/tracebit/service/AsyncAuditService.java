@@ -1,8 +1,10 @@
 package dev.io.tracebit.service;
 
 import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.event.AuditLogPersistedEvent;
 import dev.io.tracebit.repository.AuditLogRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,10 +18,25 @@ public class AsyncAuditService {
 
     private final AuditLogRepository auditLogRepository;
     private final AlertRuleService alertRuleService;
-
-    public AsyncAuditService(AuditLogRepository auditLogRepository, AlertRuleService alertRuleService) {
+    private final AuditLogPartitionService auditLogPartitionService;
+    private final AuditLogArchiveService auditLogArchiveService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchIndexService searchIndexService;
+    private final SearchResultCacheService searchResultCacheService;
+
+    public AsyncAuditService(AuditLogRepository auditLogRepository, AlertRuleService alertRuleService,
+                             AuditLogPartitionService auditLogPartitionService,
+                             AuditLogArchiveService auditLogArchiveService,
+                             ApplicationEventPublisher eventPublisher,
+                             SearchIndexService searchIndexService,
+                             SearchResultCacheService searchResultCacheService) {
         this.auditLogRepository = auditLogRepository;
         this.alertRuleService = alertRuleService;
+        this.auditLogPartitionService = auditLogPartitionService;
+        this.auditLogArchiveService = auditLogArchiveService;
+        this.eventPublisher = eventPublisher;
+        this.searchIndexService = searchIndexService;
+        this.searchResultCacheService = searchResultCacheService;
     }
 
     @Async("taskExecutor")
@@ -28,6 +45,7 @@ public class AsyncAuditService {
         try {
             log.debug("Async saving audit log for user: {}, action: {}", auditLog.getUserId(), auditLog.getAction());
             AuditLog savedLog = auditLogRepository.save(auditLog);
+            eventPublisher.publishEvent(new AuditLogPersistedEvent(savedLog));
 
             processAuditLogForAlerts(savedLog);
         } catch (Exception e) {
@@ -50,8 +68,13 @@ public class AsyncAuditService {
 
 
 
+    /**
+     * Enforces the retention window by dropping whole partitions, so no rows are
+     * deleted individually. A partition is dropped once its newest possible row is
+     * older than the cutoff. Archive segments are dropped the same way, and the
+     * search index and cached search results forget everything before the cutoff.
+     */
     @Async("taskExecutor")
-    @Transactional
     public void purgeOldAuditLogs(int retentionDays) {
         try {
             log.info("Starting purge of audit logs older than {} days", retentionDays);
@@ -59,7 +82,14 @@ public class AsyncAuditService {
 
             LocalDateTime cutoffDate = LocalDateTime.now().minus(retentionDays, ChronoUnit.DAYS);
 
-            log.info("Would delete audit logs older than: {}", cutoffDate);
+            int dropped = auditLogPartitionService.dropPartitionsOlderThan(cutoffDate);
+            log.info("Dropped {} audit log partitions older than: {}", dropped, cutoffDate);
+
+            int droppedSegments = auditLogArchiveService.dropSegmentsOlderThan(cutoffDate);
+            log.info("Dropped {} audit log archive segments older than: {}", droppedSegments, cutoffDate);
+
+            searchIndexService.deleteCreatedBefore(cutoffDate);
+            searchResultCacheService.invalidateBefore(cutoffDate);
 
             long endTime = System.currentTimeMillis();
             log.info("Audit log purge completed, took: {}ms", (endTime - startTime));
@@ -0,0 +1,21 @@
+package dev.io.tracebit.service;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface AuditLogArchiveService {
+    void archiveOldLogs();
+    boolean covers(AuditLogFilter filter);
+    Optional<AuditLog> findById(Long id);
+    SearchResult search(AuditLogFilter filter, long offset, int limit);
+    void scan(AuditLogFilter filter, Consumer<AuditLog> consumer);
+    int dropSegmentsOlderThan(LocalDateTime cutoff);
+
+    record SearchResult(List<AuditLog> logs, long total) {
+    }
+}
@@ -1,12 +1,38 @@
 package dev.io.tracebit.service;
 
+import dev.io.tracebit.export.ExportCompression;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 
 public interface AuditLogExportService {
-    void exportToCsv(String userId, String action, LocalDateTime from, LocalDateTime to, HttpServletResponse response) throws IOException;
-    void exportToPdf(String userId, String action, LocalDateTime from, LocalDateTime to, HttpServletResponse response) throws IOException;
+    /**
+     * parallelism is the number of workers fetching the export at once, or null for the
+     * configured default; it is capped by the worker pool. The body is sent with the
+     * given content coding.
+     */
+    void exportToCsv(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to, Integer parallelism,
+                     ExportCompression compression, HttpServletResponse response) throws IOException;
+    void exportToPdf(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to,
+                     ExportCompression compression, HttpServletResponse response) throws IOException;
+    void exportToParquet(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to, Integer parallelism,
+                         ExportCompression compression, HttpServletResponse response) throws IOException;
+
+    /**
+     * Writes the CSV export to the stream; the caller closes it.
+     */
+    void writeCsv(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to, Integer parallelism, OutputStream out);
+
+    /**
+     * Writes the PDF export to the stream, which is closed with the document.
+     */
+    void writePdf(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to, OutputStream out);
+
+    /**
+     * Writes the Parquet export to the stream; the caller closes it.
+     */
+    void writeParquet(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to, Integer parallelism, OutputStream out);
 }
 
@@ -0,0 +1,13 @@
+package dev.io.tracebit.service;
+
+import dev.io.tracebit.repository.AuditLogPartitionRepository.Partition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AuditLogPartitionService {
+    void ensurePartitions();
+    List<Partition> findPartitions();
+    boolean dropPartition(Partition partition);
+    int dropPartitionsOlderThan(LocalDateTime cutoff);
+}
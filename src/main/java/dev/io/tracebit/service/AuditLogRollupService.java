@@ -0,0 +1,13 @@
+package dev.io.tracebit.service;
+
+import dev.io.tracebit.dto.RollupDimension;
+import dev.io.tracebit.dto.RollupGranularity;
+import dev.io.tracebit.dto.response.ApiResponse;
+
+import java.time.LocalDateTime;
+
+public interface AuditLogRollupService {
+    ApiResponse getStats(String startupId, RollupGranularity bucket, RollupDimension groupBy, LocalDateTime from, LocalDateTime to);
+    void flush();
+    void reconcile(LocalDateTime from, LocalDateTime to);
+}
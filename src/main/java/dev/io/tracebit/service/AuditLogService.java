@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 public interface AuditLogService {
-    ApiResponse createAuditLog(AuditLogRequest auditLogRequest);
-    ApiResponse searchAuditLogs(String userId, String action, LocalDateTime from, LocalDateTime to, Integer page, Integer size);
-    ApiResponse getAuditLogById(Long id);
+    ApiResponse createAuditLog(String startupId, AuditLogRequest auditLogRequest);
+    ApiResponse searchAuditLogs(String startupId, String q, String userId, String action, LocalDateTime from, LocalDateTime to, Integer page, Integer size);
+    ApiResponse getAuditLogById(String startupId, Long id);
+    ApiResponse getAuditLogsByIds(String startupId, List<Long> ids);
 }
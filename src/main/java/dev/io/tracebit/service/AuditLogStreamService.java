@@ -0,0 +1,10 @@
+package dev.io.tracebit.service;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+public interface AuditLogStreamService {
+    void streamAuditLogs(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to, HttpServletResponse response) throws IOException;
+}
@@ -0,0 +1,12 @@
+package dev.io.tracebit.service;
+
+import dev.io.tracebit.dto.response.ApiResponse;
+import org.springframework.web.context.request.async.DeferredResult;
+
+public interface ChangeFeedService {
+    /**
+     * Returns the startup's logs after the cursor. When there are none yet, waits up to
+     * waitMs for new ones before answering with an empty page.
+     */
+    DeferredResult<ApiResponse> getChanges(String startupId, String after, int limit, long waitMs);
+}
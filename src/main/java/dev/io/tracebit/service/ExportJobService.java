@@ -0,0 +1,26 @@
+package dev.io.tracebit.service;
+
+import dev.io.tracebit.dto.response.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+public interface ExportJobService {
+    /**
+     * Queues an export, or returns the queued or running job for the same export.
+     * parallelism only affects how fast the export runs, so it is not part of what makes
+     * two exports the same. A compressed export is stored and downloaded as a .gz or .zst
+     * file.
+     */
+    ApiResponse submit(String startupId, String format, String compression, String userId, String action,
+                       LocalDateTime from, LocalDateTime to, Integer parallelism);
+
+    ApiResponse getStatus(String startupId, String jobId);
+
+    /**
+     * Sends the finished export, or the byte range the request asks for.
+     */
+    void download(String startupId, String jobId, HttpServletRequest request, HttpServletResponse response) throws IOException;
+}
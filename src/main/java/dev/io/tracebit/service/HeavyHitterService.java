@@ -0,0 +1,9 @@
+package dev.io.tracebit.service;
+
+import dev.io.tracebit.dto.RollupDimension;
+import dev.io.tracebit.dto.RollupGranularity;
+import dev.io.tracebit.dto.response.ApiResponse;
+
+public interface HeavyHitterService {
+    ApiResponse getTop(String startupId, RollupDimension dimension, RollupGranularity window, int k, boolean closed);
+}
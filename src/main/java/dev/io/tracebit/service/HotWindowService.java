@@ -0,0 +1,15 @@
+package dev.io.tracebit.service;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.hot.HotWindow;
+
+import java.util.List;
+import java.util.Map;
+
+public interface HotWindowService {
+    boolean covers(AuditLogFilter filter);
+    HotWindow.Result search(AuditLogFilter filter, long offset, int limit);
+    List<AuditLog> list(AuditLogFilter filter);
+    Map<String, Long> countByAction(AuditLogFilter filter);
+}
@@ -0,0 +1,7 @@
+package dev.io.tracebit.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface LiveTailService {
+    SseEmitter subscribe(String startupId, String userId, String action, String target);
+}
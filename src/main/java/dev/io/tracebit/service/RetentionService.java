@@ -0,0 +1,14 @@
+package dev.io.tracebit.service;
+
+import java.time.LocalDateTime;
+
+public interface RetentionService {
+    LocalDateTime resolveExpiry(String startupId, String action, LocalDateTime createdAt);
+
+    /**
+     * How long partitions are kept: the longest policy or tracebit.data.retention-days.
+     */
+    int getPartitionRetentionDays();
+
+    void purgeExpiredAuditLogs();
+}
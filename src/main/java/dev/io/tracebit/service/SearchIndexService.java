@@ -0,0 +1,15 @@
+package dev.io.tracebit.service;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.search.AuditLogIndex;
+
+import java.time.LocalDateTime;
+
+public interface SearchIndexService {
+    boolean isEnabled();
+    AuditLogIndex.Hits search(String q, AuditLogFilter filter, long offset, int limit);
+    void rebuild();
+    boolean startRebuild();
+    boolean isRebuilding();
+    void deleteCreatedBefore(LocalDateTime cutoff);
+}
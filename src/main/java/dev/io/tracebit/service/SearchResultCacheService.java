@@ -0,0 +1,20 @@
+package dev.io.tracebit.service;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.dto.response.ApiResponse;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+public interface SearchResultCacheService {
+    /**
+     * Returns the cached response for the query, or loads and caches it. openEnded marks
+     * a query without an explicit end, whose filter ends at the current time.
+     */
+    ApiResponse get(AuditLogFilter filter, boolean openEnded, int page, int size, Supplier<ApiResponse> loader);
+
+    /**
+     * Drops cached results that may include logs created before the cutoff.
+     */
+    void invalidateBefore(LocalDateTime cutoff);
+}
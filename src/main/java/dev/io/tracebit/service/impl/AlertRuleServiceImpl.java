@@ -1,47 +1,100 @@
 package dev.io.tracebit.service.impl;
 
+import dev.io.tracebit.alert.AlertRuleSet;
 import dev.io.tracebit.dto.MatchType;
 import dev.io.tracebit.dto.request.AlertRuleRequest;
 import dev.io.tracebit.dto.request.AlertWebhookPayload;
 import dev.io.tracebit.dto.response.ApiResponse;
 import dev.io.tracebit.entity.AlertRule;
 import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.event.AlertRuleChangedEvent;
+import dev.io.tracebit.exception.UnauthorizedException;
 import dev.io.tracebit.exception.ValidationException;
 import dev.io.tracebit.repository.AlertRuleRepository;
 import dev.io.tracebit.service.AlertRuleService;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
+/**
+ * Logs are checked against an in-memory {@link AlertRuleSet}. Changes made through
+ * this service are applied to it once their transaction commits; the set is also
+ * reloaded every {@code refresh-ms} to pick up changes made on other nodes.
+ */
 @Slf4j
 @Service
 public class AlertRuleServiceImpl implements AlertRuleService {
 
     private final AlertRuleRepository alertRuleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate primaryTransaction;
     private final RestTemplate restTemplate;
+    private final AtomicReference<AlertRuleSet> rules = new AtomicReference<>(AlertRuleSet.EMPTY);
 
-    public AlertRuleServiceImpl(AlertRuleRepository alertRuleRepository) {
+    public AlertRuleServiceImpl(AlertRuleRepository alertRuleRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager) {
         this.alertRuleRepository = alertRuleRepository;
+        this.eventPublisher = eventPublisher;
+        // Not read-only, so reloads go to the primary: a lagging replica could
+        // otherwise bring back a rule that was just deleted.
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
         this.restTemplate = new RestTemplate();
     }
 
+    @PostConstruct
+    void loadRules() {
+        rules.set(primaryTransaction.execute(status -> AlertRuleSet.of(alertRuleRepository.findByActiveTrue())));
+        log.info("Loaded {} active alert rules", rules.get().size());
+    }
+
+    /**
+     * Replaces the set with a fresh load, unless a local change was applied while
+     * loading; that change is picked up by the next refresh.
+     */
+    @Scheduled(fixedDelayString = "${tracebit.alerts.refresh-ms:30000}")
+    public void refreshRules() {
+        try {
+            AlertRuleSet current = rules.get();
+            AlertRuleSet loaded = primaryTransaction.execute(status -> AlertRuleSet.of(alertRuleRepository.findByActiveTrue()));
+            if (rules.compareAndSet(current, loaded)) {
+                log.debug("Refreshed alert rules, {} active", loaded.size());
+            }
+        } catch (Exception e) {
+            log.error("Error refreshing alert rules", e);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onAlertRuleChanged(AlertRuleChangedEvent event) {
+        rules.updateAndGet(set -> event.rule() == null ? set.without(event.ruleId()) : set.with(event.rule()));
+    }
+
     @Override
     @Transactional
-    public ApiResponse createAlertRule(AlertRuleRequest request) {
+    public ApiResponse createAlertRule(String startupId, AlertRuleRequest request) {
         try {
             log.debug("Creating alert rule: {}", request.getName());
+            checkStartup(startupId, request.getStartupId());
 
             if (request.getMatchType() == MatchType.REGEX) {
                 try {
@@ -65,6 +118,7 @@ public class AlertRuleServiceImpl implements AlertRuleService {
                     .build();
 
             AlertRule savedRule = alertRuleRepository.save(alertRule);
+            eventPublisher.publishEvent(new AlertRuleChangedEvent(savedRule.getId(), savedRule));
 
             log.info("Alert rule created with ID: {}", savedRule.getId());
 
@@ -74,8 +128,8 @@ public class AlertRuleServiceImpl implements AlertRuleService {
                     .data(savedRule)
                     .build();
 
-        } catch (ValidationException ve) {
-            throw ve;
+        } catch (ValidationException | UnauthorizedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error creating alert rule", e);
             throw e;
@@ -84,11 +138,12 @@ public class AlertRuleServiceImpl implements AlertRuleService {
 
     @Override
     @Transactional
-    public ApiResponse updateAlertRule(Long id, AlertRuleRequest request) {
+    public ApiResponse updateAlertRule(String startupId, Long id, AlertRuleRequest request) {
         try {
             log.debug("Updating alert rule with ID: {}", id);
+            checkStartup(startupId, request.getStartupId());
 
-            Optional<AlertRule> existingRuleOpt = alertRuleRepository.findById(id);
+            Optional<AlertRule> existingRuleOpt = alertRuleRepository.findByIdAndStartupId(id, startupId);
 
             if (existingRuleOpt.isEmpty()) {
                 log.warn("Alert rule not found with ID: {}", id);
@@ -119,6 +174,7 @@ public class AlertRuleServiceImpl implements AlertRuleService {
             rule.setUpdatedAt(LocalDateTime.now());
 
             AlertRule updated = alertRuleRepository.save(rule);
+            eventPublisher.publishEvent(new AlertRuleChangedEvent(updated.getId(), updated));
 
             log.info("Alert rule updated with ID: {}", updated.getId());
 
@@ -128,8 +184,8 @@ public class AlertRuleServiceImpl implements AlertRuleService {
                     .data(updated)
                     .build();
 
-        } catch (ValidationException ve) {
-            throw ve;
+        } catch (ValidationException | UnauthorizedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error updating alert rule", e);
             throw e;
@@ -138,14 +194,15 @@ public class AlertRuleServiceImpl implements AlertRuleService {
 
     @Override
     @Transactional
-    public ApiResponse deleteAlertRule(Long id) {
+    public ApiResponse deleteAlertRule(String startupId, Long id) {
         try {
             log.debug("Deleting alert rule with ID: {}", id);
 
-            Optional<AlertRule> existingRuleOpt = alertRuleRepository.findById(id);
+            Optional<AlertRule> existingRuleOpt = alertRuleRepository.findByIdAndStartupId(id, startupId);
 
             if (existingRuleOpt.isPresent()) {
                 alertRuleRepository.deleteById(id);
+                eventPublisher.publishEvent(new AlertRuleChangedEvent(id, null));
 
                 log.info("Alert rule deleted with ID: {}", id);
 
@@ -169,11 +226,11 @@ public class AlertRuleServiceImpl implements AlertRuleService {
 
     @Override
     @Transactional(readOnly = true)
-    public ApiResponse getAlertRuleById(Long id) {
+    public ApiResponse getAlertRuleById(String startupId, Long id) {
         try {
             log.debug("Getting alert rule with ID: {}", id);
 
-            Optional<AlertRule> alertRuleOpt = alertRuleRepository.findById(id);
+            Optional<AlertRule> alertRuleOpt = alertRuleRepository.findByIdAndStartupId(id, startupId);
 
             if (alertRuleOpt.isPresent()) {
                 log.debug("Alert rule found with ID: {}", id);
@@ -199,7 +256,8 @@ public class AlertRuleServiceImpl implements AlertRuleService {
 
     @Override
     @Transactional(readOnly = true)
-    public ApiResponse getAlertRulesByStartupId(String startupId) {
+    public ApiResponse getAlertRulesByStartupId(String callerStartupId, String startupId) {
+        checkStartup(callerStartupId, startupId);
         try {
             log.debug("Getting alert rules for startup ID: {}", startupId);
 
@@ -224,41 +282,31 @@ public class AlertRuleServiceImpl implements AlertRuleService {
         try {
             log.debug("Processing audit log for alerts, log ID: {}", auditLog.getId());
 
-            List<AlertRule> allRules = alertRuleRepository.findAllByActiveTrue();
-
-            for (AlertRule rule : allRules) {
-                String valueToCompare = switch (rule.getField()) {
-                    case USER_ID -> auditLog.getUserId();
-                    case ACTION -> auditLog.getAction();
-                    case TARGET -> auditLog.getTarget();
-                };
-
-                if (matches(rule.getMatchType(), rule.getPattern(), valueToCompare)) {
-                    sendWebhookNotification(rule, auditLog);
-                }
+            for (AlertRuleSet.Rule rule : rules.get().matching(auditLog)) {
+                sendWebhookNotification(rule, auditLog);
             }
         } catch (Exception e) {
             log.error("Error processing audit log for alerts", e);
         }
     }
 
-    private void sendWebhookNotification(AlertRule rule, AuditLog auditLog) {
+    private void sendWebhookNotification(AlertRuleSet.Rule rule, AuditLog auditLog) {
         try {
             log.debug("Sending webhook notification for rule ID: {} to URL: {}",
-                    rule.getId(), rule.getCallbackUrl());
+                    rule.id(), rule.callbackUrl());
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
 
-            if (rule.getSecretToken() != null && !rule.getSecretToken().isBlank()) {
-                headers.set("X-TRACEBIT-SIGNATURE", rule.getSecretToken());
+            if (rule.secretToken() != null && !rule.secretToken().isBlank()) {
+                headers.set("X-TRACEBIT-SIGNATURE", rule.secretToken());
             }
 
             AlertWebhookPayload payload = AlertWebhookPayload.builder()
-                    .ruleId(rule.getId())
-                    .ruleName(rule.getName())
-                    .matchField(rule.getField())
-                    .matchType(rule.getMatchType())
+                    .ruleId(rule.id())
+                    .ruleName(rule.name())
+                    .matchField(rule.field())
+                    .matchType(rule.matchType())
                     .auditLogId(auditLog.getId())
                     .userId(auditLog.getUserId())
                     .action(auditLog.getAction())
@@ -267,21 +315,20 @@ public class AlertRuleServiceImpl implements AlertRuleService {
                     .build();
 
             HttpEntity<AlertWebhookPayload> request = new HttpEntity<>(payload, headers);
-            restTemplate.postForEntity(rule.getCallbackUrl(), request, String.class);
+            restTemplate.postForEntity(rule.callbackUrl(), request, String.class);
 
-            log.info("Webhook notification sent successfully for rule ID: {}", rule.getId());
+            log.info("Webhook notification sent successfully for rule ID: {}", rule.id());
         } catch (Exception e) {
-            log.error("Error sending webhook notification for rule ID: {}", rule.getId(), e);
+            log.error("Error sending webhook notification for rule ID: {}", rule.id(), e);
         }
     }
 
-    private boolean matches(MatchType matchType, String pattern, String input) {
-        if (input == null || pattern == null) return false;
-
-        return switch (matchType) {
-            case EXACT -> input.equalsIgnoreCase(pattern);
-            case CONTAINS -> input.toLowerCase().contains(pattern.toLowerCase());
-            case REGEX -> input.matches(pattern);
-        };
+    /**
+     * Rules belong to the startup of the API key that manages them.
+     */
+    private static void checkStartup(String callerStartupId, String startupId) {
+        if (!callerStartupId.equals(startupId)) {
+            throw new UnauthorizedException("startup", startupId);
+        }
     }
 }
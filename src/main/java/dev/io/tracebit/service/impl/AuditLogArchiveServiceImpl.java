@@ -0,0 +1,476 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.archive.ArchiveBlock;
+import dev.io.tracebit.archive.ArchiveSegment;
+import dev.io.tracebit.archive.ArchiveSegmentWriter;
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.repository.AuditLogPartitionRepository;
+import dev.io.tracebit.repository.AuditLogPartitionRepository.Partition;
+import dev.io.tracebit.repository.AuditLogRepository;
+import dev.io.tracebit.security.AttributeEncryptor;
+import dev.io.tracebit.service.AuditLogArchiveService;
+import dev.io.tracebit.service.AuditLogPartitionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cold storage for audit logs older than {@code tracebit.archive.after-days}. Whole
+ * partitions are copied into immutable segment files under {@code tracebit.archive.dir}
+ * and then detached and dropped, so archiving never deletes rows from the live table;
+ * reads fall through to the segments when the database has no match. Segments are
+ * local to the node, so clustered deployments need the directory on a shared volume:
+ * archiving and segment drops then take a database advisory lock so that one node
+ * writes or deletes at a time, and every node rescans the directory every
+ * {@code rescan-ms} to serve the segments that other nodes added or dropped.
+ */
+@Slf4j
+@Service
+public class AuditLogArchiveServiceImpl implements AuditLogArchiveService {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String ARCHIVE_LOCK = "audit_log_archive";
+    // segment-<partition>-<n>-of-<count>.seg
+    private static final Pattern PARTITION_SEGMENT = Pattern.compile("segment-(.+)-(\\d+)-of-(\\d+)\\.seg");
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditLogPartitionService auditLogPartitionService;
+    private final AuditLogPartitionRepository auditLogPartitionRepository;
+    private final AttributeEncryptor encryptor;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${tracebit.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${tracebit.archive.dir:data/archive}")
+    private String archiveDir;
+
+    @Value("${tracebit.archive.after-days:30}")
+    private int afterDays;
+
+    @Value("${tracebit.archive.segment-rows:100000}")
+    private int segmentRows;
+
+    @Value("${tracebit.archive.block-rows:1024}")
+    private int blockRows;
+
+    // Ordered by minId; replaced wholesale whenever a segment is added or dropped.
+    private volatile List<ArchiveSegment> segments = List.of();
+
+    public AuditLogArchiveServiceImpl(AuditLogRepository auditLogRepository,
+                                      AuditLogPartitionService auditLogPartitionService,
+                                      AuditLogPartitionRepository auditLogPartitionRepository,
+                                      AttributeEncryptor encryptor,
+                                      EntityManager entityManager,
+                                      TransactionTemplate transactionTemplate) {
+        this.auditLogRepository = auditLogRepository;
+        this.auditLogPartitionService = auditLogPartitionService;
+        this.auditLogPartitionRepository = auditLogPartitionRepository;
+        this.encryptor = encryptor;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    void loadSegments() throws IOException {
+        refreshSegments();
+        log.info("Loaded {} audit log archive segments from {}", segments.size(), archiveDir);
+    }
+
+    /**
+     * Picks up segments added or dropped by any node.
+     */
+    @Scheduled(fixedDelayString = "${tracebit.archive.rescan-ms:60000}")
+    public void rescanSegments() {
+        try {
+            refreshSegments();
+        } catch (Exception e) {
+            log.error("Error rescanning audit log archive segments", e);
+        }
+    }
+
+    /**
+     * Serves the segments of every partition that was archived and dropped, opening the
+     * files that are new since the last scan and forgetting those that are gone. The
+     * segments of a partition that still exists are not served: its archive may be
+     * incomplete, or complete but waiting for {@link #archiveOldLogs()} to retry the drop.
+     * Once dropped, whatever of its set is left is served, as retention may have deleted
+     * its older segments.
+     */
+    synchronized void refreshSegments() throws IOException {
+        Path dir = Paths.get(archiveDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+
+        Set<String> livePartitions = auditLogPartitionService.findPartitions().stream()
+                .map(Partition::name)
+                .collect(Collectors.toSet());
+        Map<Path, ArchiveSegment> loaded = segments.stream()
+                .collect(Collectors.toMap(ArchiveSegment::getFile, segment -> segment));
+        List<ArchiveSegment> updated = new ArrayList<>();
+        int opened = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Matcher matcher = PARTITION_SEGMENT.matcher(file.getFileName().toString());
+                if (!matcher.matches() || livePartitions.contains(matcher.group(1))) {
+                    continue;
+                }
+                ArchiveSegment segment = loaded.get(file);
+                if (segment == null) {
+                    try {
+                        segment = ArchiveSegment.open(file, encryptor);
+                        opened++;
+                    } catch (IOException e) {
+                        log.error("Skipping unreadable archive segment {}", file, e);
+                        continue;
+                    }
+                }
+                updated.add(segment);
+            }
+        }
+
+        int forgotten = segments.size() - (updated.size() - opened);
+        if (opened > 0 || forgotten > 0) {
+            updated.sort(Comparator.comparingLong(ArchiveSegment::getMinId));
+            segments = List.copyOf(updated);
+            log.debug("Archive rescan opened {} and forgot {} segments", opened, forgotten);
+        }
+    }
+
+    /**
+     * Archives every partition that ended before the archive threshold, oldest first:
+     * its rows are written to segments of up to {@code segment-rows} rows, then the
+     * partition is dropped and the segments are served in its place. Runs at 3:00 AM
+     * by default, on one node at a time; the others skip the run.
+     */
+    @Override
+    @Scheduled(cron = "${tracebit.archive.cron:0 0 3 * * ?}")
+    public void archiveOldLogs() {
+        if (!enabled) {
+            return;
+        }
+        if (!auditLogPartitionRepository.runLocked(ARCHIVE_LOCK, this::archivePartitions)) {
+            log.info("Skipping audit log archiving, another node is archiving");
+        }
+    }
+
+    private void archivePartitions() {
+        try {
+            Files.createDirectories(Paths.get(archiveDir));
+            LocalDateTime archivedBefore = LocalDateTime.now().minusDays(afterDays);
+            long startTime = System.currentTimeMillis();
+            long archived = 0;
+
+            for (Partition partition : auditLogPartitionService.findPartitions()) {
+                if (partition.to().isAfter(archivedBefore)) {
+                    break;
+                }
+                List<Path> files = findPartitionFiles(partition.name());
+                if (!isComplete(files)) {
+                    deleteFiles(files);
+                    files = writeSegments(partition);
+                }
+                if (!auditLogPartitionService.dropPartition(partition)) {
+                    // The segments stay on disk, unserved, until a later run drops the partition.
+                    continue;
+                }
+                refreshSegments();
+                Set<Path> archivedFiles = Set.copyOf(files);
+                long rows = segments.stream()
+                        .filter(segment -> archivedFiles.contains(segment.getFile()))
+                        .mapToLong(ArchiveSegment::getRowCount)
+                        .sum();
+                archived += rows;
+                log.info("Archived partition {} ({} audit logs) to {} segments", partition.name(), rows, files.size());
+            }
+
+            log.info("Audit log archiving completed, {} rows archived, took: {}ms", archived, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("Error archiving audit logs", e);
+        }
+    }
+
+    /**
+     * Writes the rows of a partition to temporary files and only then renames them into
+     * place, numbered with their count, so a set on disk can be checked for completeness.
+     */
+    private List<Path> writeSegments(Partition partition) throws IOException {
+        Path dir = Paths.get(archiveDir);
+        List<Path> tempFiles = new ArrayList<>();
+        try {
+            long afterId = Long.MIN_VALUE;
+            while (true) {
+                Path tempFile = dir.resolve("segment-" + System.nanoTime() + ".tmp");
+                Long lastId = writeSegment(partition, afterId, tempFile);
+                if (lastId == null) {
+                    break;
+                }
+                tempFiles.add(tempFile);
+                afterId = lastId;
+            }
+
+            List<Path> files = new ArrayList<>();
+            for (int i = 0; i < tempFiles.size(); i++) {
+                Path file = dir.resolve(String.format("segment-%s-%04d-of-%04d%s",
+                        partition.name(), i + 1, tempFiles.size(), SEGMENT_SUFFIX));
+                Files.move(tempFiles.get(i), file, StandardCopyOption.ATOMIC_MOVE);
+                files.add(file);
+            }
+            return files;
+        } catch (IOException | RuntimeException e) {
+            deleteFiles(tempFiles);
+            throw e;
+        }
+    }
+
+    /**
+     * Streams up to {@code segment-rows} rows of the partition with an id above
+     * {@code afterId} into a new segment file, and returns the last id written, or null
+     * when the partition has no more rows. The read deliberately runs in a read-write
+     * transaction: the partition is dropped from the primary afterwards, so its rows must
+     * be read from it too.
+     */
+    private Long writeSegment(Partition partition, long afterId, Path tempFile) throws IOException {
+        Long lastId = transactionTemplate.execute(status -> {
+            try (ArchiveSegmentWriter writer = new ArchiveSegmentWriter(tempFile, encryptor, blockRows);
+                 Stream<AuditLog> rows = partition.from().equals(LocalDateTime.MIN)
+                         ? auditLogRepository.streamCreatedBefore(partition.to(), afterId)
+                         : auditLogRepository.streamCreatedBetween(partition.from(), partition.to(), afterId)) {
+                Long maxId = null;
+                Iterator<AuditLog> iterator = rows.iterator();
+                while (iterator.hasNext() && writer.rowCount() < segmentRows) {
+                    AuditLog log = iterator.next();
+                    writer.append(log);
+                    entityManager.detach(log);
+                    maxId = log.getId();
+                }
+                if (maxId != null) {
+                    writer.finish(partition.to());
+                }
+                return maxId;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        if (lastId == null) {
+            Files.deleteIfExists(tempFile);
+        }
+        return lastId;
+    }
+
+    private List<Path> findPartitionFiles(String partition) throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(archiveDir))) {
+            return files.filter(file -> {
+                Matcher matcher = PARTITION_SEGMENT.matcher(file.getFileName().toString());
+                return matcher.matches() && matcher.group(1).equals(partition);
+            }).sorted().toList();
+        }
+    }
+
+    /**
+     * Whether the files are a full set of one partition's segments. An empty set is not
+     * complete; an empty partition is simply dropped.
+     */
+    private static boolean isComplete(List<Path> files) {
+        if (files.isEmpty()) {
+            return false;
+        }
+        Set<Integer> numbers = new HashSet<>();
+        for (Path file : files) {
+            Matcher matcher = PARTITION_SEGMENT.matcher(file.getFileName().toString());
+            if (!matcher.matches() || Integer.parseInt(matcher.group(3)) != files.size()) {
+                return false;
+            }
+            int number = Integer.parseInt(matcher.group(2));
+            if (number < 1 || number > files.size() || !numbers.add(number)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void deleteFiles(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.error("Error deleting archive file {}", file, e);
+            }
+        }
+    }
+
+    @Override
+    public boolean covers(AuditLogFilter filter) {
+        return segments.stream().anyMatch(segment -> segment.overlaps(filter));
+    }
+
+    @Override
+    public Optional<AuditLog> findById(Long id) {
+        try {
+            for (ArchiveSegment segment : segments) {
+                Optional<AuditLog> found = segment.findById(id);
+                if (found.isPresent()) {
+                    return found.filter(log -> !isExpired(log, LocalDateTime.now()));
+                }
+            }
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns archived matches newest first. Blocks that lie completely inside the time
+     * range are counted from their statistics when no row filters are set, so only the
+     * blocks that hold the requested page, or straddle the range, are decoded.
+     */
+    @Override
+    public SearchResult search(AuditLogFilter filter, long offset, int limit) {
+        // Blocks mix startups, so a startup filter has to look at the rows too.
+        boolean rowFilters = filter.getStartupId() != null || hasText(filter.getUserId()) || hasText(filter.getAction());
+        LocalDateTime now = LocalDateTime.now();
+        long nowMicros = ArchiveSegment.toMicros(now);
+        List<AuditLog> page = new ArrayList<>();
+        long total = 0;
+
+        try {
+            List<ArchiveSegment> newestFirst = new ArrayList<>(segments);
+            newestFirst.sort(Comparator.comparing(ArchiveSegment::getMaxCreatedAt).reversed());
+
+            for (ArchiveSegment segment : newestFirst) {
+                if (!segment.overlaps(filter)) {
+                    continue;
+                }
+                List<ArchiveBlock> blocks = segment.getBlocks();
+                for (int i = blocks.size() - 1; i >= 0; i--) {
+                    ArchiveBlock block = blocks.get(i);
+                    if (!block.overlaps(filter)) {
+                        continue;
+                    }
+                    boolean countable = !rowFilters && block.within(filter) && block.minExpiresAt() > nowMicros;
+                    boolean pageTouched = total + block.rowCount() > offset && page.size() < limit;
+                    if (countable && !pageTouched) {
+                        total += block.rowCount();
+                        continue;
+                    }
+
+                    List<AuditLog> rows = segment.readBlock(block);
+                    for (int j = rows.size() - 1; j >= 0; j--) {
+                        AuditLog log = rows.get(j);
+                        if (filter.matches(log) && !isExpired(log, now)) {
+                            if (total >= offset && page.size() < limit) {
+                                page.add(log);
+                            }
+                            total++;
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new SearchResult(page, total);
+    }
+
+    /**
+     * Feeds every archived match to the consumer, oldest first.
+     */
+    @Override
+    public void scan(AuditLogFilter filter, Consumer<AuditLog> consumer) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<ArchiveSegment> oldestFirst = new ArrayList<>(segments);
+            oldestFirst.sort(Comparator.comparing(ArchiveSegment::getMinCreatedAt));
+
+            for (ArchiveSegment segment : oldestFirst) {
+                if (!segment.overlaps(filter)) {
+                    continue;
+                }
+                for (ArchiveBlock block : segment.getBlocks()) {
+                    if (!block.overlaps(filter)) {
+                        continue;
+                    }
+                    for (AuditLog log : segment.readBlock(block)) {
+                        if (filter.matches(log) && !isExpired(log, now)) {
+                            consumer.accept(log);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes the segments whose newest row is older than the cutoff. Takes the archive
+     * lock, so it never runs while another node is writing segments; if that node holds
+     * it, nothing is dropped until the next run.
+     */
+    @Override
+    public int dropSegmentsOlderThan(LocalDateTime cutoff) {
+        AtomicInteger dropped = new AtomicInteger();
+        if (!auditLogPartitionRepository.runLocked(ARCHIVE_LOCK, () -> dropped.set(dropSegments(cutoff)))) {
+            log.info("Skipping audit log archive segment drop, another node is archiving");
+        }
+        return dropped.get();
+    }
+
+    private synchronized int dropSegments(LocalDateTime cutoff) {
+        List<ArchiveSegment> kept = new ArrayList<>();
+        int dropped = 0;
+        for (ArchiveSegment segment : segments) {
+            if (segment.getMaxCreatedAt().isBefore(cutoff)) {
+                try {
+                    Files.deleteIfExists(segment.getFile());
+                    dropped++;
+                    log.info("Dropped audit log archive segment {}", segment.getFile());
+                    continue;
+                } catch (IOException e) {
+                    log.error("Error dropping audit log archive segment {}", segment.getFile(), e);
+                }
+            }
+            kept.add(segment);
+        }
+        segments = List.copyOf(kept);
+        return dropped;
+    }
+
+    private static boolean isExpired(AuditLog log, LocalDateTime now) {
+        return log.getExpiresAt() != null && !log.getExpiresAt().isAfter(now);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
@@ -6,15 +6,31 @@ import com.itextpdf.text.Font;
 import com.itextpdf.text.Image;
 import com.itextpdf.text.Rectangle;
 import com.itextpdf.text.pdf.*;
-import dev.io.tracebit.entity.AuditLog;
-import dev.io.tracebit.repository.AuditLogRepository;
+import dev.io.tracebit.config.ReplicaProperties;
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.dto.response.AuditLogView;
+import dev.io.tracebit.exception.ValidationException;
+import dev.io.tracebit.export.AuditLogParquetWriter;
+import dev.io.tracebit.export.ExportCompression;
+import dev.io.tracebit.export.OrderedParallelScan;
+import dev.io.tracebit.repository.AuditLogReadRepository;
+import dev.io.tracebit.repository.AuditLogReadRepository.CreatedAtRange;
+import dev.io.tracebit.service.AuditLogArchiveService;
 import dev.io.tracebit.service.AuditLogExportService;
+import dev.io.tracebit.service.HotWindowService;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.jfree.data.category.DefaultCategoryDataset;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
@@ -24,83 +40,362 @@ import org.jfree.data.category.DefaultCategoryDataset;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.awt.Color;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
-
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class AuditLogExportServiceImpl implements AuditLogExportService {
 
-    private final AuditLogRepository auditLogRepository;
+    public static final String CSV_CONTENT_TYPE = "text/csv";
+    public static final String PDF_CONTENT_TYPE = "application/pdf";
+    public static final String PARQUET_CONTENT_TYPE = "application/vnd.apache.parquet";
+
+    private final AuditLogReadRepository auditLogReadRepository;
+    private final AuditLogArchiveService auditLogArchiveService;
+    private final HotWindowService hotWindowService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService rangeExecutor;
+    private final OrderedParallelScan<AuditLogView> parallelScan;
+    private final Semaphore exportConnections;
+    private final int maxParallelism;
+
+    private static final int FLUSH_EVERY_ROWS = 500;
+    // Each worker gets several smaller ranges, so a busy stretch of time does not hold up the rest.
+    private static final int RANGES_PER_WORKER = 4;
+    private static final int HANDOFF_BATCH_ROWS = 256;
+    private static final int HANDOFF_QUEUE_BATCHES = 8;
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+    private static final int PDF_TABLE_CHUNK_ROWS = 100;
+
+    // Fonts and colours are immutable once built, so every report shares them.
+    private static final Font WATERMARK_FONT = new Font(Font.FontFamily.HELVETICA, 52, Font.BOLD, new BaseColor(230, 230, 230));
+    private static final Font FOOTER_FONT = FontFactory.getFont(FontFactory.HELVETICA_OBLIQUE, 9, BaseColor.GRAY);
+    private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18, BaseColor.DARK_GRAY);
+    private static final Font LABEL_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 11);
+    private static final Font VALUE_FONT = FontFactory.getFont(FontFactory.HELVETICA, 10);
+    private static final Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 11, BaseColor.WHITE);
+    private static final Font CELL_FONT = FontFactory.getFont(FontFactory.HELVETICA, 10);
+    private static final BaseColor HEADER_COLOR = new BaseColor(0, 121, 107);
+    private static final BaseColor ROW_COLOR = new BaseColor(245, 245, 245);
+
+    @Value("${tracebit.export.pdf-max-rows:10000}")
+    private long pdfMaxRows;
+
+    @Value("${tracebit.export.parquet-codec:zstd}")
+    private String parquetCodec;
+
+    @Value("${tracebit.export.parquet-row-group-mb:32}")
+    private int parquetRowGroupMb;
+
+    @Value("${tracebit.export.parallel.default-parallelism:1}")
+    private int defaultParallelism;
+
+    /**
+     * Range workers are shared by every export and each holds a read connection while it
+     * scans, as does the request that merges their output. Parallel exports draw those
+     * connections from one budget: the pool that serves read-only transactions (a
+     * replica's when replicas are configured), less what the async ingest executor can
+     * hold when that pool is the primary's.
+     */
+    public AuditLogExportServiceImpl(AuditLogReadRepository auditLogReadRepository,
+                                     AuditLogArchiveService auditLogArchiveService,
+                                     HotWindowService hotWindowService,
+                                     PlatformTransactionManager transactionManager,
+                                     ReplicaProperties replicaProperties,
+                                     @Qualifier("taskExecutor") Executor taskExecutor,
+                                     @Value("${tracebit.export.parallel.threads:4}") int threads,
+                                     @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        this.auditLogReadRepository = auditLogReadRepository;
+        this.auditLogArchiveService = auditLogArchiveService;
+        this.hotWindowService = hotWindowService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        boolean replicas = !replicaProperties.getReplicas().isEmpty();
+        int readPoolSize = replicas ? replicaProperties.getReplicaPoolSize() : connectionPoolSize;
+        int ingestConnections = !replicas && taskExecutor instanceof ThreadPoolTaskExecutor ingest ? ingest.getMaxPoolSize() : 0;
+        int connections = Math.max(0, readPoolSize - ingestConnections);
+        this.exportConnections = new Semaphore(connections);
+        this.maxParallelism = Math.max(1, Math.min(threads, connections - 1));
+        if (connections < 3) {
+            log.warn("Parallel exports disabled: a read pool of {} leaves {} connections after {} for ingest",
+                    readPoolSize, connections, ingestConnections);
+        } else if (maxParallelism < threads) {
+            log.warn("Limiting parallel export workers to {} for a read pool of {} with {} connections for ingest",
+                    maxParallelism, readPoolSize, ingestConnections);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.rangeExecutor = Executors.newFixedThreadPool(maxParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "export-range-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.parallelScan = new OrderedParallelScan<>(rangeExecutor, HANDOFF_BATCH_ROWS, HANDOFF_QUEUE_BATCHES);
+    }
+
+    /**
+     * Hands every match to the consumer, oldest first, as it is read: from the hot window
+     * when it covers the range, otherwise the archive followed by the database cursor.
+     * Startup and time range are applied in the query; user ID and action are encrypted
+     * with random IVs, so they are matched as each row is decrypted.
+     */
+    private void forEachLog(AuditLogFilter filter, Consumer<AuditLogView> consumer) {
+        forEachLog(filter, 1, consumer);
+    }
+
+    /**
+     * As above, with the database part split into time ranges that up to
+     * {@code parallelism} workers fetch and decrypt at once, each in its own read-only
+     * transaction. Their rows are merged back in range order, so the output is the same
+     * as a single cursor's, except that each range is read from its own snapshot. When
+     * other exports hold the connection budget, fewer workers are used, down to a single
+     * cursor.
+     */
+    private void forEachLog(AuditLogFilter filter, int parallelism, Consumer<AuditLogView> consumer) {
+        if (hotWindowService.covers(filter)) {
+            hotWindowService.list(filter).forEach(log -> consumer.accept(AuditLogView.of(log)));
+            return;
+        }
+        auditLogArchiveService.scan(filter, log -> consumer.accept(AuditLogView.of(log)));
+        int workers = parallelism > 1 ? acquireWorkers(parallelism) : 0;
+        if (workers == 0) {
+            auditLogReadRepository.scan(filter, consumer);
+            return;
+        }
+        try {
+            CreatedAtRange range = auditLogReadRepository.findCreatedAtRange(filter);
+            if (range == null) {
+                return;
+            }
+            List<OrderedParallelScan.Part<AuditLogView>> parts = new ArrayList<>();
+            List<LocalDateTime> bounds = split(range, workers * RANGES_PER_WORKER);
+            for (int i = 0; i < bounds.size(); i++) {
+                boolean last = i == bounds.size() - 1;
+                AuditLogFilter part = filter.toBuilder().from(bounds.get(i)).to(last ? filter.getTo() : null).build();
+                LocalDateTime before = last ? null : bounds.get(i + 1);
+                parts.add(sink -> readOnlyTransaction.executeWithoutResult(status -> auditLogReadRepository.scan(part, before, sink)));
+            }
+            parallelScan.forEach(parts, workers, consumer);
+        } finally {
+            exportConnections.release(workers + 1);
+        }
+    }
+
+    /**
+     * Takes connections for up to {@code parallelism} workers plus the export's own, as
+     * many workers as the budget has room for; 0 when it has none for even one.
+     */
+    private int acquireWorkers(int parallelism) {
+        for (int workers = parallelism; workers > 1; workers--) {
+            if (exportConnections.tryAcquire(workers + 1)) {
+                return workers;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Start times of equal slices of the range; the last slice runs to the end of the
+     * export's range rather than the newest log, so logs created meanwhile are not lost.
+     */
+    private static List<LocalDateTime> split(CreatedAtRange range, int slices) {
+        long micros = Duration.between(range.first(), range.last()).toNanos() / 1000;
+        int count = (int) Math.max(1, Math.min(slices, micros));
+        List<LocalDateTime> bounds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            bounds.add(range.first().plusNanos(micros * i / count * 1000));
+        }
+        return bounds;
+    }
 
-    private List<AuditLog> getFilteredLogs(String userId, String action, LocalDateTime from, LocalDateTime to) {
-        return auditLogRepository.findByCreatedAtBetween(from, to)
-                .stream()
-                .filter(log -> (userId == null || log.getUserId().toLowerCase().contains(userId.toLowerCase())))
-                .filter(log -> (action == null || log.getAction().toLowerCase().contains(action.toLowerCase())))
-                .collect(Collectors.toList());
+    private int parallelismOf(Integer requested) {
+        int parallelism = requested != null ? requested : defaultParallelism;
+        if (parallelism < 1) {
+            throw new ValidationException("parallelism must be at least 1");
+        }
+        return Math.min(parallelism, maxParallelism);
+    }
+
+    /**
+     * Writes rows as the cursor returns them through a buffered writer, flushing every few
+     * hundred rows, so heap use does not grow with the size of the export.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportToCsv(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to, Integer parallelism,
+                            ExportCompression compression, HttpServletResponse response) throws IOException {
+        int workers = parallelismOf(parallelism);
+        response.setContentType(CSV_CONTENT_TYPE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=audit-logs.csv");
+        try (OutputStream out = openBody(response, compression)) {
+            writeCsv(startupId, userId, action, from, to, workers, out);
+        }
     }
 
     @Override
-    public void exportToCsv(String userId, String action, LocalDateTime from, LocalDateTime to, HttpServletResponse response) {
+    @Transactional(readOnly = true)
+    public void writeCsv(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to, Integer parallelism,
+                         OutputStream out) {
+        int workers = parallelismOf(parallelism);
         try {
-            List<AuditLog> logs = getFilteredLogs(userId, action, from, to);
-            response.setContentType("text/csv");
-            response.setHeader("Content-Disposition", "attachment; filename=audit-logs.csv");
-
-            CSVPrinter csvPrinter = new CSVPrinter(new OutputStreamWriter(response.getOutputStream()), CSVFormat.DEFAULT
-                    .withHeader("User ID", "Action", "Target", "IP", "Device", "Location", "Created At"));
-
-            for (AuditLog log : logs) {
-                csvPrinter.printRecord(
-                        log.getUserId(),
-                        log.getAction(),
-                        log.getTarget(),
-                        log.getMeta().getIp(),
-                        log.getMeta().getDevice(),
-                        log.getMeta().getLocation(),
-                        log.getCreatedAt()
-                );
+            long startTime = System.currentTimeMillis();
+            AuditLogFilter filter = AuditLogFilter.builder().startupId(startupId).userId(userId).action(action).from(from).to(to).build();
+
+            CSVPrinter csvPrinter = new CSVPrinter(
+                    new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS),
+                    CSVFormat.DEFAULT.builder()
+                            .setHeader("User ID", "Action", "Target", "IP", "Device", "Location", "Created At")
+                            .build());
+
+            long[] count = {0};
+            try {
+                forEachLog(filter, workers, log -> {
+                    try {
+                        csvPrinter.printRecord(
+                                log.userId(),
+                                log.action(),
+                                log.target(),
+                                log.meta().ip(),
+                                log.meta().device(),
+                                log.meta().location(),
+                                log.createdAt()
+                        );
+                        if (++count[0] % FLUSH_EVERY_ROWS == 0) {
+                            csvPrinter.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
             }
 
             csvPrinter.flush();
+            log.debug("Exported {} audit logs to CSV with {} workers, took: {}ms", count[0], workers, System.currentTimeMillis() - startTime);
         } catch (Exception e) {
             throw new RuntimeException("Error generating CSV export", e);
         }
     }
 
+    /**
+     * Writes rows as the cursor returns them into Parquet row groups of
+     * {@code parquet-row-group-mb}, each written out as soon as it fills.
+     */
     @Override
-    public void exportToPdf(String userId, String action, LocalDateTime from, LocalDateTime to, HttpServletResponse response) {
+    @Transactional(readOnly = true)
+    public void exportToParquet(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to, Integer parallelism,
+                                ExportCompression compression, HttpServletResponse response) throws IOException {
+        int workers = parallelismOf(parallelism);
+        response.setContentType(PARQUET_CONTENT_TYPE);
+        response.setHeader("Content-Disposition", "attachment; filename=audit-logs.parquet");
+        try (OutputStream out = openBody(response, compression)) {
+            writeParquet(startupId, userId, action, from, to, workers, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeParquet(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to, Integer parallelism,
+                             OutputStream out) {
+        int workers = parallelismOf(parallelism);
         try {
-            List<AuditLog> logs = getFilteredLogs(userId, action, from, to);
+            long startTime = System.currentTimeMillis();
+            AuditLogFilter filter = AuditLogFilter.builder().startupId(startupId).userId(userId).action(action).from(from).to(to).build();
+
+            long[] count = {0};
+            try (AuditLogParquetWriter writer = AuditLogParquetWriter.open(out, parquetCodec, parquetRowGroupMb * 1024L * 1024L)) {
+                forEachLog(filter, workers, log -> {
+                    try {
+                        writer.write(log);
+                        count[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            log.debug("Exported {} audit logs to Parquet with {} workers, took: {}ms", count[0], workers, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            throw new RuntimeException("Error generating Parquet export", e);
+        }
+    }
 
-            response.setContentType("application/pdf");
-            response.setHeader("Content-Disposition", "attachment; filename=audit-logs.pdf");
+    /**
+     * The action distribution is counted first, reading only the columns it needs, which
+     * also gives the number of rows. Reports over {@code pdf-max-rows} rows are summary
+     * only; otherwise the rows are streamed into a table that iText writes out every
+     * {@link #PDF_TABLE_CHUNK_ROWS} rows, so only one chunk is held in memory at a time.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportToPdf(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to,
+                            ExportCompression compression, HttpServletResponse response) throws IOException {
+        response.setContentType(PDF_CONTENT_TYPE);
+        response.setHeader("Content-Disposition", "attachment; filename=audit-logs.pdf");
+        try (OutputStream out = openBody(response, compression)) {
+            writePdf(startupId, userId, action, from, to, out);
+        }
+    }
+
+    /**
+     * The response body, compressed as it is written when a coding was chosen. Closing it
+     * finishes the compressed stream.
+     */
+    private static OutputStream openBody(HttpServletResponse response, ExportCompression compression) throws IOException {
+        response.addHeader("Vary", "Accept-Encoding");
+        if (compression.getEncoding() != null) {
+            response.setHeader("Content-Encoding", compression.getEncoding());
+        }
+        return compression.wrap(response.getOutputStream());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writePdf(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to, OutputStream out) {
+        try {
+            long startTime = System.currentTimeMillis();
+            AuditLogFilter filter = AuditLogFilter.builder().startupId(startupId).userId(userId).action(action).from(from).to(to).build();
+            Map<String, Long> actionCounts = countByAction(filter);
+            long total = actionCounts.values().stream().mapToLong(Long::longValue).sum();
+            boolean summaryOnly = total > pdfMaxRows;
 
             Document document = new Document(PageSize.A4.rotate());
-            PdfWriter writer = PdfWriter.getInstance(document, response.getOutputStream());
+            PdfWriter writer = PdfWriter.getInstance(document, out);
 
             writer.setPageEvent(new PdfPageEventHelper() {
-                Font watermarkFont = new Font(Font.FontFamily.HELVETICA, 52, Font.BOLD, new BaseColor(230, 230, 230));
-
                 @Override
                 public void onEndPage(PdfWriter writer, Document document) {
                     // Watermark
                     ColumnText.showTextAligned(writer.getDirectContentUnder(),
                             Element.ALIGN_CENTER,
-                            new Phrase("TRACEBIT REPORT", watermarkFont),
+                            new Phrase("TRACEBIT REPORT", WATERMARK_FONT),
                             (document.right() - document.left()) / 2 + document.leftMargin(),
                             (document.top() + document.bottom()) / 2,
                             45);
 
                     // Footer
                     Phrase footer = new Phrase("Generated by Tracebit · Page " + writer.getPageNumber() + " · https://tracebit.dev",
-                            FontFactory.getFont(FontFactory.HELVETICA_OBLIQUE, 9, BaseColor.GRAY));
+                            FOOTER_FONT);
                     ColumnText.showTextAligned(writer.getDirectContent(),
                             Element.ALIGN_CENTER, footer,
                             (document.right() - document.left()) / 2 + document.leftMargin(),
@@ -111,100 +406,125 @@ public class AuditLogExportServiceImpl implements AuditLogExportService {
             document.open();
 
             // Title
-            Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18, BaseColor.DARK_GRAY);
-            Paragraph title = new Paragraph("Audit Logs Export Report", titleFont);
+            Paragraph title = new Paragraph("Audit Logs Export Report", TITLE_FONT);
             title.setAlignment(Element.ALIGN_CENTER);
             document.add(title);
             document.add(Chunk.NEWLINE);
 
             // Chart Summary: Action Distribution
-            Image chartImage = createActionDistributionChart(logs);
+            Image chartImage = createActionDistributionChart(actionCounts);
             chartImage.scaleToFit(500, 300);
             chartImage.setAlignment(Element.ALIGN_CENTER);
             document.add(chartImage);
             document.add(Chunk.NEWLINE);
 
             // Filter Summary Section
-            Font labelFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 11);
-            Font valueFont = FontFactory.getFont(FontFactory.HELVETICA, 10);
             PdfPTable summaryTable = new PdfPTable(2);
             summaryTable.setWidths(new float[]{2f, 5f});
             summaryTable.setWidthPercentage(50);
             summaryTable.setSpacingAfter(15f);
 
-            addSummaryRow(summaryTable, "User ID:", userId != null ? userId : "—", labelFont, valueFont);
-            addSummaryRow(summaryTable, "Action:", action != null ? action : "—", labelFont, valueFont);
-            addSummaryRow(summaryTable, "Date Range:", from + " to " + to, labelFont, valueFont);
-            addSummaryRow(summaryTable, "Export Format:", "PDF", labelFont, valueFont);
+            addSummaryRow(summaryTable, "User ID:", userId != null ? userId : "—");
+            addSummaryRow(summaryTable, "Action:", action != null ? action : "—");
+            addSummaryRow(summaryTable, "Date Range:", from + " to " + to);
+            addSummaryRow(summaryTable, "Logs:", String.valueOf(total));
+            addSummaryRow(summaryTable, "Export Format:", "PDF");
 
             document.add(summaryTable);
 
-            // Table setup
-            PdfPTable table = new PdfPTable(7);
-            table.setWidthPercentage(100);
-            table.setSpacingBefore(5f);
-            table.setSpacingAfter(10f);
-            table.setHeaderRows(1);
-
-            String[] headers = {"User ID", "Action", "Target", "IP", "Device", "Location", "Created At"};
-
-            // Header styling
-            Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 11, BaseColor.WHITE);
-            BaseColor headerColor = new BaseColor(0, 121, 107);
-
-            for (String header : headers) {
-                PdfPCell cell = new PdfPCell(new Phrase(header, headerFont));
-                cell.setBackgroundColor(headerColor);
-                cell.setPadding(6f);
-                table.addCell(cell);
+            if (summaryOnly) {
+                document.add(new Paragraph("This report covers " + total + " logs, more than the " + pdfMaxRows
+                        + " that are listed in a PDF. Narrow the filters, or use the CSV export for every log.", VALUE_FONT));
+            } else {
+                addLogTable(document, filter);
             }
-
-            // Data rows with alternating background color
-            boolean alternate = false;
-            for (AuditLog log : logs) {
-                BaseColor bg = alternate ? BaseColor.WHITE : new BaseColor(245, 245, 245);
-                alternate = !alternate;
-
-                table.addCell(styledCell(log.getUserId(), bg));
-                table.addCell(styledCell(log.getAction(), bg));
-                table.addCell(styledCell(log.getTarget(), bg));
-                table.addCell(styledCell(log.getMeta().getIp(), bg));
-                table.addCell(styledCell(log.getMeta().getDevice(), bg));
-                table.addCell(styledCell(log.getMeta().getLocation(), bg));
-                table.addCell(styledCell(String.valueOf(log.getCreatedAt()), bg));
-            }
-
-            document.add(table);
             document.close();
+            log.debug("Exported {} audit logs to PDF{}, took: {}ms", total, summaryOnly ? " as a summary" : "",
+                    System.currentTimeMillis() - startTime);
 
         } catch (Exception e) {
             throw new RuntimeException("Error generating PDF export", e);
         }
     }
 
-    private void addSummaryRow(PdfPTable table, String label, String value, Font labelFont, Font valueFont) {
-        PdfPCell labelCell = new PdfPCell(new Phrase(label, labelFont));
+    private Map<String, Long> countByAction(AuditLogFilter filter) {
+        if (hotWindowService.covers(filter)) {
+            return hotWindowService.countByAction(filter);
+        }
+        Map<String, Long> counts = new HashMap<>(auditLogReadRepository.countByAction(filter));
+        auditLogArchiveService.scan(filter, log -> counts.merge(log.getAction(), 1L, Long::sum));
+        return counts;
+    }
+
+    /**
+     * Streams the rows into an incomplete table and hands it to the document every chunk;
+     * iText writes out the finished rows and drops them from the table.
+     */
+    private void addLogTable(Document document, AuditLogFilter filter) throws DocumentException {
+        PdfPTable table = new PdfPTable(7);
+        table.setWidthPercentage(100);
+        table.setSpacingBefore(5f);
+        table.setSpacingAfter(10f);
+        table.setHeaderRows(1);
+        table.setComplete(false);
+
+        // Header styling
+        PdfPCell headerCell = table.getDefaultCell();
+        headerCell.setBackgroundColor(HEADER_COLOR);
+        headerCell.setPadding(6f);
+        for (String header : new String[]{"User ID", "Action", "Target", "IP", "Device", "Location", "Created At"}) {
+            table.addCell(new Phrase(header, HEADER_FONT));
+        }
+
+        // Data rows with alternating background color, styled through the default cell
+        PdfPCell cell = table.getDefaultCell();
+        cell.setPadding(5f);
+        long[] rows = {0};
+        try {
+            forEachLog(filter, log -> {
+                cell.setBackgroundColor(rows[0] % 2 == 0 ? ROW_COLOR : BaseColor.WHITE);
+                table.addCell(new Phrase(valueOf(log.userId()), CELL_FONT));
+                table.addCell(new Phrase(valueOf(log.action()), CELL_FONT));
+                table.addCell(new Phrase(valueOf(log.target()), CELL_FONT));
+                table.addCell(new Phrase(valueOf(log.meta().ip()), CELL_FONT));
+                table.addCell(new Phrase(valueOf(log.meta().device()), CELL_FONT));
+                table.addCell(new Phrase(valueOf(log.meta().location()), CELL_FONT));
+                table.addCell(new Phrase(String.valueOf(log.createdAt()), CELL_FONT));
+                if (++rows[0] % PDF_TABLE_CHUNK_ROWS == 0) {
+                    try {
+                        document.add(table);
+                    } catch (DocumentException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof DocumentException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        table.setComplete(true);
+        document.add(table);
+    }
+
+    private void addSummaryRow(PdfPTable table, String label, String value) {
+        PdfPCell labelCell = new PdfPCell(new Phrase(label, LABEL_FONT));
         labelCell.setBorder(Rectangle.NO_BORDER);
         labelCell.setPaddingBottom(5f);
         table.addCell(labelCell);
 
-        PdfPCell valueCell = new PdfPCell(new Phrase(value, valueFont));
+        PdfPCell valueCell = new PdfPCell(new Phrase(value, VALUE_FONT));
         valueCell.setBorder(Rectangle.NO_BORDER);
         valueCell.setPaddingBottom(5f);
         table.addCell(valueCell);
     }
 
-    private PdfPCell styledCell(String text, BaseColor bgColor) {
-        PdfPCell cell = new PdfPCell(new Phrase(text != null ? text : "", FontFactory.getFont(FontFactory.HELVETICA, 10)));
-        cell.setBackgroundColor(bgColor);
-        cell.setPadding(5f);
-        return cell;
+    private static String valueOf(String text) {
+        return text != null ? text : "";
     }
 
-    private Image createActionDistributionChart(List<AuditLog> logs) throws Exception {
-        Map<String, Long> actionCounts = logs.stream()
-                .collect(Collectors.groupingBy(AuditLog::getAction, Collectors.counting()));
-
+    private Image createActionDistributionChart(Map<String, Long> actionCounts) throws Exception {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         actionCounts.forEach((action, count) -> dataset.addValue(count, "Actions", action));
 
@@ -226,6 +546,8 @@ public class AuditLogExportServiceImpl implements AuditLogExportService {
         return Image.getInstance(chartStream.toByteArray());
     }
 
-
+    @PreDestroy
+    void shutdown() {
+        rangeExecutor.shutdownNow();
+    }
 }
-
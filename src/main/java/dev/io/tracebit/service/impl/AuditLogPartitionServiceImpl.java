@@ -0,0 +1,109 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.dto.PartitionInterval;
+import dev.io.tracebit.repository.AuditLogPartitionRepository;
+import dev.io.tracebit.repository.AuditLogPartitionRepository.Partition;
+import dev.io.tracebit.service.AuditLogPartitionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+
+@Slf4j
+@Service
+public class AuditLogPartitionServiceImpl implements AuditLogPartitionService {
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final AuditLogPartitionRepository partitionRepository;
+
+    @Value("${tracebit.data.partition.interval:MONTHLY}")
+    private PartitionInterval interval;
+
+    @Value("${tracebit.data.partition.premake:3}")
+    private int premake;
+
+    public AuditLogPartitionServiceImpl(AuditLogPartitionRepository partitionRepository) {
+        this.partitionRepository = partitionRepository;
+    }
+
+    /**
+     * Keeps partitions created {@code premake} intervals ahead of the current one.
+     * Runs at startup and then every hour by default.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${tracebit.data.partition.maintenance-interval-ms:3600000}")
+    public void ensurePartitions() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime horizon = interval.truncate(now);
+            for (int i = 0; i <= premake; i++) {
+                horizon = interval.nextBoundary(horizon);
+            }
+
+            // Continue from the newest existing partition so ranges stay contiguous,
+            // even if the interval was changed since they were created.
+            LocalDateTime start = partitionRepository.findRangePartitions().stream()
+                    .map(Partition::to)
+                    .filter(to -> !to.equals(LocalDateTime.MAX))
+                    .max(Comparator.naturalOrder())
+                    .orElse(interval.truncate(now));
+
+            int created = 0;
+            while (start.isBefore(horizon)) {
+                LocalDateTime end = interval.nextBoundary(start);
+                String name = "audit_logs_p" + NAME_FORMAT.format(start);
+                partitionRepository.createPartition(name, start, end);
+                log.info("Created audit log partition {} for [{}, {})", name, start, end);
+                start = end;
+                created++;
+            }
+
+            log.debug("Audit log partition maintenance finished, {} partitions created", created);
+        } catch (Exception e) {
+            log.error("Error maintaining audit log partitions", e);
+        }
+    }
+
+    /**
+     * Lists the range partitions, oldest first. The default partition is not included.
+     */
+    @Override
+    public List<Partition> findPartitions() {
+        return partitionRepository.findRangePartitions().stream()
+                .sorted(Comparator.comparing(Partition::from))
+                .toList();
+    }
+
+    /**
+     * Detaches and drops a partition; returns false if that failed, typically on a lock
+     * timeout, so the caller can retry on its next run.
+     */
+    @Override
+    public boolean dropPartition(Partition partition) {
+        try {
+            partitionRepository.dropPartition(partition.name());
+            log.info("Dropped audit log partition {} ([{}, {}))", partition.name(), partition.from(), partition.to());
+            return true;
+        } catch (Exception e) {
+            log.error("Error dropping audit log partition {}", partition.name(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public int dropPartitionsOlderThan(LocalDateTime cutoff) {
+        int dropped = 0;
+        for (Partition partition : findPartitions()) {
+            if (!partition.to().isAfter(cutoff) && dropPartition(partition)) {
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+}
@@ -0,0 +1,297 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.dto.RollupDimension;
+import dev.io.tracebit.dto.RollupGranularity;
+import dev.io.tracebit.dto.response.ApiResponse;
+import dev.io.tracebit.dto.response.RollupPoint;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.event.AuditLogPersistedEvent;
+import dev.io.tracebit.exception.ValidationException;
+import dev.io.tracebit.repository.AuditLogRepository;
+import dev.io.tracebit.repository.AuditLogRollupRepository;
+import dev.io.tracebit.repository.AuditLogRollupRepository.Rollup;
+import dev.io.tracebit.security.AttributeEncryptor;
+import dev.io.tracebit.service.AuditLogRollupService;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Maintains each startup's per-minute, per-hour and per-day log counts, overall and
+ * by action and user. Persisted logs are counted in memory and flushed as one batch of upserts every
+ * {@code flush-ms}; an hourly reconciliation recomputes the last closed hour (and the
+ * last day, after midnight) from the raw rows to repair counts lost in a crash.
+ * Every node counts its own logs, and a rebuilt bucket replaces what they flushed, so
+ * buckets are only rebuilt once they closed several flush intervals ago: a count still
+ * waiting on another node would otherwise be added on top of the rebuilt one.
+ */
+@Slf4j
+@Service
+public class AuditLogRollupServiceImpl implements AuditLogRollupService {
+
+    private static final long MAX_BUCKETS = 10_000;
+    private static final int RECONCILE_AFTER_FLUSHES = 3;
+
+    private final AuditLogRollupRepository rollupRepository;
+    private final AuditLogRepository auditLogRepository;
+    private final AttributeEncryptor encryptor;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SecretKeySpec hashKey;
+
+    // Writers share the read lock; flush takes the write lock only to swap the map.
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private Map<BucketKey, LongAdder> pending = new ConcurrentHashMap<>();
+
+    @Value("${tracebit.rollup.flush-ms:5000}")
+    private long flushMs;
+
+    @Value("${tracebit.rollup.minute-retention-days:7}")
+    private int minuteRetentionDays;
+
+    @Value("${tracebit.rollup.hour-retention-days:90}")
+    private int hourRetentionDays;
+
+    public AuditLogRollupServiceImpl(AuditLogRollupRepository rollupRepository,
+                                     AuditLogRepository auditLogRepository,
+                                     AttributeEncryptor encryptor,
+                                     EntityManager entityManager,
+                                     PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.auditLogRepository = auditLogRepository;
+        this.encryptor = encryptor;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.hashKey = encryptor.deriveKey("rollup-hash", "HmacSHA256");
+    }
+
+    @TransactionalEventListener
+    public void onAuditLogPersisted(AuditLogPersistedEvent event) {
+        pendingLock.readLock().lock();
+        try {
+            for (BucketKey key : bucketsOf(event.auditLog())) {
+                pending.computeIfAbsent(key, k -> new LongAdder()).increment();
+            }
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${tracebit.rollup.flush-ms:5000}")
+    public void flush() {
+        Map<BucketKey, LongAdder> batch;
+        pendingLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+
+        try {
+            Map<BucketKey, Long> counts = new HashMap<>();
+            batch.forEach((key, adder) -> counts.put(key, adder.sum()));
+            rollupRepository.addCounts(toRollups(counts));
+            log.debug("Flushed {} audit log rollup buckets", counts.size());
+        } catch (Exception e) {
+            log.error("Error flushing audit log rollups, keeping them for the next flush", e);
+            pendingLock.readLock().lock();
+            try {
+                batch.forEach((key, adder) -> pending.computeIfAbsent(key, k -> new LongAdder()).add(adder.sum()));
+            } finally {
+                pendingLock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs five minutes past every hour, when the previous hour is closed and its logs
+     * have long been saved and flushed. On a schedule closer to the hour, the last hour
+     * that has settled is rebuilt instead.
+     */
+    @Scheduled(cron = "${tracebit.rollup.reconcile-cron:0 5 * * * ?}")
+    public void scheduledReconcile() {
+        try {
+            LocalDateTime hourStart = settled().truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime from = hourStart.getHour() == 0 ? hourStart.minusDays(1) : hourStart.minusHours(1);
+            reconcile(from, hourStart);
+
+            int deleted = rollupRepository.deleteOlderThan(RollupGranularity.MINUTE, hourStart.minusDays(minuteRetentionDays))
+                    + rollupRepository.deleteOlderThan(RollupGranularity.HOUR, hourStart.minusDays(hourRetentionDays));
+            log.debug("Deleted {} expired audit log rollup buckets", deleted);
+        } catch (Exception e) {
+            log.error("Error reconciling audit log rollups", e);
+        }
+    }
+
+    /**
+     * Recomputes every bucket that lies entirely inside [from, to) from the raw rows and
+     * replaces the stored counts with the result. {@code to} must lie at least a few
+     * flush intervals in the past, so that every node has flushed the range.
+     */
+    @Override
+    public void reconcile(LocalDateTime from, LocalDateTime to) {
+        if (to.isAfter(settled())) {
+            throw new IllegalArgumentException("Rollups up to " + to + " may not be flushed on every node yet");
+        }
+        long startTime = System.currentTimeMillis();
+        flush();
+
+        Map<BucketKey, Long> counts = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<AuditLog> rows = auditLogRepository.streamCreatedBetween(from, to)) {
+                rows.forEach(row -> {
+                    for (BucketKey key : bucketsOf(row)) {
+                        counts.merge(key, 1L, Long::sum);
+                    }
+                    entityManager.detach(row);
+                });
+            }
+        });
+
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            if (!granularity.truncate(from).equals(from) || !granularity.truncate(to).equals(to)) {
+                continue;
+            }
+            Map<BucketKey, Long> granularityCounts = new HashMap<>();
+            counts.forEach((key, count) -> {
+                if (key.granularity() == granularity) {
+                    granularityCounts.put(key, count);
+                }
+            });
+            rollupRepository.replaceCounts(granularity, from, to, toRollups(granularityCounts));
+        }
+        log.info("Reconciled audit log rollups for [{} - {}), took: {}ms", from, to, System.currentTimeMillis() - startTime);
+    }
+
+    @Override
+    public ApiResponse getStats(String startupId, RollupGranularity bucket, RollupDimension groupBy, LocalDateTime from, LocalDateTime to) {
+        to = to != null ? to : LocalDateTime.now();
+        from = from != null ? bucket.truncate(from) : bucket.defaultFrom(to);
+        if (from.isAfter(to)) {
+            throw new ValidationException("from must not be after to");
+        }
+        if (bucket.bucketsBetween(from, to) > MAX_BUCKETS) {
+            throw new ValidationException("Requested range spans more than " + MAX_BUCKETS + " buckets; use a coarser bucket");
+        }
+
+        Map<String, String> labels = new HashMap<>();
+        Map<String, RollupPoint> points = new LinkedHashMap<>();
+        for (Rollup rollup : rollupRepository.findRollups(startupId, bucket, groupBy, from, to.plusNanos(1))) {
+            String label = labels.computeIfAbsent(rollup.valueHash(), h -> groupLabel(groupBy, rollup.value()));
+            points.put(rollup.bucketStart() + "|" + rollup.valueHash(), new RollupPoint(rollup.bucketStart(), label, rollup.count()));
+        }
+
+        // Counts not flushed yet are added so the newest bucket is not behind.
+        pendingLock.readLock().lock();
+        try {
+            for (Map.Entry<BucketKey, LongAdder> entry : pending.entrySet()) {
+                BucketKey key = entry.getKey();
+                if (!key.startupId().equals(startupId) || key.granularity() != bucket || key.dimension() != groupBy
+                        || key.bucketStart().isBefore(from) || key.bucketStart().isAfter(to)) {
+                    continue;
+                }
+                RollupPoint unflushed = new RollupPoint(key.bucketStart(),
+                        groupBy == RollupDimension.NONE ? null : key.value(), entry.getValue().sum());
+                points.merge(key.bucketStart() + "|" + hash(key.value()), unflushed,
+                        (stored, extra) -> new RollupPoint(stored.bucketStart(), stored.group(), stored.count() + extra.count()));
+            }
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+        List<RollupPoint> series = new ArrayList<>(points.values());
+        series.sort(Comparator.comparing(RollupPoint::bucketStart));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("bucket", bucket);
+        response.put("groupBy", groupBy);
+        response.put("from", from);
+        response.put("to", to);
+        response.put("series", series);
+
+        return ApiResponse.builder()
+                .error(false)
+                .message("Audit log stats retrieved successfully")
+                .data(response)
+                .build();
+    }
+
+    private LocalDateTime settled() {
+        return LocalDateTime.now().minus(Duration.ofMillis(flushMs * RECONCILE_AFTER_FLUSHES));
+    }
+
+    private String groupLabel(RollupDimension groupBy, String encrypted) {
+        if (groupBy == RollupDimension.NONE || encrypted == null) {
+            return null;
+        }
+        return encryptor.convertToEntityAttribute(encrypted);
+    }
+
+    private static List<BucketKey> bucketsOf(AuditLog log) {
+        List<BucketKey> keys = new ArrayList<>(RollupGranularity.values().length * RollupDimension.values().length);
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            LocalDateTime bucketStart = granularity.truncate(log.getCreatedAt());
+            for (RollupDimension dimension : RollupDimension.values()) {
+                keys.add(new BucketKey(log.getStartupId(), granularity, dimension, bucketStart, dimension.valueOf(log)));
+            }
+        }
+        return keys;
+    }
+
+    private List<Rollup> toRollups(Map<BucketKey, Long> counts) {
+        List<Rollup> rollups = new ArrayList<>(counts.size());
+        Map<String, String> labels = new HashMap<>();
+        counts.forEach((key, count) -> {
+            String label = key.dimension() == RollupDimension.NONE ? null
+                    : labels.computeIfAbsent(key.value(), encryptor::convertToDatabaseColumn);
+            rollups.add(new Rollup(key.startupId(), key.granularity(), key.dimension(), key.bucketStart(), hash(key.value()), label, count));
+        });
+        return rollups;
+    }
+
+    private String hash(String value) {
+        if (value.isEmpty()) {
+            return "";
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hashKey);
+            return HexFormat.of().formatHex(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not hash rollup value", e);
+        }
+    }
+
+    private record BucketKey(String startupId, RollupGranularity granularity, RollupDimension dimension, LocalDateTime bucketStart, String value) {
+    }
+}
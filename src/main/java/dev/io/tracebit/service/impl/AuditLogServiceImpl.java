@@ -1,23 +1,40 @@
 package dev.io.tracebit.service.impl;
 
+import dev.io.tracebit.cache.SingleFlight;
+import dev.io.tracebit.config.CacheConfig;
+import dev.io.tracebit.dto.AuditLogFilter;
 import dev.io.tracebit.dto.request.AuditLogRequest;
 import dev.io.tracebit.dto.response.ApiResponse;
+import dev.io.tracebit.dto.response.AuditLogView;
 import dev.io.tracebit.entity.AuditLog;
 import dev.io.tracebit.entity.MetaData;
-import dev.io.tracebit.repository.AuditLogRepository;
+import dev.io.tracebit.event.AuditLogPersistedEvent;
+import dev.io.tracebit.exception.ValidationException;
+import dev.io.tracebit.hot.HotWindow;
+import dev.io.tracebit.search.AuditLogIndex;
+import dev.io.tracebit.repository.AuditLogReadRepository;
 import dev.io.tracebit.service.AsyncAuditService;
+import dev.io.tracebit.service.AuditLogArchiveService;
 import dev.io.tracebit.service.AuditLogService;
+import dev.io.tracebit.service.HotWindowService;
+import dev.io.tracebit.service.RetentionService;
+import dev.io.tracebit.service.SearchIndexService;
+import dev.io.tracebit.service.SearchResultCacheService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -26,17 +43,45 @@ import static dev.io.tracebit.util.ValidatorUtil.*;
 @Slf4j
 @Service
 public class AuditLogServiceImpl implements AuditLogService {
-    private final AuditLogRepository auditLogRepository;
-    private final AsyncAuditService asyncAuditService;
+    private static final int MAX_IDS = 500;
 
-    @Value("${tracebit.data.retention-days:90}")
-    private int retentionDays;
+    private final AuditLogReadRepository auditLogReadRepository;
+    private final AsyncAuditService asyncAuditService;
+    private final RetentionService retentionService;
+    private final AuditLogArchiveService auditLogArchiveService;
+    private final HotWindowService hotWindowService;
+    private final SearchIndexService searchIndexService;
+    private final SearchResultCacheService searchResultCacheService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Cache auditLogCache;
+    private final Cache auditLogMissCache;
+    private final SingleFlight<String, Optional<AuditLogView>> idLoads;
 
     public AuditLogServiceImpl(
-            AuditLogRepository auditLogRepository, 
-            AsyncAuditService asyncAuditService) {
-        this.auditLogRepository = auditLogRepository;
+            AuditLogReadRepository auditLogReadRepository,
+            AsyncAuditService asyncAuditService,
+            RetentionService retentionService,
+            AuditLogArchiveService auditLogArchiveService,
+            HotWindowService hotWindowService,
+            SearchIndexService searchIndexService,
+            SearchResultCacheService searchResultCacheService,
+            PlatformTransactionManager transactionManager,
+            CacheManager cacheManager,
+            MeterRegistry meterRegistry,
+            @Value("${tracebit.single-flight.timeout-ms:10000}") long singleFlightTimeoutMs) {
+        this.auditLogReadRepository = auditLogReadRepository;
         this.asyncAuditService = asyncAuditService;
+        this.retentionService = retentionService;
+        this.auditLogArchiveService = auditLogArchiveService;
+        this.hotWindowService = hotWindowService;
+        this.searchIndexService = searchIndexService;
+        this.searchResultCacheService = searchResultCacheService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.auditLogCache = cacheManager.getCache(CacheConfig.AUDIT_LOG_CACHE);
+        this.auditLogMissCache = cacheManager.getCache(CacheConfig.AUDIT_LOG_MISS_CACHE);
+        this.idLoads = new SingleFlight<>(Duration.ofMillis(singleFlightTimeoutMs));
+        this.idLoads.bindTo(meterRegistry, CacheConfig.AUDIT_LOG_CACHE);
     }
 
     /**
@@ -46,11 +91,11 @@ public class AuditLogServiceImpl implements AuditLogService {
     @Scheduled(cron = "0 0 2 * * ?")
     public void scheduledPurgeOldLogs() {
         log.info("Running scheduled purge of old audit logs");
-        asyncAuditService.purgeOldAuditLogs(retentionDays);
+        asyncAuditService.purgeOldAuditLogs(retentionService.getPartitionRetentionDays());
     }
 
     @Override
-    public ApiResponse createAuditLog(AuditLogRequest request) {
+    public ApiResponse createAuditLog(String startupId, AuditLogRequest request) {
         log.debug("Creating audit log for user: {}, action: {}", request.getUserId(), request.getAction());
 
         try {
@@ -59,7 +104,9 @@ public class AuditLogServiceImpl implements AuditLogService {
             validateDevice(request.getMeta().getDevice());
 
             // Create audit log entity
+            LocalDateTime createdAt = LocalDateTime.now();
             AuditLog auditLog = AuditLog.builder()
+                    .startupId(startupId)
                     .userId(request.getUserId())
                     .action(request.getAction())
                     .target(request.getTarget())
@@ -68,7 +115,8 @@ public class AuditLogServiceImpl implements AuditLogService {
                             .device(request.getMeta().getDevice())
                             .location(request.getMeta().getLocation())
                             .build())
-                    .createdAt(LocalDateTime.now())
+                    .createdAt(createdAt)
+                    .expiresAt(retentionService.resolveExpiry(startupId, request.getAction(), createdAt))
                     .build();
 
             // Delegate the actual saving to AsyncAuditService
@@ -84,14 +132,18 @@ public class AuditLogServiceImpl implements AuditLogService {
         }
     }
 
+    /**
+     * Searches run outside a transaction so cache hits never touch the database; misses
+     * load in a read-only transaction. Full-text searches are not cached, as the index
+     * only sees new logs after its next refresh.
+     */
     @Override
-    @Transactional(readOnly = true)
-    public ApiResponse searchAuditLogs(String userId, String action, LocalDateTime from, LocalDateTime to, Integer page, Integer size) {
-        long startTime = System.currentTimeMillis();
-        log.debug("Searching audit logs with filters - userId: {}, action: {}, from: {}, to: {}, page: {}, size: {}", 
-                userId, action, from, to, page, size);
+    public ApiResponse searchAuditLogs(String startupId, String q, String userId, String action, LocalDateTime from, LocalDateTime to, Integer page, Integer size) {
+        log.debug("Searching audit logs with filters - q: {}, userId: {}, action: {}, from: {}, to: {}, page: {}, size: {}", 
+                q, userId, action, from, to, page, size);
 
         try {
+            boolean openEnded = to == null;
             userId = userId != null ? userId : "";
             action = action != null ? action : "";
             from = from != null ? from : LocalDateTime.MIN;
@@ -103,41 +155,104 @@ public class AuditLogServiceImpl implements AuditLogService {
                 Sort.by("createdAt").descending()
             );
 
-            Page<AuditLog> auditLogsPage = auditLogRepository.searchAuditLogs(
-                    userId, action, from, to, pageable
-            );
+            AuditLogFilter filter = AuditLogFilter.builder().startupId(startupId).userId(userId).action(action).from(from).to(to).build();
+            if (q != null && !q.isBlank()) {
+                return readOnlyTransaction.execute(status -> loadSearch(q, filter, pageable));
+            }
+            return searchResultCacheService.get(filter, openEnded, pageable.getPageNumber(), pageable.getPageSize(),
+                    () -> readOnlyTransaction.execute(status -> loadSearch(null, filter, pageable)));
+        } catch (Exception e) {
+            log.error("Error searching audit logs", e);
+            throw e;
+        }
+    }
 
-            Map<String, Object> metadata = new HashMap<>();
-            metadata.put("page", auditLogsPage.getNumber());
-            metadata.put("size", auditLogsPage.getSize());
-            metadata.put("totalElements", auditLogsPage.getTotalElements());
-            metadata.put("totalPages", auditLogsPage.getTotalPages());
-            metadata.put("first", auditLogsPage.isFirst());
-            metadata.put("last", auditLogsPage.isLast());
+    private ApiResponse loadSearch(String q, AuditLogFilter filter, Pageable pageable) {
+        long startTime = System.currentTimeMillis();
+        List<AuditLogView> logs;
+        long totalElements;
+        if (q != null) {
+            AuditLogIndex.Hits hits = searchIndexService.search(q, filter, pageable.getOffset(), pageable.getPageSize());
+            logs = findAllByIdInOrder(filter.getStartupId(), hits.ids());
+            totalElements = hits.total();
+        } else if (hotWindowService.covers(filter)) {
+            HotWindow.Result recent = hotWindowService.search(filter, pageable.getOffset(), pageable.getPageSize());
+            logs = recent.logs().stream().map(AuditLogView::of).toList();
+            totalElements = recent.total();
+        } else {
+            AuditLogReadRepository.Page page = auditLogReadRepository.search(filter, pageable.getOffset(), pageable.getPageSize());
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("logs", auditLogsPage.getContent());
-            response.put("pagination", metadata);
+            // Archived logs are older than anything left in the database, so they follow it.
+            logs = new ArrayList<>(page.logs());
+            totalElements = page.total();
+            if (auditLogArchiveService.covers(filter)) {
+                long archiveOffset = Math.max(0, pageable.getOffset() - totalElements);
+                AuditLogArchiveService.SearchResult archived = auditLogArchiveService.search(
+                        filter, archiveOffset, pageable.getPageSize() - logs.size());
+                archived.logs().forEach(log -> logs.add(AuditLogView.of(log)));
+                totalElements += archived.total();
+            }
+        }
+        int totalPages = (int) ((totalElements + pageable.getPageSize() - 1) / pageable.getPageSize());
 
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("page", pageable.getPageNumber());
+        metadata.put("size", pageable.getPageSize());
+        metadata.put("totalElements", totalElements);
+        metadata.put("totalPages", totalPages);
+        metadata.put("first", pageable.getPageNumber() == 0);
+        metadata.put("last", pageable.getPageNumber() + 1 >= totalPages);
 
-            return ApiResponse.builder()
-                    .error(false)
-                    .message("Audit logs retrieved successfully")
-                    .data(response)
-                    .build();
-        } catch (Exception e) {
-            log.error("Error searching audit logs", e);
-            throw e;
+        Map<String, Object> response = new HashMap<>();
+        response.put("logs", logs);
+        response.put("pagination", metadata);
+
+        log.debug("Loaded audit log search, took: {}ms", System.currentTimeMillis() - startTime);
+        return ApiResponse.builder()
+                .error(false)
+                .message("Audit logs retrieved successfully")
+                .data(response)
+                .build();
+    }
+
+    /**
+     * Loads logs by id from the database, falling back to the archive, keeping the order
+     * of the ids. Ids that no longer exist anywhere are skipped.
+     */
+    private List<AuditLogView> findAllByIdInOrder(String startupId, List<Long> ids) {
+        Map<Long, AuditLogView> found = new HashMap<>();
+        auditLogReadRepository.findAllById(startupId, ids).forEach(log -> found.put(log.id(), log));
+
+        List<AuditLogView> logs = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Optional.ofNullable(found.get(id))
+                    .or(() -> auditLogArchiveService.findById(id)
+                            .filter(log -> startupId.equals(log.getStartupId()))
+                            .map(AuditLogView::of))
+                    .ifPresent(logs::add);
         }
+        return logs;
     }
 
+    /**
+     * Found logs come from the id cache and ids known to be missing from the short-lived
+     * miss cache; only lookups that neither knows reach the database and the archive.
+     * Both caches are keyed by startup and id, so a log of another startup is never
+     * served, and is reported as not found. Concurrent lookups of the same uncached id
+     * share one load.
+     */
     @Override
-    @Transactional(readOnly = true)
-    @Cacheable(value = "auditLogCache", key = "#id", unless = "#result.error")
-    public ApiResponse getAuditLogById(Long id) {
-        log.debug("Retrieving audit log with ID: {} (not from cache)", id);
-
-        Optional<AuditLog> auditLogOptional = auditLogRepository.findById(id);
+    public ApiResponse getAuditLogById(String startupId, Long id) {
+        String cacheKey = cacheKey(startupId, id);
+        AuditLogView cached = auditLogCache.get(cacheKey, AuditLogView.class);
+        Optional<AuditLogView> auditLogOptional;
+        if (cached != null) {
+            auditLogOptional = Optional.of(cached);
+        } else if (auditLogMissCache.get(cacheKey) != null) {
+            auditLogOptional = Optional.empty();
+        } else {
+            auditLogOptional = idLoads.execute(cacheKey, () -> loadById(startupId, id, cacheKey));
+        }
 
         if (auditLogOptional.isPresent()) {
             log.debug("Audit log found with ID: {}", id);
@@ -154,4 +269,101 @@ public class AuditLogServiceImpl implements AuditLogService {
                     .build();
         }
     }
+
+    /**
+     * Looks every id up in the id and miss caches first, then loads the rest with one
+     * query, falling back to the archive for ids the database no longer has. Logs are
+     * returned in request order, with the ids that were not found listed separately.
+     */
+    @Override
+    public ApiResponse getAuditLogsByIds(String startupId, List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.isEmpty() || requested.size() > MAX_IDS) {
+            throw new ValidationException("Between 1 and " + MAX_IDS + " ids must be requested");
+        }
+
+        Map<Long, AuditLogView> found = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        List<Long> toLoad = new ArrayList<>();
+        for (Long id : requested) {
+            String cacheKey = cacheKey(startupId, id);
+            AuditLogView cached = auditLogCache.get(cacheKey, AuditLogView.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else if (auditLogMissCache.get(cacheKey) != null) {
+                missing.add(id);
+            } else {
+                toLoad.add(id);
+            }
+        }
+
+        if (!toLoad.isEmpty()) {
+            log.debug("Retrieving {} of {} audit logs by ID (not from cache)", toLoad.size(), requested.size());
+            readOnlyTransaction.executeWithoutResult(status -> {
+                auditLogReadRepository.findAllById(startupId, toLoad).forEach(log -> found.put(log.id(), log));
+                for (Long id : toLoad) {
+                    if (!found.containsKey(id)) {
+                        auditLogArchiveService.findById(id)
+                                .filter(log -> startupId.equals(log.getStartupId()))
+                                .ifPresent(log -> found.put(id, AuditLogView.of(log)));
+                    }
+                }
+            });
+            for (Long id : toLoad) {
+                AuditLogView loaded = found.get(id);
+                if (loaded != null) {
+                    auditLogCache.put(cacheKey(startupId, id), loaded);
+                } else {
+                    auditLogMissCache.put(cacheKey(startupId, id), Boolean.TRUE);
+                    missing.add(id);
+                }
+            }
+        }
+
+        List<AuditLogView> logs = new ArrayList<>(found.size());
+        List<Long> notFound = new ArrayList<>(missing.size());
+        for (Long id : requested) {
+            if (found.containsKey(id)) {
+                logs.add(found.get(id));
+            } else {
+                notFound.add(id);
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("logs", logs);
+        response.put("notFound", notFound);
+
+        return ApiResponse.builder()
+                .error(false)
+                .message("Audit logs retrieved successfully")
+                .data(response)
+                .build();
+    }
+
+    private Optional<AuditLogView> loadById(String startupId, Long id, String cacheKey) {
+        log.debug("Retrieving audit log with ID: {} (not from cache)", id);
+        Optional<AuditLogView> auditLogOptional = readOnlyTransaction.execute(status -> auditLogReadRepository.findById(startupId, id)
+                .or(() -> auditLogArchiveService.findById(id)
+                        .filter(log -> startupId.equals(log.getStartupId()))
+                        .map(AuditLogView::of)));
+        if (auditLogOptional.isPresent()) {
+            auditLogCache.put(cacheKey, auditLogOptional.get());
+        } else {
+            auditLogMissCache.put(cacheKey, Boolean.TRUE);
+        }
+        return auditLogOptional;
+    }
+
+    /**
+     * A new log may have an id that was looked up before it existed.
+     */
+    @TransactionalEventListener
+    public void onAuditLogPersisted(AuditLogPersistedEvent event) {
+        auditLogMissCache.evict(cacheKey(event.auditLog().getStartupId(), event.auditLog().getId()));
+    }
+
+    private static String cacheKey(String startupId, Long id) {
+        return startupId + ":" + id;
+    }
 }
@@ -0,0 +1,102 @@
+package dev.io.tracebit.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.dto.response.AuditLogView;
+import dev.io.tracebit.repository.AuditLogReadRepository;
+import dev.io.tracebit.service.AuditLogArchiveService;
+import dev.io.tracebit.service.AuditLogStreamService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+/**
+ * Streams matching audit logs as newline-delimited JSON, oldest first, without holding
+ * the result in memory. Archived logs come first, then the database rows, read through
+ * a server-side cursor inside a read-only transaction and written as they arrive, so
+ * heap use stays flat however many rows are written.
+ */
+@Slf4j
+@Service
+public class AuditLogStreamServiceImpl implements AuditLogStreamService {
+
+    public static final String NDJSON = "application/x-ndjson";
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    private final AuditLogReadRepository auditLogReadRepository;
+    private final AuditLogArchiveService auditLogArchiveService;
+    private final ObjectWriter writer;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public AuditLogStreamServiceImpl(AuditLogReadRepository auditLogReadRepository,
+                                     AuditLogArchiveService auditLogArchiveService,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager) {
+        this.auditLogReadRepository = auditLogReadRepository;
+        this.auditLogArchiveService = auditLogArchiveService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writer = objectMapper.writerFor(AuditLogView.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public void streamAuditLogs(String startupId, String userId, String action, LocalDateTime from, LocalDateTime to,
+                                HttpServletResponse response) throws IOException {
+        long startTime = System.currentTimeMillis();
+        AuditLogFilter filter = AuditLogFilter.builder().startupId(startupId).userId(userId).action(action).from(from).to(to).build();
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+
+        RowWriter rows = new RowWriter(response.getOutputStream());
+        try {
+            auditLogArchiveService.scan(filter, log -> rows.write(AuditLogView.of(log)));
+            readOnlyTransaction.executeWithoutResult(status -> auditLogReadRepository.scan(filter, rows::write));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        rows.flush();
+        log.debug("Streamed {} audit logs, took: {}ms", rows.count, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Writes one JSON document per line through a single generator and flushes every few
+     * hundred rows, so the client receives data while the cursor is still being read.
+     */
+    private final class RowWriter {
+        private final JsonGenerator generator;
+        private long count;
+
+        RowWriter(OutputStream out) throws IOException {
+            this.generator = writer.getFactory().createGenerator(out);
+            // Lines are separated explicitly, including after the last one.
+            this.generator.setRootValueSeparator(null);
+        }
+
+        void write(AuditLogView log) {
+            try {
+                writer.writeValue(generator, log);
+                generator.writeRaw('\n');
+                if (++count % FLUSH_EVERY_ROWS == 0) {
+                    generator.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void flush() throws IOException {
+            generator.flush();
+        }
+    }
+}
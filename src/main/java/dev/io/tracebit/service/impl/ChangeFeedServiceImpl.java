@@ -0,0 +1,174 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.dto.response.ApiResponse;
+import dev.io.tracebit.event.AuditLogPersistedEvent;
+import dev.io.tracebit.exception.ServiceUnavailableException;
+import dev.io.tracebit.exception.ValidationException;
+import dev.io.tracebit.feed.ChangeCursor;
+import dev.io.tracebit.repository.AuditLogReadRepository;
+import dev.io.tracebit.service.ChangeFeedService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the change feed. A consumer passes the cursor of its last response and gets
+ * exactly the rows committed after it, in commit order; see
+ * {@link AuditLogReadRepository#findChanges}. A consumer that is caught up can long-poll:
+ * its request is parked and checked again when this node saves a log for its startup,
+ * and every {@code poll-ms} for logs saved by other nodes, until rows arrive or the
+ * wait runs out.
+ */
+@Slf4j
+@Service
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final AuditLogReadRepository auditLogReadRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<String, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger waiterCount = new AtomicInteger();
+    private final ExecutorService checker;
+
+    @Value("${tracebit.changes.max-wait-ms:30000}")
+    private long maxWaitMs;
+
+    @Value("${tracebit.changes.max-waiters:1000}")
+    private int maxWaiters;
+
+    public ChangeFeedServiceImpl(AuditLogReadRepository auditLogReadRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${tracebit.changes.threads:2}") int threads) {
+        this.auditLogReadRepository = auditLogReadRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.checker = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public DeferredResult<ApiResponse> getChanges(String startupId, String after, int limit, long waitMs) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ValidationException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (waitMs < 0 || waitMs > maxWaitMs) {
+            throw new ValidationException("waitMs must be between 0 and " + maxWaitMs);
+        }
+        ChangeCursor cursor = ChangeCursor.parse(after);
+        AuditLogReadRepository.Changes changes = load(startupId, cursor, limit);
+
+        DeferredResult<ApiResponse> result = new DeferredResult<>(waitMs > 0 ? waitMs : null, toResponse(changes, limit));
+        if (!changes.logs().isEmpty() || waitMs == 0) {
+            result.setResult(toResponse(changes, limit));
+            return result;
+        }
+        if (waiterCount.get() >= maxWaiters) {
+            throw new ServiceUnavailableException("change feed", "too many waiting consumers, try again later");
+        }
+
+        Waiter waiter = new Waiter(startupId, cursor, limit, result);
+        Set<Waiter> startupWaiters = waiters.computeIfAbsent(startupId, id -> ConcurrentHashMap.newKeySet());
+        startupWaiters.add(waiter);
+        waiterCount.incrementAndGet();
+        result.onCompletion(() -> {
+            if (startupWaiters.remove(waiter)) {
+                waiterCount.decrementAndGet();
+            }
+        });
+        return result;
+    }
+
+    @TransactionalEventListener
+    public void onAuditLogPersisted(AuditLogPersistedEvent event) {
+        Set<Waiter> startupWaiters = waiters.get(event.auditLog().getStartupId());
+        if (startupWaiters != null) {
+            startupWaiters.forEach(this::check);
+        }
+    }
+
+    /**
+     * Picks up logs saved by other nodes, and logs held back because an older
+     * transaction was still running when their save was announced.
+     */
+    @Scheduled(fixedDelayString = "${tracebit.changes.poll-ms:1000}")
+    public void pollWaiters() {
+        waiters.values().forEach(startupWaiters -> startupWaiters.forEach(this::check));
+    }
+
+    private void check(Waiter waiter) {
+        if (!waiter.checking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            checker.execute(() -> {
+                try {
+                    if (waiter.result.isSetOrExpired()) {
+                        return;
+                    }
+                    AuditLogReadRepository.Changes changes = load(waiter.startupId, waiter.cursor, waiter.limit);
+                    if (!changes.logs().isEmpty()) {
+                        waiter.result.setResult(toResponse(changes, waiter.limit));
+                    }
+                } catch (Exception e) {
+                    log.error("Error checking the change feed for startup {}", waiter.startupId, e);
+                    waiter.result.setErrorResult(e);
+                } finally {
+                    waiter.checking.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            waiter.checking.set(false);
+            throw e;
+        }
+    }
+
+    private AuditLogReadRepository.Changes load(String startupId, ChangeCursor cursor, int limit) {
+        return readOnlyTransaction.execute(status -> auditLogReadRepository.findChanges(startupId, cursor, limit));
+    }
+
+    private static ApiResponse toResponse(AuditLogReadRepository.Changes changes, int limit) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("logs", changes.logs());
+        response.put("next", changes.next().toString());
+        response.put("hasMore", changes.logs().size() == limit);
+
+        return ApiResponse.builder()
+                .error(false)
+                .message("Audit log changes retrieved successfully")
+                .data(response)
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        checker.shutdownNow();
+    }
+
+    private record Waiter(String startupId, ChangeCursor cursor, int limit, DeferredResult<ApiResponse> result,
+                          AtomicBoolean checking) {
+
+        Waiter(String startupId, ChangeCursor cursor, int limit, DeferredResult<ApiResponse> result) {
+            this(startupId, cursor, limit, result, new AtomicBoolean());
+        }
+    }
+}
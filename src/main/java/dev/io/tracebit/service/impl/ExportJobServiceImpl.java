@@ -0,0 +1,315 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.dto.response.ApiResponse;
+import dev.io.tracebit.exception.ResourceNotFoundException;
+import dev.io.tracebit.exception.ServiceUnavailableException;
+import dev.io.tracebit.exception.ValidationException;
+import dev.io.tracebit.export.ByteRange;
+import dev.io.tracebit.export.ExportCompression;
+import dev.io.tracebit.export.ExportJob;
+import dev.io.tracebit.service.AuditLogExportService;
+import dev.io.tracebit.service.ExportJobService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runs exports in the background so no request waits for a large one. Jobs run on a
+ * small executor with a bounded queue and write to {@code dir}; the result can be
+ * downloaded, and resumed with Range requests, until it expires after {@code ttl-ms}.
+ * Jobs and their files are local to the node and do not survive a restart.
+ * <p>
+ * Downloads use Tomcat's sendfile support when the connector offers it, so the kernel
+ * copies the file to the socket; otherwise the file is copied with
+ * {@link FileChannel#transferTo}. An expired file is kept while a copy is running and for
+ * {@code download-grace-ms} after a download starts. Sendfile opens the file only after
+ * the request returns, and once it has the file open, deleting the file does not cut
+ * the transfer short.
+ */
+@Slf4j
+@Service
+public class ExportJobServiceImpl implements ExportJobService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "csv", AuditLogExportServiceImpl.CSV_CONTENT_TYPE,
+            "pdf", AuditLogExportServiceImpl.PDF_CONTENT_TYPE,
+            "parquet", AuditLogExportServiceImpl.PARQUET_CONTENT_TYPE);
+
+    private final AuditLogExportService auditLogExportService;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<ExportJob.Key, ExportJob> inFlight = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final Path dir;
+
+    @Value("${tracebit.export-jobs.ttl-ms:3600000}")
+    private long ttlMs;
+
+    @Value("${tracebit.export-jobs.download-grace-ms:60000}")
+    private long downloadGraceMs;
+
+    public ExportJobServiceImpl(AuditLogExportService auditLogExportService,
+                                @Value("${tracebit.export-jobs.dir:data/exports}") String dir,
+                                @Value("${tracebit.export-jobs.threads:2}") int threads,
+                                @Value("${tracebit.export-jobs.queue-size:20}") int queueSize) {
+        this.auditLogExportService = auditLogExportService;
+        this.dir = Paths.get(dir);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "export-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Files left by a previous run belong to jobs that no longer exist.
+     */
+    @PostConstruct
+    void open() throws IOException {
+        Files.createDirectories(dir);
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(this::deleteQuietly);
+        }
+    }
+
+    @Override
+    public ApiResponse submit(String startupId, String format, String compression, String userId, String action,
+                              LocalDateTime from, LocalDateTime to, Integer parallelism) {
+        String normalisedFormat = format != null ? format.toLowerCase(Locale.ROOT) : "";
+        if (!CONTENT_TYPES.containsKey(normalisedFormat)) {
+            throw new IllegalArgumentException("Invalid export format: " + format);
+        }
+        if (parallelism != null && parallelism < 1) {
+            throw new ValidationException("parallelism must be at least 1");
+        }
+        ExportJob.Key key = new ExportJob.Key(startupId, normalisedFormat, ExportCompression.of(compression),
+                blankToNull(userId), blankToNull(action), from, to);
+
+        ExportJob job = new ExportJob(key, parallelism);
+        ExportJob running = inFlight.putIfAbsent(key, job);
+        if (running != null) {
+            log.debug("Export job {} already covers this export", running.getId());
+            return toResponse(running, "Export job already in progress");
+        }
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, job);
+            jobs.remove(job.getId());
+            throw new ServiceUnavailableException("export jobs", "too many exports are queued, try again later");
+        }
+        log.info("Queued {} export job {}", normalisedFormat, job.getId());
+        return toResponse(job, "Export job queued");
+    }
+
+    @Override
+    public ApiResponse getStatus(String startupId, String jobId) {
+        return toResponse(find(startupId, jobId), "Export job retrieved successfully");
+    }
+
+    @Override
+    public void download(String startupId, String jobId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ExportJob job = find(startupId, jobId);
+        if (job.getStatus() != ExportJob.Status.COMPLETED) {
+            throw new ValidationException("Export job " + jobId + " is " + job.getStatus().name().toLowerCase(Locale.ROOT)
+                    + ", not completed");
+        }
+        long length = job.getSize();
+        String eTag = job.getETag();
+
+        // A range only applies to the copy the client already has part of.
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        ByteRange range = ifRange == null || ifRange.equals(eTag)
+                ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), length) : null;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        if (range != null && !range.isSatisfiable(length)) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+        long start = range != null ? range.start() : 0;
+        long count = range != null ? range.length() : length;
+        if (range != null) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range.start() + "-" + range.end() + "/" + length);
+        }
+        ExportCompression compression = job.getKey().compression();
+        response.setContentType(compression == ExportCompression.NONE ? CONTENT_TYPES.get(job.getKey().format()) : compression.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.getFileName());
+        response.setContentLengthLong(count);
+        if (count == 0) {
+            return;
+        }
+
+        if (!job.startDownload()) {
+            throw new ResourceNotFoundException("Export job", jobId);
+        }
+        try {
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, job.getFile().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, start + count);
+                return;
+            }
+            try (FileChannel file = FileChannel.open(job.getFile(), StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                long remaining = count;
+                while (remaining > 0) {
+                    long sent = file.transferTo(position, remaining, out);
+                    position += sent;
+                    remaining -= sent;
+                }
+            }
+        } finally {
+            job.finishDownload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tracebit.export-jobs.cleanup-ms:60000}")
+    public void deleteExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime downloadedBefore = now.minus(Duration.ofMillis(downloadGraceMs));
+        jobs.values().removeIf(job -> {
+            if (!job.isFinished() || job.getExpiresAt().isAfter(now) || !job.markDeleted(downloadedBefore)) {
+                return false;
+            }
+            if (job.getFile() != null) {
+                deleteQuietly(job.getFile());
+            }
+            log.debug("Expired export job {}", job.getId());
+            return true;
+        });
+    }
+
+    private void run(ExportJob job) {
+        long startTime = System.currentTimeMillis();
+        ExportJob.Key key = job.getKey();
+        Path part = dir.resolve(job.getId() + ".part");
+        try {
+            job.start();
+            createPrivateFile(part);
+            try (OutputStream out = key.compression().wrap(new BufferedOutputStream(Files.newOutputStream(part, StandardOpenOption.WRITE)))) {
+                switch (key.format()) {
+                    case "pdf" -> auditLogExportService.writePdf(key.startupId(), key.userId(), key.action(), key.from(), key.to(), out);
+                    case "parquet" -> auditLogExportService.writeParquet(key.startupId(), key.userId(), key.action(), key.from(), key.to(),
+                            job.getParallelism(), out);
+                    default -> auditLogExportService.writeCsv(key.startupId(), key.userId(), key.action(), key.from(), key.to(),
+                            job.getParallelism(), out);
+                }
+            }
+            Path file = Files.move(part, dir.resolve(job.getId() + "." + key.format() + key.compression().getExtension()),
+                    StandardCopyOption.ATOMIC_MOVE);
+            job.complete(file, Files.size(file), LocalDateTime.now().plus(Duration.ofMillis(ttlMs)));
+            log.info("Completed export job {} with {} bytes, took: {}ms", job.getId(), job.getSize(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("Error running export job {}", job.getId(), e);
+            deleteQuietly(part);
+            job.fail("Export failed", LocalDateTime.now().plus(Duration.ofMillis(ttlMs)));
+        } finally {
+            inFlight.remove(key, job);
+        }
+    }
+
+    private ExportJob find(String startupId, String jobId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null || !job.getKey().startupId().equals(startupId)) {
+            throw new ResourceNotFoundException("Export job", jobId);
+        }
+        return job;
+    }
+
+    /**
+     * Exports hold decrypted logs, so only the service's own user may read them.
+     */
+    private static void createPrivateFile(Path path) throws IOException {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(path);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", path, e);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static ApiResponse toResponse(ExportJob job, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", job.getId());
+        response.put("status", job.getStatus());
+        response.put("format", job.getKey().format());
+        response.put("compression", job.getKey().compression().name().toLowerCase(Locale.ROOT));
+        response.put("createdAt", job.getCreatedAt());
+        if (job.isFinished()) {
+            response.put("completedAt", job.getCompletedAt());
+            response.put("expiresAt", job.getExpiresAt());
+        }
+        if (job.getError() != null) {
+            response.put("error", job.getError());
+        }
+        if (job.getStatus() == ExportJob.Status.COMPLETED) {
+            response.put("size", job.getSize());
+            response.put("downloadUrl", "/api/v1/export-jobs/" + job.getId() + "/download");
+        }
+
+        return ApiResponse.builder()
+                .error(false)
+                .message(message)
+                .data(response)
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
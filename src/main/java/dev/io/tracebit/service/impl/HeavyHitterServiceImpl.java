@@ -0,0 +1,83 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.dto.RollupDimension;
+import dev.io.tracebit.dto.RollupGranularity;
+import dev.io.tracebit.dto.response.ApiResponse;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.event.AuditLogPersistedEvent;
+import dev.io.tracebit.exception.ValidationException;
+import dev.io.tracebit.service.HeavyHitterService;
+import dev.io.tracebit.sketch.TumblingHeavyHitters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the noisiest actions and users of each startup over tumbling one-minute,
+ * one-hour and one-day windows with Space-Saving summaries of {@code capacity} counters
+ * each. A startup's summaries are created with its first log. Summaries are fed from
+ * this node's ingest only, so in a cluster each node reports its own share.
+ */
+@Service
+public class HeavyHitterServiceImpl implements HeavyHitterService {
+
+    private final int capacity;
+    private final Map<String, Map<RollupDimension, Map<RollupGranularity, TumblingHeavyHitters>>> trackers = new ConcurrentHashMap<>();
+
+    public HeavyHitterServiceImpl(@Value("${tracebit.heavy-hitters.capacity:1000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @TransactionalEventListener
+    public void onAuditLogPersisted(AuditLogPersistedEvent event) {
+        AuditLog log = event.auditLog();
+        trackers.computeIfAbsent(log.getStartupId(), startupId -> newTrackers()).forEach((dimension, windows) -> {
+            String value = dimension.valueOf(log);
+            windows.values().forEach(tracker -> tracker.add(value, log.getCreatedAt()));
+        });
+    }
+
+    @Override
+    public ApiResponse getTop(String startupId, RollupDimension dimension, RollupGranularity window, int k, boolean closed) {
+        if (dimension != RollupDimension.ACTION && dimension != RollupDimension.USER_ID) {
+            throw new ValidationException("Heavy hitters are tracked by ACTION or USER_ID");
+        }
+        if (k < 1 || k > capacity) {
+            throw new ValidationException("k must be between 1 and " + capacity);
+        }
+
+        TumblingHeavyHitters.Snapshot snapshot = trackers.computeIfAbsent(startupId, id -> newTrackers())
+                .get(dimension).get(window).top(k, LocalDateTime.now(), closed);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("dimension", dimension);
+        response.put("window", window);
+        response.put("windowStart", snapshot.windowStart());
+        response.put("total", snapshot.total());
+        response.put("top", snapshot.top());
+
+        return ApiResponse.builder()
+                .error(false)
+                .message("Heavy hitters retrieved successfully")
+                .data(response)
+                .build();
+    }
+
+    private Map<RollupDimension, Map<RollupGranularity, TumblingHeavyHitters>> newTrackers() {
+        Map<RollupDimension, Map<RollupGranularity, TumblingHeavyHitters>> startupTrackers = new EnumMap<>(RollupDimension.class);
+        for (RollupDimension dimension : new RollupDimension[]{RollupDimension.ACTION, RollupDimension.USER_ID}) {
+            Map<RollupGranularity, TumblingHeavyHitters> windows = new EnumMap<>(RollupGranularity.class);
+            for (RollupGranularity window : RollupGranularity.values()) {
+                windows.put(window, new TumblingHeavyHitters(window, capacity));
+            }
+            startupTrackers.put(dimension, windows);
+        }
+        return startupTrackers;
+    }
+}
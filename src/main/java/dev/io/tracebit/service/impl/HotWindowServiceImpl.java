@@ -0,0 +1,62 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.event.AuditLogPersistedEvent;
+import dev.io.tracebit.hot.HotWindow;
+import dev.io.tracebit.service.HotWindowService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves recent-event queries from an in-memory {@link HotWindow} fed by the ingest
+ * path. The window only sees logs saved by this node, so it is disabled by default
+ * and should only be enabled for single-node deployments.
+ */
+@Slf4j
+@Service
+public class HotWindowServiceImpl implements HotWindowService {
+
+    private final HotWindow window;
+
+    public HotWindowServiceImpl(@Value("${tracebit.hot-window.enabled:false}") boolean enabled,
+                                @Value("${tracebit.hot-window.max-rows:100000}") int maxRows) {
+        this.window = enabled ? new HotWindow(maxRows, LocalDateTime.now()) : null;
+        if (enabled) {
+            log.info("Hot window enabled for the latest {} audit logs", maxRows);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onAuditLogPersisted(AuditLogPersistedEvent event) {
+        if (window != null) {
+            window.append(event.auditLog());
+        }
+    }
+
+    @Override
+    public boolean covers(AuditLogFilter filter) {
+        return window != null && window.covers(filter);
+    }
+
+    @Override
+    public HotWindow.Result search(AuditLogFilter filter, long offset, int limit) {
+        return window.search(filter, LocalDateTime.now(), offset, limit);
+    }
+
+    @Override
+    public List<AuditLog> list(AuditLogFilter filter) {
+        return window.list(filter, LocalDateTime.now());
+    }
+
+    @Override
+    public Map<String, Long> countByAction(AuditLogFilter filter) {
+        return window.countByAction(filter, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,182 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.dto.response.AuditLogView;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.event.AuditLogPersistedEvent;
+import dev.io.tracebit.exception.ServiceUnavailableException;
+import dev.io.tracebit.service.LiveTailService;
+import dev.io.tracebit.tail.TailSenderPool;
+import dev.io.tracebit.tail.TailSubscriber;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes newly persisted logs to live tails over Server-Sent Events. Logs are fanned
+ * out in memory after their transaction commits, so open tails cost no database work.
+ * Writes to clients happen on a small sender pool; each tail buffers at most
+ * {@code buffer-size} logs and drops the rest while its client is too slow. A tail whose
+ * client stops reading altogether is evicted once a write to it has been blocked for
+ * {@code write-timeout-ms}, and the pool runs an extra thread until that write gives up.
+ * Tails are grouped by startup, so a log is only matched against its own startup's
+ * tails. Tails only see logs saved by this node.
+ */
+@Slf4j
+@Service
+public class LiveTailServiceImpl implements LiveTailService {
+
+    private final Map<String, Set<TailSubscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final TailSenderPool sender;
+    private final Counter droppedLogs;
+    private final Counter evictedTails;
+
+    @Value("${tracebit.tail.max-subscribers:5000}")
+    private int maxSubscribers;
+
+    @Value("${tracebit.tail.buffer-size:1000}")
+    private int bufferSize;
+
+    @Value("${tracebit.tail.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${tracebit.tail.write-timeout-ms:5000}")
+    private long writeTimeoutMs;
+
+    public LiveTailServiceImpl(@Value("${tracebit.tail.sender-threads:4}") int senderThreads,
+                               @Value("${tracebit.tail.max-stalled-senders:100}") int maxStalledSenders,
+                               MeterRegistry meterRegistry) {
+        this.sender = new TailSenderPool(senderThreads, maxStalledSenders);
+        Gauge.builder("tracebit.tail.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open live tails")
+                .register(meterRegistry);
+        Gauge.builder("tracebit.tail.stalled", sender, TailSenderPool::getStalled)
+                .description("Writes still blocked on evicted live tails")
+                .register(meterRegistry);
+        this.droppedLogs = Counter.builder("tracebit.tail.dropped")
+                .description("Logs dropped because a live tail client was too slow")
+                .register(meterRegistry);
+        this.evictedTails = Counter.builder("tracebit.tail.evicted")
+                .description("Live tails closed because their client stopped reading")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribe(String startupId, String userId, String action, String target) {
+        // Counted before the check, so concurrent requests cannot overshoot the cap.
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException("live tail", "too many open tails, try again later");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        TailSubscriber subscriber = new TailSubscriber(userId, action, target, bufferSize, sender, new EmitterSink(emitter));
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        subscribers.computeIfAbsent(startupId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        // Sends the response headers right away.
+        subscriber.heartbeat();
+        log.debug("Opened live tail - startupId: {}, userId: {}, action: {}, target: {}", startupId, userId, action, target);
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onAuditLogPersisted(AuditLogPersistedEvent event) {
+        AuditLog auditLog = event.auditLog();
+        Set<TailSubscriber> startupSubscribers = subscribers.get(auditLog.getStartupId());
+        if (startupSubscribers == null) {
+            return;
+        }
+        for (TailSubscriber subscriber : startupSubscribers) {
+            if (subscriber.isClosed()) {
+                remove(startupSubscribers, subscriber);
+            } else if (subscriber.matches(auditLog) && !subscriber.offer(auditLog)) {
+                droppedLogs.increment();
+            }
+        }
+    }
+
+    /**
+     * Keeps idle connections open through proxies and finds clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${tracebit.tail.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<TailSubscriber> startupSubscribers : subscribers.values()) {
+            for (TailSubscriber subscriber : startupSubscribers) {
+                if (subscriber.isClosed()) {
+                    remove(startupSubscribers, subscriber);
+                } else {
+                    subscriber.heartbeat();
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts tails whose client has not taken a write for {@code write-timeout-ms}.
+     */
+    @Scheduled(fixedDelayString = "${tracebit.tail.write-timeout-ms:5000}")
+    public void evictStalled() {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        long now = System.nanoTime();
+        for (Set<TailSubscriber> startupSubscribers : subscribers.values()) {
+            for (TailSubscriber subscriber : startupSubscribers) {
+                if (sender.evictIfStalled(subscriber, timeoutNanos, now)) {
+                    remove(startupSubscribers, subscriber);
+                    evictedTails.increment();
+                    log.debug("Evicted stalled live tail - stalled writes: {}", sender.getStalled());
+                }
+            }
+        }
+    }
+
+    private void remove(Set<TailSubscriber> startupSubscribers, TailSubscriber subscriber) {
+        if (startupSubscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(startupSubscribers -> startupSubscribers.forEach(TailSubscriber::close));
+        sender.shutdownNow();
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements TailSubscriber.Sink {
+
+        @Override
+        public void send(AuditLog log) throws IOException {
+            emitter.send(SseEmitter.event().name("log").id(String.valueOf(log.getId())).data(AuditLogView.of(log)));
+        }
+
+        @Override
+        public void dropped(long count) throws IOException {
+            emitter.send(SseEmitter.event().name("dropped").data(Map.of("count", count)));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.config.RetentionProperties;
+import dev.io.tracebit.repository.RetentionRepository;
+import dev.io.tracebit.service.RetentionService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class RetentionServiceImpl implements RetentionService {
+
+    private static final String PURGE_JOB = "audit-log-retention";
+
+    private final RetentionRepository retentionRepository;
+    private final RetentionProperties properties;
+    private final int retentionDays;
+
+    private Map<PolicyKey, Integer> policies = Map.of();
+    private int partitionRetentionDays;
+
+    public RetentionServiceImpl(RetentionRepository retentionRepository, RetentionProperties properties,
+                                @Value("${tracebit.data.retention-days:90}") int retentionDays) {
+        this.retentionRepository = retentionRepository;
+        this.properties = properties;
+        this.retentionDays = retentionDays;
+    }
+
+    @PostConstruct
+    void loadPolicies() {
+        Map<PolicyKey, Integer> loaded = new HashMap<>();
+        int longest = retentionDays;
+        for (RetentionProperties.Policy policy : properties.getPolicies()) {
+            if ((policy.getStartupId() == null && policy.getAction() == null) || policy.getDays() <= 0) {
+                throw new IllegalStateException("Retention policies need a startup id or an action, and a positive number of days");
+            }
+            loaded.put(PolicyKey.of(policy.getStartupId(), policy.getAction()), policy.getDays());
+            longest = Math.max(longest, policy.getDays());
+        }
+        this.policies = Map.copyOf(loaded);
+        this.partitionRetentionDays = longest;
+        log.info("Loaded {} audit log retention policies, partitions are kept for {} days", policies.size(), partitionRetentionDays);
+        if (partitionRetentionDays > retentionDays) {
+            // Accepted cost of extending retention: the drop can only remove a partition
+            // once its longest-lived rows expire, so every other row goes through the purge.
+            log.warn("Retention policies keep partitions for {} days instead of {}; rows that expire sooner are deleted "
+                    + "row by row by the throttled purge rather than by dropping partitions", partitionRetentionDays, retentionDays);
+        }
+    }
+
+    /**
+     * Returns when a log expires under the most specific matching policy: startup and
+     * action, then startup, then action. Without a match the log expires after
+     * tracebit.data.retention-days, which is left to the partition drop (null) unless
+     * a longer policy keeps partitions past it.
+     */
+    @Override
+    public LocalDateTime resolveExpiry(String startupId, String action, LocalDateTime createdAt) {
+        Integer days = policies.get(PolicyKey.of(startupId, action));
+        if (days == null) {
+            days = policies.get(PolicyKey.of(startupId, null));
+        }
+        if (days == null) {
+            days = policies.get(PolicyKey.of(null, action));
+        }
+        if (days == null && partitionRetentionDays > retentionDays) {
+            days = retentionDays;
+        }
+        return days != null ? createdAt.plusDays(days) : null;
+    }
+
+    @Override
+    public int getPartitionRetentionDays() {
+        return partitionRetentionDays;
+    }
+
+    /**
+     * Deletes expired rows in small id-ordered batches, throttled to the configured
+     * rows-per-second budget. Pauses while replication lag or database load is above
+     * the limits and checkpoints after every batch, so an interrupted run resumes
+     * where it stopped. Runs at 2:30 AM by default, after partition retention.
+     */
+    @Override
+    @Scheduled(cron = "${tracebit.retention.cron:0 30 2 * * ?}")
+    public void purgeExpiredAuditLogs() {
+        if (policies.isEmpty()) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        long deadline = startTime + properties.getMaxRunMs();
+        long checkpoint = retentionRepository.findCheckpoint(PURGE_JOB);
+        long deleted = 0;
+        log.info("Starting audit log retention purge from id {}", checkpoint);
+
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                if (!isDatabaseHealthy()) {
+                    Thread.sleep(properties.getPauseMs());
+                    continue;
+                }
+
+                long batchStart = System.currentTimeMillis();
+                List<Long> ids = retentionRepository.deleteExpiredBatch(
+                        PURGE_JOB, checkpoint, LocalDateTime.now(), properties.getBatchSize());
+
+                if (ids.isEmpty()) {
+                    // Pass complete; the next run starts from the beginning again.
+                    retentionRepository.saveCheckpoint(PURGE_JOB, 0L);
+                    break;
+                }
+
+                checkpoint = ids.stream().mapToLong(Long::longValue).max().getAsLong();
+                deleted += ids.size();
+
+                long budgetMs = ids.size() * 1000L / Math.max(1, properties.getRowsPerSecond());
+                long elapsedMs = System.currentTimeMillis() - batchStart;
+                if (budgetMs > elapsedMs) {
+                    Thread.sleep(budgetMs - elapsedMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Audit log retention purge interrupted at id {}", checkpoint);
+        } catch (Exception e) {
+            log.error("Error purging expired audit logs at id {}", checkpoint, e);
+        }
+
+        log.info("Audit log retention purge deleted {} rows, took: {}ms", deleted, System.currentTimeMillis() - startTime);
+    }
+
+    private boolean isDatabaseHealthy() {
+        long lagMs = retentionRepository.replicationLagMs();
+        if (lagMs > properties.getMaxReplicationLagMs()) {
+            log.info("Pausing retention purge, replication lag is {}ms", lagMs);
+            return false;
+        }
+        int active = retentionRepository.activeConnections();
+        if (active > properties.getMaxActiveConnections()) {
+            log.info("Pausing retention purge, {} active database connections", active);
+            return false;
+        }
+        return true;
+    }
+
+    private record PolicyKey(String startupId, String action) {
+
+        static PolicyKey of(String startupId, String action) {
+            return new PolicyKey(startupId, action != null ? action.toLowerCase(Locale.ROOT) : null);
+        }
+    }
+}
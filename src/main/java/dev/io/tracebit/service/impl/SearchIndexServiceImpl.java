@@ -0,0 +1,294 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.event.AuditLogPersistedEvent;
+import dev.io.tracebit.exception.ServiceUnavailableException;
+import dev.io.tracebit.repository.AuditLogRepository;
+import dev.io.tracebit.search.AuditLogIndex;
+import dev.io.tracebit.security.AttributeEncryptor;
+import dev.io.tracebit.service.AuditLogArchiveService;
+import dev.io.tracebit.service.SearchIndexService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the full-text index in step with ingest. Logs are indexed after their
+ * transaction commits, refreshed into searches every {@code refresh-ms} and committed
+ * to disk every {@code commit-ms}. The index is local to the node, so it is disabled
+ * by default and only sees logs saved by this node.
+ */
+@Slf4j
+@Service
+public class SearchIndexServiceImpl implements SearchIndexService {
+
+    // Covers logs whose async save was still in flight when the last commit started.
+    private static final long RECOVERY_OVERLAP_MINUTES = 5;
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditLogArchiveService auditLogArchiveService;
+    private final AttributeEncryptor encryptor;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @Value("${tracebit.search-index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${tracebit.search-index.dir:data/index}")
+    private String indexDir;
+
+    @Value("${tracebit.search-index.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Value("${tracebit.search-index.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    private AuditLogIndex index;
+
+    public SearchIndexServiceImpl(AuditLogRepository auditLogRepository,
+                                  AuditLogArchiveService auditLogArchiveService,
+                                  AttributeEncryptor encryptor,
+                                  EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager) {
+        this.auditLogRepository = auditLogRepository;
+        this.auditLogArchiveService = auditLogArchiveService;
+        this.encryptor = encryptor;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(Paths.get(indexDir));
+        index = AuditLogIndex.open(Paths.get(indexDir), encryptor.deriveKey("search-index", "AES"));
+        log.info("Opened audit log search index in {}", indexDir);
+    }
+
+    /**
+     * Fills a new index from scratch, or re-indexes what an unclean shutdown may have
+     * lost since the last commit. Runs off the startup thread.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (index == null) {
+            return;
+        }
+        Thread recovery = new Thread(() -> {
+            LocalDateTime lastCommit = index.getLastCommit();
+            if (rebuildOnStartup || index.isEmpty() || lastCommit == null) {
+                rebuild();
+            } else {
+                reindexSince(lastCommit.minusMinutes(RECOVERY_OVERLAP_MINUTES));
+            }
+        }, "search-index-recovery");
+        recovery.setDaemon(true);
+        recovery.start();
+    }
+
+    @TransactionalEventListener
+    public void onAuditLogPersisted(AuditLogPersistedEvent event) {
+        if (index == null) {
+            return;
+        }
+        try {
+            index.index(event.auditLog());
+        } catch (IOException e) {
+            log.error("Error indexing audit log {}", event.auditLog().getId(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tracebit.search-index.refresh-ms:1000}")
+    public void refresh() {
+        if (index == null) {
+            return;
+        }
+        try {
+            index.refresh();
+        } catch (IOException e) {
+            log.error("Error refreshing audit log search index", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tracebit.search-index.commit-ms:60000}")
+    public void commit() {
+        if (index == null) {
+            return;
+        }
+        try {
+            index.commit();
+        } catch (IOException e) {
+            log.error("Error committing audit log search index", e);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return index != null;
+    }
+
+    @Override
+    public AuditLogIndex.Hits search(String q, AuditLogFilter filter, long offset, int limit) {
+        if (index == null) {
+            throw new ServiceUnavailableException("full-text search", "the search index is not enabled");
+        }
+        try {
+            return index.search(q, filter, LocalDateTime.now(), offset, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Re-indexes every log in the database, split into id ranges that are streamed in
+     * parallel, followed by the archive. Documents are replaced by id, so logs indexed
+     * from ingest meanwhile are not duplicated.
+     */
+    @Override
+    public void rebuild() {
+        if (index == null || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        rebuildClaimed();
+    }
+
+    /**
+     * Starts a rebuild in the background, as the operator endpoint does. Returns false if
+     * the index is disabled or a rebuild is already running.
+     */
+    @Override
+    public boolean startRebuild() {
+        if (index == null || !rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread rebuild = new Thread(this::rebuildClaimed, "search-index-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+        return true;
+    }
+
+    @Override
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    private void rebuildClaimed() {
+        ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads);
+        try {
+            long startTime = System.currentTimeMillis();
+            AtomicLong indexed = new AtomicLong();
+            Long minId = auditLogRepository.findMinId();
+            Long maxId = auditLogRepository.findMaxId();
+
+            if (minId != null) {
+                long chunk = Math.max(1, (maxId - minId + rebuildThreads) / rebuildThreads);
+                List<Future<?>> tasks = new ArrayList<>();
+                for (long from = minId; from <= maxId; from += chunk) {
+                    long to = Math.min(from + chunk, maxId + 1);
+                    long rangeStart = from;
+                    tasks.add(executor.submit(() -> readOnlyTransaction.executeWithoutResult(status -> {
+                        try (Stream<AuditLog> rows = auditLogRepository.streamByIdRange(rangeStart, to)) {
+                            rows.forEach(row -> {
+                                indexQuietly(row);
+                                entityManager.detach(row);
+                                indexed.incrementAndGet();
+                            });
+                        }
+                    })));
+                }
+                for (Future<?> task : tasks) {
+                    task.get();
+                }
+            }
+            auditLogArchiveService.scan(AuditLogFilter.builder().build(), row -> {
+                indexQuietly(row);
+                indexed.incrementAndGet();
+            });
+
+            index.commit();
+            index.refresh();
+            log.info("Rebuilt audit log search index with {} logs, took: {}ms", indexed.get(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("Error rebuilding audit log search index", e);
+        } finally {
+            executor.shutdownNow();
+            rebuilding.set(false);
+        }
+    }
+
+    private void reindexSince(LocalDateTime since) {
+        try {
+            long startTime = System.currentTimeMillis();
+            AtomicLong indexed = new AtomicLong();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<AuditLog> rows = auditLogRepository.streamCreatedSince(since)) {
+                    rows.forEach(row -> {
+                        indexQuietly(row);
+                        entityManager.detach(row);
+                        indexed.incrementAndGet();
+                    });
+                }
+            });
+            index.commit();
+            index.refresh();
+            log.info("Re-indexed {} audit logs created since {}, took: {}ms", indexed.get(), since, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("Error re-indexing audit logs created since {}", since, e);
+        }
+    }
+
+    @Override
+    public void deleteCreatedBefore(LocalDateTime cutoff) {
+        if (index == null) {
+            return;
+        }
+        try {
+            index.deleteCreatedBefore(cutoff);
+        } catch (IOException e) {
+            log.error("Error removing audit logs older than {} from the search index", cutoff, e);
+        }
+    }
+
+    private void indexQuietly(AuditLog row) {
+        try {
+            index.index(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (index != null) {
+            index.close();
+        }
+    }
+}
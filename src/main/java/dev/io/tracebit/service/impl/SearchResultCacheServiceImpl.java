@@ -0,0 +1,85 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.cache.SearchResultCache;
+import dev.io.tracebit.cache.SingleFlight;
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.dto.response.ApiResponse;
+import dev.io.tracebit.event.AuditLogPersistedEvent;
+import dev.io.tracebit.service.SearchResultCacheService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Caches search responses for dashboards that poll the same query. Entries are dropped
+ * when a log saved on this node falls into their range, or after {@code ttl-ms}; on a
+ * cluster, logs saved by other nodes show up once the entry expires. Concurrent misses
+ * of the same query share one load.
+ */
+@Slf4j
+@Service
+public class SearchResultCacheServiceImpl implements SearchResultCacheService {
+
+    private static final String CACHE_NAME = "auditLogSearch";
+
+    private final SearchResultCache<ApiResponse> cache;
+    private final SingleFlight<SearchResultCache.Key, ApiResponse> loads;
+
+    public SearchResultCacheServiceImpl(@Value("${tracebit.search-cache.enabled:true}") boolean enabled,
+                                        @Value("${tracebit.search-cache.max-entries:1000}") long maxEntries,
+                                        @Value("${tracebit.search-cache.ttl-ms:5000}") long ttlMs,
+                                        @Value("${tracebit.single-flight.timeout-ms:10000}") long singleFlightTimeoutMs,
+                                        MeterRegistry meterRegistry) {
+        this.cache = enabled ? new SearchResultCache<>(maxEntries, Duration.ofMillis(ttlMs)) : null;
+        this.loads = new SingleFlight<>(Duration.ofMillis(singleFlightTimeoutMs));
+        this.loads.bindTo(meterRegistry, CACHE_NAME);
+        if (enabled) {
+            // Same tag keys as the caches Spring registers, which Prometheus requires.
+            Tags tags = Tags.of("cache.manager", "searchResultCacheService", "name", CACHE_NAME);
+            CaffeineCacheMetrics.monitor(meterRegistry, cache.getCache(), CACHE_NAME, tags);
+            Gauge.builder("cache.hit.ratio", cache, c -> c.getCache().stats().hitRate())
+                    .tag("cache", CACHE_NAME)
+                    .tags(tags)
+                    .description("Share of lookups answered from the cache")
+                    .register(meterRegistry);
+            log.info("Search result cache enabled for {} entries, ttl: {}ms", maxEntries, ttlMs);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onAuditLogPersisted(AuditLogPersistedEvent event) {
+        if (cache != null) {
+            cache.invalidate(event.auditLog());
+        }
+    }
+
+    @Override
+    public ApiResponse get(AuditLogFilter filter, boolean openEnded, int page, int size, Supplier<ApiResponse> loader) {
+        SearchResultCache.Key key = SearchResultCache.Key.of(filter, openEnded, page, size);
+        if (cache == null) {
+            return loads.execute(key, loader);
+        }
+        ApiResponse cached = cache.getCache().getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        // Only the leading request puts its result, so the cache still sees one load to mark stale.
+        return loads.execute(key, () -> cache.get(key, loader));
+    }
+
+    @Override
+    public void invalidateBefore(LocalDateTime cutoff) {
+        if (cache != null) {
+            cache.invalidateBefore(cutoff);
+        }
+    }
+}
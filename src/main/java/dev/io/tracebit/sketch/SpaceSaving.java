@@ -0,0 +1,138 @@
+package dev.io.tracebit.sketch;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Space-Saving stream summary (Metwally et al.) with a fixed number of counters. Any value
+ * seen more than {@code total / capacity} times is guaranteed to be tracked, and each
+ * reported count overestimates the true count by at most its {@code error}.
+ * <p>
+ * Counters are kept in an indexed min-heap, so an update costs O(log capacity) and
+ * memory does not grow with the number of events or distinct values. Not thread-safe.
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private final String[] values;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> positions;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Space-Saving capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.values = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    public void add(String value) {
+        total++;
+        Integer position = positions.get(value);
+        if (position != null) {
+            counts[position]++;
+            siftDown(position);
+        } else if (size < capacity) {
+            values[size] = value;
+            counts[size] = 1;
+            errors[size] = 0;
+            positions.put(value, size);
+            siftUp(size++);
+        } else {
+            // Take over the smallest counter; its count bounds how often the newcomer was missed.
+            positions.remove(values[0]);
+            values[0] = value;
+            errors[0] = counts[0];
+            counts[0]++;
+            positions.put(value, 0);
+            siftDown(0);
+        }
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * The k values with the highest counts, highest first. Keeps only the k best counters
+     * seen so far in a min-heap, so this costs O(capacity log k) rather than a full sort.
+     */
+    public List<Entry> top(int k) {
+        int n = Math.min(Math.max(k, 0), size);
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.max(n, 1), Comparator.comparingLong(i -> counts[i]));
+        for (int i = 0; i < size && n > 0; i++) {
+            if (best.size() < n) {
+                best.add(i);
+            } else if (counts[i] > counts[best.peek()]) {
+                best.poll();
+                best.add(i);
+            }
+        }
+
+        Entry[] top = new Entry[best.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            int position = best.poll();
+            top[i] = new Entry(values[position], counts[position], errors[position]);
+        }
+        return List.of(top);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (counts[parent] <= counts[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String value = values[a];
+        long count = counts[a];
+        long error = errors[a];
+        values[a] = values[b];
+        counts[a] = counts[b];
+        errors[a] = errors[b];
+        values[b] = value;
+        counts[b] = count;
+        errors[b] = error;
+        positions.put(values[a], a);
+        positions.put(values[b], b);
+    }
+
+    /**
+     * A tracked value. The true count lies between {@code count - error} and {@code count}.
+     */
+    public record Entry(String value, long count, long error) {
+    }
+}
@@ -0,0 +1,73 @@
+package dev.io.tracebit.sketch;
+
+import dev.io.tracebit.dto.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Heavy hitters over tumbling windows of one size. Keeps the summary of the window in
+ * progress and of the one before it; anything older is dropped when a window closes.
+ */
+public class TumblingHeavyHitters {
+
+    private final RollupGranularity window;
+    private final int capacity;
+
+    private LocalDateTime currentStart;
+    private SpaceSaving current;
+    private LocalDateTime previousStart;
+    private SpaceSaving previous;
+
+    public TumblingHeavyHitters(RollupGranularity window, int capacity) {
+        this.window = window;
+        this.capacity = capacity;
+    }
+
+    public synchronized void add(String value, LocalDateTime time) {
+        LocalDateTime start = window.truncate(time);
+        roll(start);
+        if (start.equals(currentStart)) {
+            current.add(value);
+        } else if (start.equals(previousStart)) {
+            // Logs saved just after the window closed still count towards it.
+            if (previous == null) {
+                previous = new SpaceSaving(capacity);
+            }
+            previous.add(value);
+        }
+    }
+
+    /**
+     * Top values of the window in progress, or of the last closed window.
+     */
+    public synchronized Snapshot top(int k, LocalDateTime now, boolean closed) {
+        roll(window.truncate(now));
+        LocalDateTime start = closed ? previousStart : currentStart;
+        SpaceSaving summary = closed ? previous : current;
+        if (summary == null) {
+            return new Snapshot(start, 0, List.of());
+        }
+        return new Snapshot(start, summary.getTotal(), summary.top(k));
+    }
+
+    private void roll(LocalDateTime start) {
+        if (currentStart == null) {
+            currentStart = start;
+            current = new SpaceSaving(capacity);
+            previousStart = window.previous(start);
+            return;
+        }
+        if (!start.isAfter(currentStart)) {
+            return;
+        }
+        boolean adjacent = window.previous(start).equals(currentStart);
+        previousStart = window.previous(start);
+        previous = adjacent ? current : null;
+        currentStart = start;
+        current = new SpaceSaving(capacity);
+    }
+
+    public record Snapshot(LocalDateTime windowStart, long total, List<SpaceSaving.Entry> top) {
+    }
+}
@@ -0,0 +1,74 @@
+package dev.io.tracebit.tail;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads that write to live tails. A write to a client that stopped reading blocks
+ * its thread until the container's own write timeout, so a tail whose write has been
+ * blocked for too long is evicted and the pool grows by one thread until that write
+ * returns. The threads left for healthy tails therefore stay at {@code threads}, up to
+ * {@code maxStalled} stalled writes at once.
+ */
+public class TailSenderPool implements Executor {
+
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final int maxStalled;
+    private final AtomicInteger stalled = new AtomicInteger();
+
+    public TailSenderPool(int threads, int maxStalled) {
+        this.threads = threads;
+        this.maxStalled = maxStalled;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "tail-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Evicts the tail if a write to it has been blocked for at least {@code timeoutNanos}
+     * and adds a thread in place of the one it holds.
+     */
+    public boolean evictIfStalled(TailSubscriber subscriber, long timeoutNanos, long nowNanos) {
+        if (!subscriber.evictIfStalled(timeoutNanos, nowNanos, () -> resize(-1))) {
+            return false;
+        }
+        resize(1);
+        return true;
+    }
+
+    /**
+     * Writes blocked on evicted tails.
+     */
+    public int getStalled() {
+        return Math.max(0, stalled.get());
+    }
+
+    public void shutdownNow() {
+        executor.shutdownNow();
+    }
+
+    // The release of a write can run before the eviction that caused it is counted.
+    private synchronized void resize(int delta) {
+        int size = threads + Math.min(Math.max(0, stalled.addAndGet(delta)), maxStalled);
+        if (size > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(size);
+            executor.setCorePoolSize(size);
+        } else {
+            executor.setCorePoolSize(size);
+            executor.setMaximumPoolSize(size);
+        }
+    }
+}
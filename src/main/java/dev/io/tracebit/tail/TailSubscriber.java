@@ -0,0 +1,200 @@
+package dev.io.tracebit.tail;
+
+import dev.io.tracebit.entity.AuditLog;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One live tail. Matching logs are queued in a bounded buffer and written to the sink
+ * by a drain task on the shared executor, so ingest never waits on a client. When the
+ * buffer is full, new logs are dropped and the client is told how many once it has
+ * received the logs that were buffered. A client that stops reading blocks the write
+ * to it; such a tail can be evicted while the write is still blocked.
+ */
+public class TailSubscriber {
+
+    /**
+     * Where a tail writes to; any IOException ends the tail.
+     */
+    public interface Sink {
+        void send(AuditLog log) throws IOException;
+
+        void dropped(long count) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    private final String userId;
+    private final String action;
+    private final String target;
+    private final BlockingQueue<AuditLog> buffer;
+    private final Executor executor;
+    private final Sink sink;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean sinkClosed = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicReference<Runnable> onWriteReturned = new AtomicReference<>();
+    private volatile boolean heartbeatDue;
+    private volatile boolean closed;
+    private volatile boolean writing;
+    private volatile long writeStartedNanos;
+
+    public TailSubscriber(String userId, String action, String target, int bufferSize, Executor executor, Sink sink) {
+        this.userId = normalise(userId);
+        this.action = normalise(action);
+        this.target = normalise(target);
+        this.buffer = new LinkedBlockingQueue<>(bufferSize);
+        this.executor = executor;
+        this.sink = sink;
+    }
+
+    /**
+     * Same partial, case-insensitive matching as the search filters.
+     */
+    public boolean matches(AuditLog log) {
+        return contains(log.getUserId(), userId) && contains(log.getAction(), action) && contains(log.getTarget(), target);
+    }
+
+    /**
+     * Queues the log for delivery; returns false when it was dropped.
+     */
+    public boolean offer(AuditLog log) {
+        boolean queued = buffer.offer(log);
+        if (!queued) {
+            dropped.incrementAndGet();
+        }
+        schedule();
+        return queued;
+    }
+
+    public void heartbeat() {
+        heartbeatDue = true;
+        schedule();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void close() {
+        closed = true;
+        buffer.clear();
+        closeSink();
+    }
+
+    /**
+     * Closes the tail if a write to it has been blocked for at least {@code timeoutNanos}.
+     * The blocked thread cannot be interrupted out of a socket write, so the sink is
+     * closed, and {@code writeReturned} run, on that thread once the write returns.
+     *
+     * @return whether the tail was evicted
+     */
+    public boolean evictIfStalled(long timeoutNanos, long nowNanos, Runnable writeReturned) {
+        if (closed || !writing || nowNanos - writeStartedNanos < timeoutNanos) {
+            return false;
+        }
+        closed = true;
+        buffer.clear();
+        onWriteReturned.set(writeReturned);
+        if (!writing) {
+            // The write returned in the meantime; whoever takes the callback runs it.
+            Runnable returned = onWriteReturned.getAndSet(null);
+            if (returned != null) {
+                returned.run();
+                try {
+                    executor.execute(this::closeSink);
+                } catch (RejectedExecutionException e) {
+                    closeSink();
+                }
+            }
+        }
+        return true;
+    }
+
+    private void schedule() {
+        if (closed || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            scheduled.set(false);
+            close();
+        }
+    }
+
+    private void drain() {
+        try {
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                write(sink::heartbeat);
+            }
+            AuditLog log;
+            while (!closed && (log = buffer.poll()) != null) {
+                AuditLog next = log;
+                write(() -> sink.send(next));
+            }
+            // Logs are dropped while the buffer is full, so the gap follows what it held.
+            long gap = dropped.getAndSet(0);
+            if (gap > 0 && !closed) {
+                write(() -> sink.dropped(gap));
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+        } finally {
+            scheduled.set(false);
+        }
+        if (closed) {
+            closeSink();
+            return;
+        }
+        // Work queued after the last poll but before the flag was cleared.
+        if (!buffer.isEmpty() || heartbeatDue || dropped.get() > 0) {
+            schedule();
+        }
+    }
+
+    private void write(Write write) throws IOException {
+        writeStartedNanos = System.nanoTime();
+        writing = true;
+        try {
+            write.run();
+        } finally {
+            writing = false;
+            Runnable returned = onWriteReturned.getAndSet(null);
+            if (returned != null) {
+                returned.run();
+            }
+        }
+    }
+
+    private void closeSink() {
+        if (sinkClosed.compareAndSet(false, true)) {
+            sink.close();
+        }
+    }
+
+    private static boolean contains(String value, String part) {
+        return part == null || value != null && value.toLowerCase(Locale.ROOT).contains(part);
+    }
+
+    private static String normalise(String value) {
+        return value == null || value.isEmpty() ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    @FunctionalInterface
+    private interface Write {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,28 @@
+-- Baseline schema as previously generated by Hibernate (ddl-auto=update).
+-- IF NOT EXISTS lets existing installations adopt Flyway without changes.
+
+CREATE TABLE IF NOT EXISTS alert_rules (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    active       BOOLEAN      NOT NULL,
+    callback_url VARCHAR(255) NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+    description  VARCHAR(255) NOT NULL,
+    field        VARCHAR(255) NOT NULL CHECK (field IN ('USER_ID', 'ACTION', 'TARGET')),
+    match_type   VARCHAR(255) NOT NULL CHECK (match_type IN ('EXACT', 'CONTAINS', 'REGEX')),
+    name         VARCHAR(255) NOT NULL,
+    pattern      VARCHAR(255) NOT NULL,
+    secret_token VARCHAR(255),
+    startup_id   VARCHAR(255) NOT NULL,
+    updated_at   TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS audit_logs (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    action     VARCHAR(255),
+    created_at TIMESTAMP(6),
+    device     VARCHAR(255),
+    ip         VARCHAR(255),
+    location   VARCHAR(255),
+    target     VARCHAR(255),
+    user_id    VARCHAR(255)
+);
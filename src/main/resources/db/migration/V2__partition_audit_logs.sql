@@ -0,0 +1,45 @@
+-- Range-partitions audit_logs by created_at.
+--
+-- Rows written before partitioning are kept in a single audit_logs_legacy partition
+-- covering everything up to the end of the migration day. AuditLogPartitionService
+-- creates the daily/monthly partitions that follow it and drops partitions once they
+-- fall outside the retention window. audit_logs_default only catches rows that arrive
+-- before a matching partition exists; maintenance moves them out again.
+
+ALTER TABLE audit_logs RENAME TO audit_logs_legacy;
+ALTER TABLE audit_logs_legacy DROP CONSTRAINT audit_logs_pkey;
+ALTER TABLE audit_logs_legacy ALTER COLUMN id DROP IDENTITY IF EXISTS;
+UPDATE audit_logs_legacy SET created_at = LOCALTIMESTAMP WHERE created_at IS NULL;
+ALTER TABLE audit_logs_legacy ALTER COLUMN created_at SET NOT NULL;
+
+CREATE SEQUENCE audit_logs_id_seq;
+SELECT setval('audit_logs_id_seq', COALESCE((SELECT MAX(id) FROM audit_logs_legacy), 0) + 1, false);
+
+CREATE TABLE audit_logs (
+    id         BIGINT       NOT NULL DEFAULT nextval('audit_logs_id_seq'),
+    action     VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    device     VARCHAR(255),
+    ip         VARCHAR(255),
+    location   VARCHAR(255),
+    target     VARCHAR(255),
+    user_id    VARCHAR(255),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE audit_logs_id_seq OWNED BY audit_logs.id;
+
+CREATE TABLE audit_logs_default PARTITION OF audit_logs DEFAULT;
+
+-- Defined on the parent so every partition, current and future, gets its own copy.
+CREATE INDEX idx_audit_logs_created_at ON audit_logs (created_at);
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM audit_logs_legacy) THEN
+        EXECUTE format('ALTER TABLE audit_logs ATTACH PARTITION audit_logs_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                       date_trunc('day', LOCALTIMESTAMP) + INTERVAL '1 day');
+    ELSE
+        DROP TABLE audit_logs_legacy;
+    END IF;
+END $$;
@@ -0,0 +1,12 @@
+-- Per-row expiry stamped at ingest from the matching retention policy. NULL means the
+-- row is kept until its partition falls out of tracebit.data.retention-days.
+ALTER TABLE audit_logs ADD COLUMN expires_at TIMESTAMP(6);
+
+CREATE INDEX idx_audit_logs_expires_at ON audit_logs (expires_at) WHERE expires_at IS NOT NULL;
+
+-- Progress of the chunked retention purge so an interrupted run resumes where it stopped.
+CREATE TABLE retention_checkpoints (
+    job        VARCHAR(100) PRIMARY KEY,
+    last_id    BIGINT       NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
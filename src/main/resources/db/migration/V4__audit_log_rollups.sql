@@ -0,0 +1,12 @@
+-- Pre-aggregated audit log counts per minute, hour and day, overall and per action or
+-- user. value_hash is a keyed hash of the grouped value, so rows can be upserted by it
+-- without storing the value in the clear; value holds the encrypted label for display.
+CREATE TABLE audit_log_rollups (
+    granularity  VARCHAR(16)  NOT NULL,
+    dimension    VARCHAR(16)  NOT NULL,
+    bucket_start TIMESTAMP(6) NOT NULL,
+    value_hash   VARCHAR(64)  NOT NULL,
+    value        VARCHAR(1024),
+    count        BIGINT       NOT NULL,
+    PRIMARY KEY (granularity, dimension, bucket_start, value_hash)
+);
@@ -0,0 +1,17 @@
+-- Makes the startup (tenant) a column of every audit log, taken from the API key at
+-- ingest. Rows written before this migration belong to the default startup, matching
+-- keys configured without one. Adding a column with a constant default does not
+-- rewrite the table.
+ALTER TABLE audit_logs ADD COLUMN startup_id VARCHAR(255) NOT NULL DEFAULT 'default';
+
+-- Tenant-leading index, defined on the parent so every partition gets its own copy.
+-- Searches seek to one startup's rows in the time range and read them in order, so
+-- their cost follows that startup's volume rather than the whole table's.
+CREATE INDEX idx_audit_logs_startup_created_at ON audit_logs (startup_id, created_at, id);
+
+-- Rollups are kept per startup as well.
+ALTER TABLE audit_log_rollups ADD COLUMN startup_id VARCHAR(255) NOT NULL DEFAULT 'default';
+ALTER TABLE audit_log_rollups DROP CONSTRAINT audit_log_rollups_pkey;
+ALTER TABLE audit_log_rollups ADD PRIMARY KEY (startup_id, granularity, dimension, bucket_start, value_hash);
+
+CREATE INDEX IF NOT EXISTS idx_alert_rules_startup_active ON alert_rules (startup_id, active);
@@ -0,0 +1,13 @@
+-- Commit-ordered change feed. Ids are handed out before commit, so a row with a lower
+-- id can become visible after one with a higher id; ordering by id alone would let a
+-- consumer skip it. Every row instead records the transaction that inserted it, and
+-- the feed only serves rows whose transaction is older than the oldest transaction
+-- still running (pg_snapshot_xmin), in (tx_id, id) order. Those rows are all committed,
+-- so nothing can appear behind a consumer's cursor later.
+--
+-- The default is set after the column is added so existing rows are not rewritten;
+-- they keep a NULL tx_id and are served first, in id order.
+ALTER TABLE audit_logs ADD COLUMN tx_id BIGINT;
+ALTER TABLE audit_logs ALTER COLUMN tx_id SET DEFAULT pg_current_xact_id()::text::bigint;
+
+CREATE INDEX idx_audit_logs_startup_tx_id ON audit_logs (startup_id, tx_id, id);
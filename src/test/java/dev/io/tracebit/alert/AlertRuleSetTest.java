@@ -0,0 +1,61 @@
+package dev.io.tracebit.alert;
+
+import dev.io.tracebit.dto.MatchField;
+import dev.io.tracebit.dto.MatchType;
+import dev.io.tracebit.entity.AlertRule;
+import dev.io.tracebit.entity.AuditLog;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertRuleSetTest {
+
+    @Test
+    void matchesTheRulesOfTheLogsStartup() {
+        AlertRuleSet set = AlertRuleSet.of(List.of(
+                rule(1L, "acme", MatchField.ACTION, MatchType.EXACT, "LOGIN_FAILED", true),
+                rule(2L, "acme", MatchField.TARGET, MatchType.CONTAINS, "Invoice", true),
+                rule(3L, "acme", MatchField.USER_ID, MatchType.REGEX, "admin_\\d+", true),
+                rule(4L, "acme", MatchField.USER_ID, MatchType.REGEX, "admin", true),
+                rule(5L, "globex", MatchField.ACTION, MatchType.EXACT, "login_failed", true),
+                rule(6L, "acme", MatchField.ACTION, MatchType.EXACT, "login_failed", false),
+                rule(7L, "acme", MatchField.ACTION, MatchType.REGEX, "([", true)));
+
+        assertEquals(5, set.size());
+        assertEquals(List.of(1L, 2L, 3L), ids(set.matching(log("acme", "admin_42", "login_failed", "billing/INVOICE-7"))));
+        assertEquals(List.of(), ids(set.matching(log("acme", "admin_x", "login", null))));
+        assertEquals(List.of(5L), ids(set.matching(log("globex", "admin_42", "Login_Failed", "invoice"))));
+        assertEquals(List.of(), ids(set.matching(log("initech", "admin_42", "login_failed", "invoice"))));
+    }
+
+    @Test
+    void changesProduceNewSetsAndLeaveTheOldOneAlone() {
+        AlertRuleSet before = AlertRuleSet.of(List.of(rule(1L, "acme", MatchField.ACTION, MatchType.EXACT, "login", true)));
+        AuditLog login = log("acme", "u1", "login", "t");
+
+        AlertRuleSet updated = before.with(rule(1L, "acme", MatchField.ACTION, MatchType.EXACT, "logout", true));
+        assertEquals(List.of(1L), ids(before.matching(login)));
+        assertEquals(List.of(), ids(updated.matching(login)));
+
+        AlertRuleSet added = updated.with(rule(2L, "acme", MatchField.ACTION, MatchType.CONTAINS, "LOG", true));
+        assertEquals(List.of(1L, 2L), ids(added.matching(log("acme", "u1", "logout", "t"))));
+        assertEquals(1, added.with(rule(2L, "acme", MatchField.ACTION, MatchType.CONTAINS, "log", false)).size());
+        assertEquals(1, added.without(1L).size());
+        assertSame(added, added.without(99L));
+    }
+
+    private static AlertRule rule(Long id, String startupId, MatchField field, MatchType matchType, String pattern, boolean active) {
+        return AlertRule.builder().id(id).name("rule " + id).startupId(startupId).field(field).matchType(matchType)
+                .pattern(pattern).callbackUrl("https://hooks.example.com/" + id).active(active).build();
+    }
+
+    private static AuditLog log(String startupId, String userId, String action, String target) {
+        return AuditLog.builder().startupId(startupId).userId(userId).action(action).target(target).build();
+    }
+
+    private static List<Long> ids(List<AlertRuleSet.Rule> rules) {
+        return rules.stream().map(AlertRuleSet.Rule::id).toList();
+    }
+}
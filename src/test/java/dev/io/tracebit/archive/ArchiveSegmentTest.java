@@ -0,0 +1,78 @@
+package dev.io.tracebit.archive;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.entity.MetaData;
+import dev.io.tracebit.security.AttributeEncryptor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveSegmentTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0, 0, 123_456_000);
+
+    private final AttributeEncryptor encryptor = new AttributeEncryptor("archive-test-key");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsRowsAndIndex() throws Exception {
+        Path file = writeSegment(2500, 1000);
+
+        ArchiveSegment segment = ArchiveSegment.open(file, encryptor);
+
+        assertEquals(2500, segment.getRowCount());
+        assertEquals(1, segment.getMinId());
+        assertEquals(2500, segment.getMaxId());
+        assertEquals(3, segment.getBlocks().size());
+        assertEquals(START, segment.getMinCreatedAt());
+        assertEquals(START.plusMinutes(2499), segment.getMaxCreatedAt());
+
+        AuditLog log = segment.findById(1234).orElseThrow();
+        assertEquals("acme", log.getStartupId());
+        assertEquals("user_1234", log.getUserId());
+        assertEquals("login", log.getAction());
+        assertEquals(START.plusMinutes(1233), log.getCreatedAt());
+        assertNull(log.getMeta().getLocation());
+        assertTrue(segment.findById(2501).isEmpty());
+    }
+
+    @Test
+    void blockStatisticsRuleOutNonMatchingRanges() throws Exception {
+        ArchiveSegment segment = ArchiveSegment.open(writeSegment(2500, 1000), encryptor);
+
+        AuditLogFilter firstBlockOnly = AuditLogFilter.builder()
+                .from(START.plusMinutes(10)).to(START.plusMinutes(20)).build();
+        List<ArchiveBlock> matching = segment.getBlocks().stream().filter(block -> block.overlaps(firstBlockOnly)).toList();
+
+        assertEquals(1, matching.size());
+        assertEquals(1, matching.get(0).minId());
+        assertFalse(segment.overlaps(AuditLogFilter.builder().from(START.plusYears(1)).build()));
+    }
+
+    private Path writeSegment(int rows, int blockRows) throws Exception {
+        Path file = dir.resolve("test.seg");
+        try (ArchiveSegmentWriter writer = new ArchiveSegmentWriter(file, encryptor, blockRows)) {
+            for (long id = 1; id <= rows; id++) {
+                writer.append(AuditLog.builder()
+                        .id(id)
+                        .startupId("acme")
+                        .userId("user_" + id)
+                        .action("login")
+                        .target("account")
+                        .meta(MetaData.builder().ip("15.12.45.22").device("Mac OS - Chrome").build())
+                        .createdAt(START.plusMinutes(id - 1))
+                        .build());
+            }
+            writer.finish(START.plusYears(1));
+        }
+        return file;
+    }
+}
@@ -0,0 +1,63 @@
+package dev.io.tracebit.cache;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchResultCacheTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    void newLogsOnlyInvalidateMatchingQueries() {
+        SearchResultCache<String> cache = new SearchResultCache<>(100, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        SearchResultCache.Key closed = key("", "", START, START.plusHours(1), false);
+        SearchResultCache.Key open = key("", "", START, START.plusHours(2), true);
+        SearchResultCache.Key logins = key("", "LOGIN", START, START.plusHours(2), true);
+
+        for (SearchResultCache.Key key : new SearchResultCache.Key[]{closed, open, logins, closed, open, logins}) {
+            cache.get(key, () -> "result_" + loads.incrementAndGet());
+        }
+        assertEquals(3, loads.get());
+        assertEquals(key("", null, START, START, true), key(null, "", START, START.plusDays(1), true));
+
+        cache.invalidate(log("logout", START.plusHours(3)));
+
+        assertEquals("result_1", cache.get(closed, () -> "reloaded"));
+        assertEquals("result_3", cache.get(logins, () -> "reloaded"));
+        assertEquals("reloaded", cache.get(open, () -> "reloaded"));
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotKept() {
+        SearchResultCache<String> cache = new SearchResultCache<>(100, Duration.ofMinutes(1));
+        SearchResultCache.Key key = key("", "", START, START.plusHours(1), false);
+
+        String first = cache.get(key, () -> {
+            cache.invalidate(log("login", START.plusMinutes(5)));
+            return "stale";
+        });
+
+        assertEquals("stale", first);
+        assertEquals("fresh", cache.get(key, () -> "fresh"));
+
+        cache.invalidateBefore(START.plusMinutes(1));
+        assertEquals("after purge", cache.get(key, () -> "after purge"));
+    }
+
+    private static SearchResultCache.Key key(String userId, String action, LocalDateTime from, LocalDateTime to, boolean openEnded) {
+        AuditLogFilter filter = AuditLogFilter.builder().userId(userId).action(action).from(from).to(to).build();
+        return SearchResultCache.Key.of(filter, openEnded, 0, 20);
+    }
+
+    private static AuditLog log(String action, LocalDateTime createdAt) {
+        return AuditLog.builder().id(1L).userId("user_1").action(action).createdAt(createdAt).build();
+    }
+}
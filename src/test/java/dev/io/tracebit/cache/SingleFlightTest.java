@@ -0,0 +1,86 @@
+package dev.io.tracebit.cache;
+
+import dev.io.tracebit.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallsForTheSameKeyShareOneLoad() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> flight.execute("log:42", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "result_" + loads.get();
+                })));
+            }
+            while (loads.get() == 0) {
+                Thread.onSpinWait();
+            }
+            // Lets the other callers join the load before it finishes.
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("result_1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(7, flight.getCoalesced());
+            assertEquals("result_2", flight.execute("log:42", () -> "result_" + loads.incrementAndGet()));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void waitersGiveUpAtTheDeadlineAndLaterCallsStartOver() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(Duration.ofMillis(200));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stuck = executor.submit(() -> flight.execute("search", () -> {
+                started.countDown();
+                await(release);
+                return "late";
+            }));
+            started.await();
+
+            assertThrows(ServiceUnavailableException.class, () -> flight.execute("search", () -> "unused"));
+            assertEquals("fresh", flight.execute("search", () -> "fresh"));
+
+            release.countDown();
+            assertEquals("late", stuck.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
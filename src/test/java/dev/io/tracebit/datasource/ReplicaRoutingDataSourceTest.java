@@ -0,0 +1,85 @@
+package dev.io.tracebit.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void readOnlyTransactionsRotateOverHealthyReplicas() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        Connection first = replicaConnection(0);
+        Connection second = replicaConnection(60_000);
+        ReplicaRoutingDataSource routing = routing(first, second);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(primaryConnection, routing.getConnection());
+
+        routing.checkReplicas();
+        assertSame(first, routing.getConnection());
+        assertSame(first, routing.getConnection());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenReplicaRefusesConnections() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        Connection replicaConnection = replicaConnection(0);
+        ReplicaRoutingDataSource routing = routing(replicaConnection);
+        routing.checkReplicas();
+
+        DataSource replica = (DataSource) routing.getResolvedDataSources().get("replica-0");
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(primaryConnection, routing.getConnection());
+        assertSame(primaryConnection, routing.getConnection());
+        verify(replica, times(2)).getConnection();
+    }
+
+    private ReplicaRoutingDataSource routing(Connection... replicaConnections) throws SQLException {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (Connection connection : replicaConnections) {
+            DataSource replica = mock(DataSource.class);
+            when(replica.getConnection()).thenReturn(connection);
+            replicas.put("replica-" + replicas.size(), replica);
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas, 10_000);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    private static Connection replicaConnection(long lagMs) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getLong(1)).thenReturn(lagMs);
+        return connection;
+    }
+}
@@ -0,0 +1,76 @@
+package dev.io.tracebit.export;
+
+import dev.io.tracebit.dto.response.AuditLogView;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.LocalInputFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogParquetWriterTest {
+
+    private static final String[] ACTIONS = {"login", "logout", "update_profile", "delete_item"};
+    private static final String[] DEVICES = {"Chrome", "Firefox", "Safari"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesEveryRowInRowGroupsWithDictionaryEncodedStrings() throws Exception {
+        Path file = write("zstd", 64 * 1024, 20_000);
+
+        try (ParquetFileReader reader = new ParquetFileReader(new LocalInputFile(file),
+                ParquetReadOptions.builder(new PlainParquetConfiguration()).build())) {
+            ParquetMetadata footer = reader.getFooter();
+            assertEquals(AuditLogParquetWriter.SCHEMA, footer.getFileMetaData().getSchema());
+            assertEquals(20_000, reader.getRecordCount());
+            assertTrue(footer.getBlocks().size() > 1, "a small row group size should split the file");
+
+            for (BlockMetaData block : footer.getBlocks()) {
+                for (ColumnChunkMetaData column : block.getColumns()) {
+                    assertEquals(CompressionCodecName.ZSTD, column.getCodec());
+                    String name = column.getPath().toDotString();
+                    if (name.equals("action") || name.equals("device")) {
+                        assertTrue(column.getEncodingStats().hasDictionaryEncodedPages(), name);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void compressedColumnsAreSmallerThanTheSameRowsUncompressed() throws Exception {
+        long zstd = Files.size(write("zstd", 1024 * 1024, 20_000));
+        long snappy = Files.size(write("snappy", 1024 * 1024, 20_000));
+        long none = Files.size(write("none", 1024 * 1024, 20_000));
+
+        assertTrue(zstd < none && snappy < none, "zstd " + zstd + ", snappy " + snappy + ", none " + none);
+        assertThrows(IllegalArgumentException.class, () -> AuditLogParquetWriter.codecName("lzo"));
+    }
+
+    private Path write(String codec, long rowGroupSize, int rows) throws Exception {
+        Path file = dir.resolve(codec + "-" + rowGroupSize + ".parquet");
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        try (OutputStream out = Files.newOutputStream(file);
+             AuditLogParquetWriter writer = AuditLogParquetWriter.open(out, codec, rowGroupSize)) {
+            for (int i = 0; i < rows; i++) {
+                AuditLogView.Meta meta = new AuditLogView.Meta("10.0.0." + (i % 50), DEVICES[i % DEVICES.length], i % 7 == 0 ? null : "Lagos");
+                writer.write(new AuditLogView((long) i, "acme", "user_" + (i % 200), ACTIONS[i % ACTIONS.length],
+                        "item_" + i, meta, start.plusSeconds(i), null));
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,29 @@
+package dev.io.tracebit.export;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangeTest {
+
+    @Test
+    void parsesSingleRangesClampedToTheFile() {
+        assertEquals(new ByteRange(100, 199), ByteRange.parse("bytes=100-199", 1000));
+        assertEquals(new ByteRange(900, 999), ByteRange.parse("bytes=900-", 1000));
+        assertEquals(new ByteRange(950, 999), ByteRange.parse("bytes=-50", 1000));
+        assertEquals(new ByteRange(0, 999), ByteRange.parse("bytes=-5000", 1000));
+        assertEquals(new ByteRange(990, 999), ByteRange.parse("bytes=990-5000", 1000));
+        assertEquals(100, ByteRange.parse("bytes=100-199", 1000).length());
+        assertTrue(ByteRange.parse("bytes=0-0", 1000).isSatisfiable(1000));
+    }
+
+    @Test
+    void ignoresMalformedAndMultipleRangesAndFlagsRangesPastTheEnd() {
+        for (String header : new String[]{null, "items=0-1", "bytes=5-1", "bytes=a-b", "bytes=0-1,5-6", "bytes=7"}) {
+            assertNull(ByteRange.parse(header, 1000), header);
+        }
+        assertFalse(ByteRange.parse("bytes=1000-", 1000).isSatisfiable(1000));
+        assertFalse(ByteRange.parse("bytes=-0", 1000).isSatisfiable(1000));
+        assertFalse(ByteRange.parse("bytes=0-", 0).isSatisfiable(0));
+    }
+}
@@ -0,0 +1,113 @@
+package dev.io.tracebit.export;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures what each export compression costs in CPU and saves in transfer time, on a
+ * CSV export shaped like real audit logs. The compressor streams, so it overlaps with
+ * the transfer and an export takes roughly the longer of the two. Only runs with
+ * {@code -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExportCompressionBenchmarkTest {
+
+    private static final int ROWS = 250_000;
+    private static final int ITERATIONS = 5;
+    private static final int WRITE_CHUNK_BYTES = 8 * 1024;
+    private static final long[] LINKS_MBIT = {100, 1_000};
+
+    private static final String[] ACTIONS = {"login", "logout", "update_profile", "delete_item", "view_report", "export_data"};
+    private static final String[] DEVICES = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) Chrome/124.0", "Mozilla/5.0 (Macintosh; Intel Mac OS X 14_4) Safari/605.1",
+            "Mozilla/5.0 (X11; Linux x86_64) Firefox/125.0", "okhttp/4.12.0"};
+    private static final String[] LOCATIONS = {"Lagos, NG", "Berlin, DE", "Austin, US", "Bangalore, IN", ""};
+
+    private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void csvExport() throws IOException {
+        byte[] csv = csv();
+        System.out.printf("CSV export: %d rows, %.1f MB%n", ROWS, csv.length / 1e6);
+        System.out.printf("%-6s %10s %7s %10s %10s", "coding", "bytes", "ratio", "cpu ms", "MB/s cpu");
+        for (long link : LINKS_MBIT) {
+            System.out.printf(" %14s", "total @" + link + "Mb");
+        }
+        System.out.println();
+
+        for (ExportCompression compression : ExportCompression.values()) {
+            compress(compression, csv);
+            long bytes = 0;
+            long cpuNanos = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long cpuBefore = threads.getCurrentThreadCpuTime();
+                bytes = compress(compression, csv);
+                cpuNanos += threads.getCurrentThreadCpuTime() - cpuBefore;
+            }
+            double cpuMs = cpuNanos / 1e6 / ITERATIONS;
+            System.out.printf("%-6s %10d %6.1fx %10.1f %10.0f", compression.name().toLowerCase(), bytes,
+                    (double) csv.length / bytes, cpuMs, csv.length / 1e6 / (cpuMs / 1000));
+            for (long link : LINKS_MBIT) {
+                double transferMs = bytes * 8.0 / (link * 1e6) * 1000;
+                System.out.printf(" %11.0f ms", Math.max(transferMs, cpuMs));
+            }
+            System.out.println();
+            if (compression != ExportCompression.NONE) {
+                assertTrue(bytes * 2L < csv.length, compression + " should shrink the export");
+            }
+        }
+    }
+
+    private static long compress(ExportCompression compression, byte[] csv) throws IOException {
+        CountingOutputStream sink = new CountingOutputStream();
+        try (OutputStream out = compression.wrap(sink)) {
+            for (int offset = 0; offset < csv.length; offset += WRITE_CHUNK_BYTES) {
+                out.write(csv, offset, Math.min(WRITE_CHUNK_BYTES, csv.length - offset));
+            }
+        }
+        return sink.count;
+    }
+
+    private static byte[] csv() {
+        Random random = new Random(42);
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 0, 0);
+        StringBuilder csv = new StringBuilder("User ID,Action,Target,IP,Device,Location,Created At\r\n");
+        for (int i = 0; i < ROWS; i++) {
+            createdAt = createdAt.plusNanos(random.nextInt(20_000_000) * 1000L);
+            csv.append("user_").append(random.nextInt(5_000)).append(',')
+                    .append(ACTIONS[random.nextInt(ACTIONS.length)]).append(',')
+                    .append("document/").append(new UUID(random.nextLong(), random.nextLong())).append(',')
+                    .append(random.nextInt(256)).append('.').append(random.nextInt(256)).append(".0.").append(random.nextInt(256)).append(',')
+                    .append('"').append(DEVICES[random.nextInt(DEVICES.length)]).append('"').append(',')
+                    .append('"').append(LOCATIONS[random.nextInt(LOCATIONS.length)]).append('"').append(',')
+                    .append(createdAt).append("\r\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
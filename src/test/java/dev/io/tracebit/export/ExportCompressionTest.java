@@ -0,0 +1,59 @@
+package dev.io.tracebit.export;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportCompressionTest {
+
+    @Test
+    void prefersTheParameterThenTheBestAcceptedCoding() {
+        assertEquals(ExportCompression.NONE, ExportCompression.negotiate(null, null));
+        assertEquals(ExportCompression.GZIP, ExportCompression.negotiate(null, "gzip, deflate, br"));
+        assertEquals(ExportCompression.ZSTD, ExportCompression.negotiate(null, "gzip, deflate, br, zstd"));
+        assertEquals(ExportCompression.GZIP, ExportCompression.negotiate(null, "zstd;q=0.5, gzip"));
+        assertEquals(ExportCompression.NONE, ExportCompression.negotiate(null, "gzip;q=0, identity"));
+        assertEquals(ExportCompression.GZIP, ExportCompression.negotiate(null, "*"));
+        assertEquals(ExportCompression.NONE, ExportCompression.negotiate("none", "gzip, zstd"));
+        assertEquals(ExportCompression.ZSTD, ExportCompression.negotiate("ZSTD", null));
+        assertThrows(IllegalArgumentException.class, () -> ExportCompression.negotiate("brotli", null));
+    }
+
+    @Test
+    void compressesWhileStreamingAndRoundTrips() throws Exception {
+        StringBuilder csv = new StringBuilder("User ID,Action,Target,IP,Device,Location,Created At\n");
+        for (int i = 0; i < 10_000; i++) {
+            csv.append("user_").append(i % 100).append(",login,invoice_").append(i).append(",8.8.8.8,Chrome,Lagos,2025-01-01T00:00:")
+                    .append(i % 60).append('\n');
+        }
+        byte[] raw = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        for (ExportCompression compression : ExportCompression.values()) {
+            ByteArrayOutputStream sink = new ByteArrayOutputStream();
+            try (OutputStream out = compression.wrap(sink)) {
+                for (int offset = 0; offset < raw.length; offset += 4096) {
+                    out.write(raw, offset, Math.min(4096, raw.length - offset));
+                }
+            }
+            byte[] written = sink.toByteArray();
+            try (InputStream in = switch (compression) {
+                case NONE -> new ByteArrayInputStream(written);
+                case GZIP -> new GZIPInputStream(new ByteArrayInputStream(written));
+                case ZSTD -> new ZstdInputStream(new ByteArrayInputStream(written));
+            }) {
+                assertArrayEquals(raw, in.readAllBytes(), compression.name());
+            }
+            if (compression != ExportCompression.NONE) {
+                assertTrue(written.length * 5L < raw.length, compression + " wrote " + written.length + " of " + raw.length);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package dev.io.tracebit.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportJobTest {
+
+    @Test
+    void fileIsKeptWhileDownloadingAndDownloadsAreRefusedOnceDeleted() {
+        ExportJob job = new ExportJob(new ExportJob.Key("acme", "csv", ExportCompression.NONE, null, null, null, null), null);
+        LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+        LocalDateTime future = LocalDateTime.now().plusMinutes(1);
+
+        assertTrue(job.startDownload());
+        assertFalse(job.markDeleted(future));
+        job.finishDownload();
+        // Recently started, as a sendfile download that has not opened the file yet.
+        assertFalse(job.markDeleted(past));
+        assertTrue(job.markDeleted(future));
+        assertFalse(job.startDownload());
+    }
+}
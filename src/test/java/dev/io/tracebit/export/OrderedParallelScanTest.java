@@ -0,0 +1,102 @@
+package dev.io.tracebit.export;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderedParallelScanTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void mergesPartsInOrderWithMorePartsThanWorkers() {
+        OrderedParallelScan<Integer> scan = new OrderedParallelScan<>(executor, 16, 2);
+        List<OrderedParallelScan.Part<Integer>> parts = new ArrayList<>();
+        for (int p = 0; p < 12; p++) {
+            int start = p * 1000;
+            parts.add(sink -> {
+                for (int i = start; i < start + 1000; i++) {
+                    if (i % 100 == 0) {
+                        Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+                    }
+                    sink.accept(i);
+                }
+            });
+        }
+        parts.add(sink -> { });
+
+        List<Integer> rows = new ArrayList<>();
+        scan.forEach(parts, rows::add);
+
+        assertEquals(12_000, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(i, rows.get(i));
+        }
+    }
+
+    @Test
+    void runsAtMostParallelismPartsAtOnce() {
+        OrderedParallelScan<Integer> scan = new OrderedParallelScan<>(executor, 4, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        List<OrderedParallelScan.Part<Integer>> parts = new ArrayList<>();
+        for (int p = 0; p < 8; p++) {
+            int value = p;
+            parts.add(sink -> {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                running.decrementAndGet();
+                sink.accept(value);
+            });
+        }
+
+        List<Integer> rows = new ArrayList<>();
+        scan.forEach(parts, 2, rows::add);
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), rows);
+        assertEquals(2, mostRunning.get());
+    }
+
+    @Test
+    void rethrowsPartFailuresAndStopsTheOtherPartsWhenTheConsumerFails() throws Exception {
+        OrderedParallelScan<Integer> scan = new OrderedParallelScan<>(executor, 4, 1);
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> scan.forEach(List.of(
+                sink -> sink.accept(1),
+                sink -> { throw new IllegalStateException("range failed"); }), row -> { }));
+        assertEquals("range failed", failure.getMessage());
+
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger stopped = new AtomicInteger();
+        OrderedParallelScan.Part<Integer> endless = sink -> {
+            started.incrementAndGet();
+            try {
+                while (true) {
+                    sink.accept(0);
+                }
+            } finally {
+                stopped.incrementAndGet();
+            }
+        };
+        assertThrows(IllegalArgumentException.class, () -> scan.forEach(List.of(endless, endless, endless), row -> {
+            throw new IllegalArgumentException("client went away");
+        }));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(started.get() > 0);
+        assertEquals(started.get(), stopped.get());
+    }
+}
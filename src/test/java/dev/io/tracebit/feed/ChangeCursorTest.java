@@ -0,0 +1,27 @@
+package dev.io.tracebit.feed;
+
+import dev.io.tracebit.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeCursorTest {
+
+    @Test
+    void parsesItsOwnTextFormAndStartsFromTheBeginningWithoutOne() {
+        ChangeCursor cursor = new ChangeCursor(7812, 42);
+
+        assertEquals(cursor, ChangeCursor.parse(cursor.toString()));
+        assertEquals(ChangeCursor.START, ChangeCursor.parse(null));
+        assertEquals(ChangeCursor.START, ChangeCursor.parse(" "));
+        assertTrue(ChangeCursor.START.isLegacy());
+        assertFalse(cursor.isLegacy());
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        for (String value : new String[]{"42", "a.b", "1.", ".1", "-1.5", "1.2.3"}) {
+            assertThrows(ValidationException.class, () -> ChangeCursor.parse(value), value);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package dev.io.tracebit.hot;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.entity.MetaData;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotWindowTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    void searchesNewestFirstWithFilters() {
+        HotWindow window = new HotWindow(100, START);
+        for (int i = 1; i <= 10; i++) {
+            window.append(log(i, i % 2 == 0 ? "login" : "logout"));
+        }
+        AuditLog otherStartup = log(11, "login");
+        otherStartup.setStartupId("globex");
+        window.append(otherStartup);
+
+        AuditLogFilter filter = AuditLogFilter.builder().startupId("acme").action("LOGIN").from(START).build();
+        HotWindow.Result result = window.search(filter, START.plusDays(1), 1, 2);
+
+        assertEquals(5, result.total());
+        assertEquals(List.of(8L, 6L), result.logs().stream().map(AuditLog::getId).toList());
+        assertEquals("device_8", result.logs().get(0).getMeta().getDevice());
+        assertEquals("acme", result.logs().get(0).getStartupId());
+        assertEquals(Map.of("login", 5L, "logout", 5L),
+                window.countByAction(AuditLogFilter.builder().startupId("acme").from(START).build(), START.plusDays(1)));
+        assertEquals(0, window.search(filter.toBuilder().startupId("initech").build(), START.plusDays(1), 0, 10).total());
+    }
+
+    @Test
+    void evictionNarrowsCoverage() {
+        HotWindow window = new HotWindow(4, START);
+        for (int i = 1; i <= 1000; i++) {
+            window.append(log(i, "action_" + i));
+        }
+
+        assertEquals(4, window.size());
+        assertFalse(window.covers(AuditLogFilter.builder().from(START.plusMinutes(996)).build()));
+        assertTrue(window.covers(AuditLogFilter.builder().from(START.plusMinutes(997)).build()));
+        assertFalse(window.covers(AuditLogFilter.builder().from(LocalDateTime.MIN).build()));
+
+        List<AuditLog> logs = window.list(AuditLogFilter.builder().from(START).build(), START.plusDays(1));
+        assertEquals(List.of(997L, 998L, 999L, 1000L), logs.stream().map(AuditLog::getId).toList());
+        assertEquals("action_1000", logs.get(3).getAction());
+    }
+
+    private static AuditLog log(long id, String action) {
+        return AuditLog.builder()
+                .id(id)
+                .startupId("acme")
+                .userId("user_" + id)
+                .action(action)
+                .target("invoice_" + id)
+                .meta(MetaData.builder().ip("10.0.0.1").device("device_" + id).build())
+                .createdAt(START.plusMinutes(id))
+                .build();
+    }
+}
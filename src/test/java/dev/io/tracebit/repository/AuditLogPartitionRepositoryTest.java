@@ -0,0 +1,83 @@
+package dev.io.tracebit.repository;
+
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.entity.MetaData;
+import dev.io.tracebit.repository.AuditLogPartitionRepository.Partition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the database, on a range far beyond any partition maintenance creates.
+ */
+@SpringBootTest
+class AuditLogPartitionRepositoryTest {
+
+    private static final String NAME = "audit_logs_p21000101";
+    private static final LocalDateTime FROM = LocalDateTime.of(2100, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2100, 2, 1, 0, 0);
+
+    @Autowired
+    private AuditLogPartitionRepository partitionRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + NAME);
+        jdbcTemplate.update("DELETE FROM audit_logs_default WHERE created_at >= ? AND created_at < ?", FROM, TO);
+    }
+
+    @Test
+    void createMovesRowsOutOfTheDefaultPartitionAndDropRemovesThem() {
+        Long id = auditLogRepository.save(AuditLog.builder()
+                .startupId("partition-test")
+                .userId("user_1")
+                .action("login")
+                .target("dashboard")
+                .meta(new MetaData("8.8.8.8", "Mozilla/5.0 (X11; Linux x86_64)", "US"))
+                .createdAt(FROM.plusDays(14))
+                .build()).getId();
+        assertEquals(1, count("audit_logs_default", id));
+
+        partitionRepository.createPartition(NAME, FROM, TO);
+
+        assertTrue(partitionRepository.findRangePartitions().contains(new Partition(NAME, FROM, TO)));
+        assertEquals(0, count("audit_logs_default", id));
+        assertEquals(1, count(NAME, id));
+        assertTrue(auditLogRepository.existsById(id));
+
+        partitionRepository.dropPartition(NAME);
+
+        assertTrue(partitionRepository.findRangePartitions().stream().noneMatch(partition -> partition.name().equals(NAME)));
+        assertFalse(auditLogRepository.existsById(id));
+    }
+
+    @Test
+    void runLockedLetsOneJobRunAtATime() {
+        AtomicBoolean nestedRan = new AtomicBoolean();
+        // The nested call takes a connection of its own, as another node would.
+        assertTrue(partitionRepository.runLocked("partition-test-lock",
+                () -> assertFalse(partitionRepository.runLocked("partition-test-lock", () -> nestedRan.set(true)))));
+        assertFalse(nestedRan.get());
+
+        assertTrue(partitionRepository.runLocked("partition-test-lock", () -> nestedRan.set(true)));
+        assertTrue(nestedRan.get());
+    }
+
+    private int count(String table, long id) {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + " WHERE id = ?", Integer.class, id);
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,132 @@
+package dev.io.tracebit.repository;
+
+import com.sun.management.ThreadMXBean;
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.entity.MetaData;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the JPA entity read path with {@link AuditLogReadRepository} on latency and
+ * bytes allocated per request. Needs the database, so it only runs with
+ * {@code -Dbenchmark=true}.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AuditLogReadBenchmarkTest {
+
+    private static final int ROWS = 5_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int ITERATIONS = 200;
+    private static final String STARTUP_ID = "benchmark";
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private AuditLogReadRepository auditLogReadRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<Long> ids = new ArrayList<>();
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeAll
+    void seed() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        LocalDateTime now = LocalDateTime.now();
+        List<AuditLog> logs = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            logs.add(AuditLog.builder()
+                    .startupId(STARTUP_ID)
+                    .userId("bench_user_" + (i % 50))
+                    .action("bench.action." + (i % 10))
+                    .target("document/" + i)
+                    .meta(new MetaData("8.8.8.8", "Mozilla/5.0 (X11; Linux x86_64)", "US"))
+                    .createdAt(now.minusSeconds(i))
+                    .expiresAt(now.plusDays(30))
+                    .build());
+        }
+        auditLogRepository.saveAll(logs).forEach(log -> ids.add(log.getId()));
+    }
+
+    @AfterAll
+    void cleanUp() {
+        auditLogRepository.deleteAllById(ids);
+    }
+
+    @Test
+    void pageOfLogs() {
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+        AuditLogFilter filter = AuditLogFilter.builder().startupId(STARTUP_ID).build();
+
+        Result jpa = measure("JPA page", () -> readOnlyTransaction.execute(status -> {
+            int size = auditLogRepository.findAll(PageRequest.of(0, PAGE_SIZE, newestFirst)).getContent().size();
+            entityManager.clear();
+            return size;
+        }));
+        Result jdbc = measure("JDBC page", () -> readOnlyTransaction.execute(status ->
+                auditLogReadRepository.search(filter, 0, PAGE_SIZE).logs().size()));
+
+        assertEquals(jpa.rows(), jdbc.rows());
+    }
+
+    @Test
+    void logById() {
+        Result jpa = measure("JPA by id", () -> readOnlyTransaction.execute(status -> {
+            int found = auditLogRepository.findById(ids.get(ids.size() / 2)).isPresent() ? 1 : 0;
+            entityManager.clear();
+            return found;
+        }));
+        Result jdbc = measure("JDBC by id", () ->
+                auditLogReadRepository.findById(STARTUP_ID, ids.get(ids.size() / 2)).isPresent() ? 1 : 0);
+
+        assertEquals(jpa.rows(), jdbc.rows());
+    }
+
+    private Result measure(String name, IntSupplier read) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            read.getAsInt();
+        }
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        int rows = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            rows = read.getAsInt();
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+        long bytes = (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / ITERATIONS;
+        System.out.printf("%-12s %10.1f us/op %12d B/op%n", name, micros, bytes);
+        return new Result(rows, micros, bytes);
+    }
+
+    private record Result(int rows, double micros, long bytes) {
+    }
+}
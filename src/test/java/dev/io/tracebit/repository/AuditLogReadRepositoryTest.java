@@ -0,0 +1,185 @@
+package dev.io.tracebit.repository;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.dto.response.AuditLogView;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.entity.MetaData;
+import dev.io.tracebit.feed.ChangeCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the database: logs are saved through JPA, so their columns are encrypted
+ * as in production, and read back through plain JDBC.
+ */
+@SpringBootTest
+class AuditLogReadRepositoryTest {
+
+    private static final String STARTUP_ID = "read-test";
+    private static final String OTHER_STARTUP_ID = "read-test-other";
+    private static final LocalDateTime START = LocalDateTime.of(2000, 2, 1, 12, 0);
+
+    @Autowired
+    private AuditLogReadRepository readRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(1);
+        save(STARTUP_ID, "user_1", "LOGIN", "dashboard", START, expiresAt);
+        save(STARTUP_ID, "user_2", "login_failed", "dashboard", START.plusMinutes(1), null);
+        save(STARTUP_ID, "user_1", "invoice.paid", "billing/INV-7", START.plusMinutes(2), null);
+        save(STARTUP_ID, "user_1", "login", "dashboard", START.plusMinutes(3), LocalDateTime.now().minusMinutes(1));
+        save(OTHER_STARTUP_ID, "user_1", "login", "dashboard", START.plusMinutes(1), null);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM audit_logs WHERE startup_id IN (?, ?)", STARTUP_ID, OTHER_STARTUP_ID);
+    }
+
+    @Test
+    void mapsDecryptedColumnsIntoViews() {
+        AuditLogView view = readRepository.findById(STARTUP_ID, ids.get(0)).orElseThrow();
+
+        assertEquals(ids.get(0), view.id());
+        assertEquals(STARTUP_ID, view.startupId());
+        assertEquals("user_1", view.userId());
+        assertEquals("LOGIN", view.action());
+        assertEquals("dashboard", view.target());
+        assertEquals(new AuditLogView.Meta("8.8.8.8", "Mozilla/5.0 (X11; Linux x86_64)", "US"), view.meta());
+        assertEquals(START, view.createdAt());
+        assertNotNull(view.expiresAt());
+
+        assertTrue(readRepository.findById(OTHER_STARTUP_ID, ids.get(0)).isEmpty());
+        // Expired, but not purged yet.
+        assertTrue(readRepository.findById(STARTUP_ID, ids.get(3)).isEmpty());
+        assertEquals(List.of(ids.get(1)), readRepository.findAllById(STARTUP_ID, List.of(ids.get(1), ids.get(3), ids.get(4), -1L))
+                .stream().map(AuditLogView::id).toList());
+    }
+
+    @Test
+    void searchesAndScansWithDecryptedFilters() {
+        AuditLogFilter all = AuditLogFilter.builder().startupId(STARTUP_ID).from(START).to(START.plusHours(1)).build();
+        AuditLogReadRepository.Page page = readRepository.search(all, 1, 1);
+        assertEquals(3, page.total());
+        assertEquals(List.of(ids.get(1)), page.logs().stream().map(AuditLogView::id).toList());
+
+        AuditLogFilter logins = all.toBuilder().userId("USER_").action("login").build();
+        page = readRepository.search(logins, 0, 10);
+        assertEquals(2, page.total());
+        assertEquals(List.of(ids.get(1), ids.get(0)), page.logs().stream().map(AuditLogView::id).toList());
+        assertEquals("login_failed", page.logs().get(0).action());
+
+        List<Long> scanned = new ArrayList<>();
+        readRepository.scan(all.toBuilder().userId("user_1").build(), view -> scanned.add(view.id()));
+        assertEquals(List.of(ids.get(0), ids.get(2)), scanned);
+
+        List<Long> before = new ArrayList<>();
+        readRepository.scan(all, START.plusMinutes(2), view -> before.add(view.id()));
+        assertEquals(List.of(ids.get(0), ids.get(1)), before);
+
+        AuditLogReadRepository.CreatedAtRange range = readRepository.findCreatedAtRange(all);
+        assertEquals(new AuditLogReadRepository.CreatedAtRange(START, START.plusMinutes(2)), range);
+        assertNull(readRepository.findCreatedAtRange(all.toBuilder().from(START.plusDays(1)).to(START.plusDays(2)).build()));
+    }
+
+    @Test
+    void pagesThroughLegacyRowsIntoTransactionOrderWithoutDuplicates() {
+        // Saved before the feed existed.
+        jdbcTemplate.update("UPDATE audit_logs SET tx_id = NULL WHERE id IN (?, ?)", ids.get(0), ids.get(1));
+
+        AuditLogReadRepository.Changes first = readRepository.findChanges(STARTUP_ID, ChangeCursor.START, 1);
+        assertEquals(List.of(ids.get(0)), first.logs().stream().map(AuditLogView::id).toList());
+        assertEquals(new ChangeCursor(0, ids.get(0)), first.next());
+
+        // The page boundary falls between the last legacy row and the first with a transaction.
+        AuditLogReadRepository.Changes second = readRepository.findChanges(STARTUP_ID, first.next(), 2);
+        assertEquals(List.of(ids.get(1), ids.get(2)), second.logs().stream().map(AuditLogView::id).toList());
+        assertFalse(second.next().isLegacy());
+        assertEquals(ids.get(2), second.next().id());
+
+        // Caught up: the expired row is skipped and the cursor stays put.
+        AuditLogReadRepository.Changes third = readRepository.findChanges(STARTUP_ID, second.next(), 2);
+        assertEquals(List.of(), third.logs());
+        assertEquals(second.next(), third.next());
+
+        List<Long> paged = new ArrayList<>();
+        ChangeCursor cursor = ChangeCursor.START;
+        for (int i = 0; i < 5; i++) {
+            AuditLogReadRepository.Changes changes = readRepository.findChanges(STARTUP_ID, cursor, 1);
+            changes.logs().forEach(view -> paged.add(view.id()));
+            cursor = changes.next();
+        }
+        assertEquals(List.of(ids.get(0), ids.get(1), ids.get(2)), paged);
+    }
+
+    @Test
+    void holdsBackRowsUntilEveryOlderTransactionHasCommitted() throws Exception {
+        ChangeCursor caughtUp = readRepository.findChanges(STARTUP_ID, ChangeCursor.START, 10).next();
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Thread writer = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            save(STARTUP_ID, "user_3", "login", "dashboard", START.plusMinutes(4), null);
+            auditLogRepository.flush();
+            inserted.countDown();
+            try {
+                commit.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        writer.start();
+        try {
+            assertTrue(inserted.await(10, TimeUnit.SECONDS));
+            // Committed while the older transaction is still open, so held back behind it.
+            save(STARTUP_ID, "user_4", "login", "dashboard", START.plusMinutes(5), null);
+
+            AuditLogReadRepository.Changes open = readRepository.findChanges(STARTUP_ID, caughtUp, 10);
+            assertEquals(List.of(), open.logs());
+            assertEquals(caughtUp, open.next());
+        } finally {
+            commit.countDown();
+            writer.join();
+        }
+
+        AuditLogReadRepository.Changes committed = readRepository.findChanges(STARTUP_ID, caughtUp, 10);
+        assertEquals(List.of(ids.get(5), ids.get(6)), committed.logs().stream().map(AuditLogView::id).toList());
+    }
+
+    private void save(String startupId, String userId, String action, String target, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        ids.add(auditLogRepository.save(AuditLog.builder()
+                .startupId(startupId)
+                .userId(userId)
+                .action(action)
+                .target(target)
+                .meta(new MetaData("8.8.8.8", "Mozilla/5.0 (X11; Linux x86_64)", "US"))
+                .createdAt(createdAt)
+                .expiresAt(expiresAt)
+                .build()).getId());
+    }
+}
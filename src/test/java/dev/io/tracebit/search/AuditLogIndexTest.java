@@ -0,0 +1,81 @@
+package dev.io.tracebit.search;
+
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.entity.MetaData;
+import dev.io.tracebit.security.AttributeEncryptor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private final SecretKeySpec key = new AttributeEncryptor("index-test-key").deriveKey("search-index", "AES");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void searchesFreeTextNewestFirstWithFilters() throws Exception {
+        try (AuditLogIndex index = AuditLogIndex.open(dir, key)) {
+            for (int i = 1; i <= 50; i++) {
+                index.index(log(i, i % 10 == 0 ? "invoice 8812 paid" : "invoice " + i + " viewed"));
+            }
+            index.refresh();
+
+            AuditLogFilter all = AuditLogFilter.builder().from(START).build();
+            AuditLogIndex.Hits hits = index.search("invoice 8812", all, START.plusDays(1), 1, 2);
+            assertEquals(5, hits.total());
+            assertEquals(List.of(40L, 30L), hits.ids());
+
+            AuditLogFilter byUser = all.toBuilder().userId("USER_2").build();
+            assertEquals(List.of(20L), index.search("8812", byUser, START.plusDays(1), 0, 10).ids());
+            assertEquals(0, index.search("8812", all.toBuilder().to(START.plusMinutes(9)).build(), START.plusDays(1), 0, 10).total());
+        }
+    }
+
+    @Test
+    void persistsEncryptedFilesThatReopen() throws Exception {
+        try (AuditLogIndex index = AuditLogIndex.open(dir, key)) {
+            for (int i = 1; i <= 200; i++) {
+                index.index(log(i, "confidential-target-" + i));
+            }
+            index.commit();
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                String content = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+                assertFalse(content.contains("confidential"), file + " holds plaintext");
+            }
+        }
+
+        try (AuditLogIndex index = AuditLogIndex.open(dir, key)) {
+            assertNotNull(index.getLastCommit());
+            assertEquals(1, index.search("\"confidential-target-137\"", AuditLogFilter.builder().build(),
+                    START.plusDays(1), 0, 10).total());
+        }
+    }
+
+    private static AuditLog log(long id, String target) {
+        return AuditLog.builder()
+                .id(id)
+                .userId("user_" + id)
+                .action("invoice.update")
+                .target(target)
+                .meta(MetaData.builder().device("Chrome").build())
+                .createdAt(START.plusMinutes(id))
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package dev.io.tracebit.search;
+
+import dev.io.tracebit.security.AttributeEncryptor;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncryptedDirectoryTest {
+
+    private static final int LENGTH = 3 * EncryptedDirectory.BLOCK_SIZE + 100;
+
+    private final SecretKeySpec key = new AttributeEncryptor("index-test-key").deriveKey("search-index", "AES");
+    private final byte[] data = new byte[LENGTH];
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsAnySliceOfWhatWasWritten() throws Exception {
+        new Random(7).nextBytes(data);
+        try (EncryptedDirectory directory = new EncryptedDirectory(FSDirectory.open(dir), key)) {
+            write(directory, "data", data);
+            write(directory, "empty", new byte[0]);
+            write(directory, "block", Arrays.copyOf(data, EncryptedDirectory.BLOCK_SIZE));
+
+            assertEquals(LENGTH, directory.fileLength("data"));
+            assertEquals(0, directory.fileLength("empty"));
+            assertEquals(EncryptedDirectory.BLOCK_SIZE, directory.fileLength("block"));
+            try (IndexInput in = directory.openInput("data", IOContext.DEFAULT)) {
+                assertArrayEquals(data, read(in, 0, LENGTH));
+                // Across a block boundary, from a slice and from a clone.
+                IndexInput slice = in.slice("slice", EncryptedDirectory.BLOCK_SIZE - 10, 500);
+                assertArrayEquals(Arrays.copyOfRange(data, EncryptedDirectory.BLOCK_SIZE, EncryptedDirectory.BLOCK_SIZE + 50),
+                        read(slice, 10, 50));
+                IndexInput clone = in.clone();
+                assertArrayEquals(Arrays.copyOfRange(data, LENGTH - 7, LENGTH), read(clone, LENGTH - 7, 7));
+            }
+            try (IndexInput in = directory.openInput("block", IOContext.DEFAULT)) {
+                assertArrayEquals(Arrays.copyOf(data, EncryptedDirectory.BLOCK_SIZE), read(in, 0, EncryptedDirectory.BLOCK_SIZE));
+            }
+        }
+        assertEquals(EncryptedDirectory.HEADER_LENGTH + 4 * EncryptedDirectory.TAG_LENGTH + LENGTH, Files.size(dir.resolve("data")));
+    }
+
+    @Test
+    void rejectsTamperedSwappedAndTruncatedFiles() throws Exception {
+        try (EncryptedDirectory directory = new EncryptedDirectory(FSDirectory.open(dir), key)) {
+            write(directory, "data", data);
+        }
+        byte[] sealed = Files.readAllBytes(dir.resolve("data"));
+        int second = EncryptedDirectory.HEADER_LENGTH + EncryptedDirectory.SEALED_BLOCK_SIZE;
+
+        byte[] flipped = sealed.clone();
+        flipped[second + 5] ^= 1;
+        assertBlockRejected(flipped, EncryptedDirectory.BLOCK_SIZE + 5);
+
+        byte[] swapped = sealed.clone();
+        System.arraycopy(sealed, EncryptedDirectory.HEADER_LENGTH, swapped, second, EncryptedDirectory.SEALED_BLOCK_SIZE);
+        assertBlockRejected(swapped, EncryptedDirectory.BLOCK_SIZE);
+
+        // Cut after the third block, which was not sealed as the last one.
+        assertBlockRejected(Arrays.copyOf(sealed, EncryptedDirectory.HEADER_LENGTH + 3 * EncryptedDirectory.SEALED_BLOCK_SIZE),
+                2 * EncryptedDirectory.BLOCK_SIZE);
+
+        Files.write(dir.resolve("data"), Arrays.copyOf(sealed, EncryptedDirectory.HEADER_LENGTH + 5));
+        try (EncryptedDirectory directory = new EncryptedDirectory(FSDirectory.open(dir), key)) {
+            assertThrows(CorruptIndexException.class, () -> directory.openInput("data", IOContext.DEFAULT));
+        }
+    }
+
+    private void assertBlockRejected(byte[] sealed, long position) throws Exception {
+        Files.write(dir.resolve("data"), sealed);
+        try (EncryptedDirectory directory = new EncryptedDirectory(FSDirectory.open(dir), key);
+             IndexInput in = directory.openInput("data", IOContext.DEFAULT)) {
+            assertArrayEquals(Arrays.copyOf(data, 10), read(in, 0, 10));
+            assertThrows(CorruptIndexException.class, () -> read(in, position, 1));
+        }
+    }
+
+    private static void write(EncryptedDirectory directory, String name, byte[] bytes) throws Exception {
+        try (IndexOutput out = directory.createOutput(name, IOContext.DEFAULT)) {
+            if (bytes.length > 0) {
+                out.writeByte(bytes[0]);
+                out.writeBytes(bytes, 1, bytes.length - 1);
+            }
+        }
+    }
+
+    private static byte[] read(IndexInput in, long position, int length) throws Exception {
+        byte[] bytes = new byte[length];
+        in.seek(position);
+        in.readBytes(bytes, 0, length);
+        return bytes;
+    }
+}
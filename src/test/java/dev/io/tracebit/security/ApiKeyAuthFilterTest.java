@@ -0,0 +1,42 @@
+package dev.io.tracebit.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiKeyAuthFilterTest {
+
+    private final ApiKeyAuthFilter filter = new ApiKeyAuthFilter("k1:acme, k2:globex,k3", 100, 60_000, "default");
+
+    @Test
+    void eachKeyActsForItsOwnStartup() throws Exception {
+        assertEquals("acme", startupOf("k1"));
+        assertEquals("globex", startupOf("k2"));
+        assertEquals("default", startupOf("k3"));
+
+        MockHttpServletRequest request = request("acme");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest());
+        assertNull(request.getAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE));
+    }
+
+    private String startupOf(String apiKey) throws Exception {
+        MockHttpServletRequest request = request(apiKey);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertSame(request, chain.getRequest());
+        return (String) request.getAttribute(ApiKeyAuthFilter.STARTUP_ID_ATTRIBUTE);
+    }
+
+    private static MockHttpServletRequest request(String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/logs");
+        request.addHeader("X-TRACEBIT-KEY", apiKey);
+        return request;
+    }
+}
@@ -0,0 +1,53 @@
+package dev.io.tracebit.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogETagsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private final AuditLogETags eTags = new AuditLogETags(new AttributeEncryptor("0123456789abcdef"));
+
+    @Test
+    void tagsAreStablePerStartupIdAndExpiry() {
+        String tag = eTags.of("acme", 42, null);
+
+        assertEquals(tag, eTags.of("acme", 42, null));
+        assertNotEquals(tag, eTags.of("acme", 43, null));
+        assertNotEquals(tag, eTags.of("globex", 42, null));
+        assertNotEquals(tag, eTags.of("acme", 42, NOW.plusDays(1)));
+        assertNotEquals(tag, new AuditLogETags(new AttributeEncryptor("fedcba9876543210")).of("acme", 42, null));
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""));
+    }
+
+    @Test
+    void ifNoneMatchIsComparedWeaklyButNeverMatchesAnyTag() {
+        String tag = eTags.of("acme", 42, null);
+
+        assertEquals(new AuditLogETags.Match(tag, null), eTags.match(tag, "acme", 42, NOW).orElseThrow());
+        assertTrue(eTags.match("W/" + tag, "acme", 42, NOW).isPresent());
+        assertTrue(eTags.match("\"other\", " + tag, "acme", 42, NOW).isPresent());
+        assertTrue(eTags.match("*", "acme", 42, NOW).isEmpty());
+        assertTrue(eTags.match(null, "acme", 42, NOW).isEmpty());
+        assertTrue(eTags.match(eTags.of("globex", 42, null), "acme", 42, NOW).isEmpty());
+    }
+
+    @Test
+    void tagsCarryTheirExpiryAndStopMatchingOnceItPasses() {
+        LocalDateTime expiresAt = NOW.plusHours(1).plusNanos(500_000_000);
+        String tag = eTags.of("acme", 42, expiresAt);
+
+        assertEquals(NOW.plusHours(1), eTags.match(tag, "acme", 42, NOW).orElseThrow().expiresAt());
+        assertTrue(eTags.match(tag, "acme", 42, NOW.plusHours(1)).isEmpty());
+        // The expiry is covered by the tag's hash, so it cannot be pushed back.
+        String extended = tag.replace("." + expiresAt.toEpochSecond(ZoneOffset.UTC) + ".",
+                "." + NOW.plusYears(1).toEpochSecond(ZoneOffset.UTC) + ".");
+        assertNotEquals(tag, extended);
+        assertTrue(eTags.match(extended, "acme", 42, NOW.plusHours(2)).isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.archive.ArchiveSegmentWriter;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.entity.MetaData;
+import dev.io.tracebit.repository.AuditLogPartitionRepository.Partition;
+import dev.io.tracebit.security.AttributeEncryptor;
+import dev.io.tracebit.service.AuditLogPartitionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the database for the list of live partitions, with segment files that
+ * another node could have written into the shared directory.
+ */
+@SpringBootTest(properties = "tracebit.archive.dir=" + AuditLogArchiveServiceImplTest.DIR)
+class AuditLogArchiveServiceImplTest {
+
+    static final String DIR = "target/archive-service-test";
+    private static final long ID = 9_000_000_001L;
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(1999, 1, 10, 12, 0);
+
+    @Autowired
+    private AuditLogArchiveServiceImpl archiveService;
+
+    @Autowired
+    private AuditLogPartitionService partitionService;
+
+    @Autowired
+    private AttributeEncryptor encryptor;
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        FileSystemUtils.deleteRecursively(Path.of(DIR));
+        archiveService.rescanSegments();
+    }
+
+    @Test
+    void rescanServesSegmentsOfDroppedPartitionsOnly() throws Exception {
+        Files.createDirectories(Path.of(DIR));
+        Path dropped = writeSegment("audit_logs_p19990101", ID);
+        archiveService.rescanSegments();
+        assertEquals("archive-test", archiveService.findById(ID).orElseThrow().getStartupId());
+
+        // Still a live partition: its archive may be partial, and the database serves it.
+        Partition live = partitionService.findPartitions().get(0);
+        writeSegment(live.name(), ID + 1);
+        archiveService.rescanSegments();
+        assertTrue(archiveService.findById(ID + 1).isEmpty());
+
+        // Deleted by another node's retention run.
+        Files.delete(dropped);
+        archiveService.rescanSegments();
+        assertTrue(archiveService.findById(ID).isEmpty());
+    }
+
+    private Path writeSegment(String partition, long id) throws Exception {
+        Path file = Path.of(DIR, "segment-" + partition + "-0001-of-0001.seg");
+        try (ArchiveSegmentWriter writer = new ArchiveSegmentWriter(file, encryptor, 16)) {
+            writer.append(AuditLog.builder()
+                    .id(id)
+                    .startupId("archive-test")
+                    .userId("user_1")
+                    .action("login")
+                    .target("dashboard")
+                    .meta(new MetaData("8.8.8.8", "Mozilla/5.0 (X11; Linux x86_64)", "US"))
+                    .createdAt(CREATED_AT)
+                    .build());
+            writer.finish(CREATED_AT.plusDays(30));
+        }
+        return file;
+    }
+}
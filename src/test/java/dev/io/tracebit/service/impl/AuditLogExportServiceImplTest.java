@@ -0,0 +1,141 @@
+package dev.io.tracebit.service.impl;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import dev.io.tracebit.dto.AuditLogFilter;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.entity.MetaData;
+import dev.io.tracebit.repository.AuditLogReadRepository;
+import dev.io.tracebit.repository.AuditLogRepository;
+import dev.io.tracebit.service.AuditLogExportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the database, in a range long before any real logs.
+ */
+@SpringBootTest
+class AuditLogExportServiceImplTest {
+
+    private static final String STARTUP_ID = "export-test";
+    private static final LocalDateTime START = LocalDateTime.of(2000, 4, 1, 8, 0);
+
+    @Autowired
+    private AuditLogExportService exportService;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private AuditLogReadRepository readRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM audit_logs WHERE startup_id IN (?, ?)", STARTUP_ID, STARTUP_ID + "-other");
+    }
+
+    @Test
+    void csvStreamsTheFilteredRowsOldestFirst() {
+        List<AuditLog> logs = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            logs.add(log(STARTUP_ID, "user_" + (i % 3), i % 2 == 0 ? "Login" : "logout", START.plusMinutes(i)));
+        }
+        logs.add(log(STARTUP_ID + "-other", "user_0", "login", START));
+        auditLogRepository.saveAll(logs);
+
+        String csv = csv("USER_0", "log", 1);
+        List<String> lines = csv.lines().toList();
+        assertEquals("User ID,Action,Target,IP,Device,Location,Created At", lines.get(0));
+        assertEquals(21, lines.size());
+        assertEquals("user_0,Login,dashboard,8.8.8.8,Mozilla/5.0 (X11; Linux x86_64),US," + START, lines.get(1));
+        assertTrue(lines.get(2).startsWith("user_0,logout,") && lines.get(2).endsWith(START.plusMinutes(3).toString()));
+
+        assertEquals(11, csv("user_1", "logout", 1).lines().count());
+        assertEquals(61, csv(null, null, 1).lines().count());
+        // Time ranges fetched by several workers come back in the same order.
+        assertEquals(csv(null, null, 1), csv(null, null, 4));
+        assertEquals(csv("user_2", null, 1), csv("user_2", null, 3));
+    }
+
+    @Test
+    void pdfCountsActionsAndFallsBackToASummaryOverTheRowCap() throws Exception {
+        auditLogRepository.saveAll(List.of(
+                log(STARTUP_ID, "user_0", "Login", START),
+                log(STARTUP_ID, "user_1", "Login", START.plusMinutes(1)),
+                log(STARTUP_ID, "user_0", "logout", START.plusMinutes(2)),
+                log(STARTUP_ID, "user_0", "login", START.plusMinutes(3)),
+                log(STARTUP_ID + "-other", "user_0", "login", START)));
+        AuditLogFilter filter = AuditLogFilter.builder().startupId(STARTUP_ID).from(START).to(START.plusHours(2)).build();
+
+        assertEquals(Map.of("Login", 2L, "logout", 1L, "login", 1L), readRepository.countByAction(filter));
+        assertEquals(Map.of("Login", 1L, "logout", 1L, "login", 1L),
+                readRepository.countByAction(filter.toBuilder().userId("USER_0").build()));
+        assertEquals(Map.of("logout", 1L), readRepository.countByAction(filter.toBuilder().action("OUT").build()));
+
+        // The extractor reads each summary row right to left: the count, then its label.
+        String full = pdfText("user_0");
+        assertTrue(full.contains("3\nLogs:"), full);
+        assertTrue(full.contains("8.8.8.8"), full);
+
+        Object target = AopTestUtils.getTargetObject(exportService);
+        Object maxRows = ReflectionTestUtils.getField(target, "pdfMaxRows");
+        ReflectionTestUtils.setField(target, "pdfMaxRows", 2L);
+        try {
+            String summary = pdfText("user_0");
+            assertTrue(summary.contains("3\nLogs:"), summary);
+            assertTrue(summary.contains("This report covers 3 logs, more than the 2"), summary);
+            assertFalse(summary.contains("8.8.8.8"), summary);
+        } finally {
+            ReflectionTestUtils.setField(target, "pdfMaxRows", maxRows);
+        }
+    }
+
+    private String pdfText(String userId) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.writePdf(STARTUP_ID, userId, null, START, START.plusHours(2), out);
+        PdfReader reader = new PdfReader(out.toByteArray());
+        try {
+            StringBuilder text = new StringBuilder();
+            for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(reader, page)).append('\n');
+            }
+            return text.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private String csv(String userId, String action, int parallelism) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.writeCsv(STARTUP_ID, userId, action, START, START.plusHours(2), parallelism, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static AuditLog log(String startupId, String userId, String action, LocalDateTime createdAt) {
+        return AuditLog.builder()
+                .startupId(startupId)
+                .userId(userId)
+                .action(action)
+                .target("dashboard")
+                .meta(new MetaData("8.8.8.8", "Mozilla/5.0 (X11; Linux x86_64)", "US"))
+                .createdAt(createdAt)
+                .build();
+    }
+}
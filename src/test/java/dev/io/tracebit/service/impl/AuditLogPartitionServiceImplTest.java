@@ -0,0 +1,58 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.dto.PartitionInterval;
+import dev.io.tracebit.repository.AuditLogPartitionRepository;
+import dev.io.tracebit.repository.AuditLogPartitionRepository.Partition;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditLogPartitionServiceImplTest {
+
+    private final AuditLogPartitionRepository repository = mock(AuditLogPartitionRepository.class);
+    private final AuditLogPartitionServiceImpl service = new AuditLogPartitionServiceImpl(repository);
+
+    @Test
+    void createsContiguousPartitionsUpToThePremakeHorizon() {
+        ReflectionTestUtils.setField(service, "interval", PartitionInterval.MONTHLY);
+        ReflectionTestUtils.setField(service, "premake", 2);
+        LocalDateTime month = PartitionInterval.MONTHLY.truncate(LocalDateTime.now());
+        when(repository.findRangePartitions()).thenReturn(List.of(
+                new Partition("audit_logs_legacy", LocalDateTime.MIN, month.minusDays(3)),
+                new Partition("audit_logs_p", month.minusDays(3), month.plusMonths(1))));
+
+        service.ensurePartitions();
+
+        verify(repository).createPartition(name(month.plusMonths(1)), month.plusMonths(1), month.plusMonths(2));
+        verify(repository).createPartition(name(month.plusMonths(2)), month.plusMonths(2), month.plusMonths(3));
+        verify(repository, times(2)).createPartition(anyString(), any(), any());
+    }
+
+    @Test
+    void dropsOnlyPartitionsEndingByTheCutoffAndCountsTheOnesThatWentAway() {
+        LocalDateTime cutoff = LocalDateTime.of(2025, 3, 1, 0, 0);
+        Partition legacy = new Partition("audit_logs_legacy", LocalDateTime.MIN, LocalDateTime.of(2025, 1, 1, 0, 0));
+        Partition january = new Partition("audit_logs_p20250101", LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 2, 1, 0, 0));
+        Partition february = new Partition("audit_logs_p20250201", LocalDateTime.of(2025, 2, 1, 0, 0), cutoff);
+        Partition march = new Partition("audit_logs_p20250301", cutoff, LocalDateTime.of(2025, 4, 1, 0, 0));
+        when(repository.findRangePartitions()).thenReturn(List.of(march, february, legacy, january));
+        doThrow(new IllegalStateException("lock timeout")).when(repository).dropPartition("audit_logs_p20250101");
+
+        assertEquals(List.of(legacy, january, february, march), service.findPartitions());
+        assertEquals(2, service.dropPartitionsOlderThan(cutoff));
+
+        verify(repository).dropPartition("audit_logs_legacy");
+        verify(repository).dropPartition("audit_logs_p20250201");
+        verify(repository, never()).dropPartition("audit_logs_p20250301");
+    }
+
+    private static String name(LocalDateTime from) {
+        return String.format("audit_logs_p%04d%02d%02d", from.getYear(), from.getMonthValue(), from.getDayOfMonth());
+    }
+}
@@ -0,0 +1,109 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.dto.RollupDimension;
+import dev.io.tracebit.dto.RollupGranularity;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.entity.MetaData;
+import dev.io.tracebit.event.AuditLogPersistedEvent;
+import dev.io.tracebit.repository.AuditLogRepository;
+import dev.io.tracebit.repository.AuditLogRollupRepository;
+import dev.io.tracebit.repository.AuditLogRollupRepository.Rollup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the database, in a range long before any real logs. The scheduled flush
+ * is pushed out so that only the test flushes.
+ */
+@SpringBootTest(properties = "tracebit.rollup.flush-ms=3600000")
+class AuditLogRollupServiceImplTest {
+
+    private static final String STARTUP_ID = "rollup-test";
+    private static final LocalDateTime HOUR = LocalDateTime.of(2000, 1, 1, 10, 0);
+
+    @Autowired
+    private AuditLogRollupServiceImpl rollupService;
+
+    @Autowired
+    private AuditLogRollupRepository rollupRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM audit_logs WHERE startup_id = ?", STARTUP_ID);
+        jdbcTemplate.update("DELETE FROM audit_log_rollups WHERE bucket_start < ?", HOUR.plusDays(1));
+    }
+
+    @Test
+    void flushesCountsAsUpsertsIntoEveryGranularity() {
+        persisted(log("user_1", "login", HOUR.plusMinutes(1)));
+        persisted(log("user_2", "login", HOUR.plusMinutes(1).plusSeconds(30)));
+        persisted(log("user_1", "logout", HOUR.plusMinutes(2)));
+        rollupService.flush();
+        persisted(log("user_3", "login", HOUR.plusMinutes(2)));
+        rollupService.flush();
+
+        assertEquals(Map.of(HOUR.plusMinutes(1), 2L, HOUR.plusMinutes(2), 2L), counts(RollupGranularity.MINUTE, RollupDimension.NONE));
+        assertEquals(Map.of(HOUR, 4L), counts(RollupGranularity.HOUR, RollupDimension.NONE));
+        assertEquals(Map.of(HOUR.toLocalDate().atStartOfDay(), 4L), counts(RollupGranularity.DAY, RollupDimension.NONE));
+        assertEquals(List.of(3L, 1L), rollupRepository.findRollups(STARTUP_ID, RollupGranularity.HOUR, RollupDimension.ACTION,
+                HOUR, HOUR.plusHours(1)).stream().map(Rollup::count).sorted((a, b) -> Long.compare(b, a)).toList());
+    }
+
+    @Test
+    void reconcileReplacesTheClosedHourWithCountsFromTheRawRows() {
+        auditLogRepository.saveAll(List.of(
+                log("user_1", "login", HOUR.plusMinutes(1)),
+                log("user_2", "login", HOUR.plusMinutes(1)),
+                log("user_1", "logout", HOUR.plusMinutes(59))));
+        // Counts a crash left behind, and a node that counted a log twice.
+        persisted(log("user_1", "login", HOUR.plusMinutes(1)));
+        persisted(log("user_1", "login", HOUR.plusMinutes(1)));
+        rollupService.flush();
+
+        rollupService.reconcile(HOUR, HOUR.plusHours(1));
+
+        assertEquals(Map.of(HOUR.plusMinutes(1), 2L, HOUR.plusMinutes(59), 1L), counts(RollupGranularity.MINUTE, RollupDimension.NONE));
+        assertEquals(Map.of(HOUR, 3L), counts(RollupGranularity.HOUR, RollupDimension.NONE));
+        // The day is not inside the range, so it keeps the flushed count.
+        assertEquals(Map.of(HOUR.toLocalDate().atStartOfDay(), 2L), counts(RollupGranularity.DAY, RollupDimension.NONE));
+
+        LocalDateTime hourStart = LocalDateTime.now().withMinute(0).withSecond(0).withNano(0);
+        assertThrows(IllegalArgumentException.class, () -> rollupService.reconcile(hourStart, hourStart.plusHours(1)));
+    }
+
+    private void persisted(AuditLog log) {
+        rollupService.onAuditLogPersisted(new AuditLogPersistedEvent(log));
+    }
+
+    private Map<LocalDateTime, Long> counts(RollupGranularity granularity, RollupDimension dimension) {
+        return rollupRepository.findRollups(STARTUP_ID, granularity, dimension, HOUR.minusDays(1), HOUR.plusDays(1)).stream()
+                .collect(Collectors.toMap(Rollup::bucketStart, Rollup::count));
+    }
+
+    private static AuditLog log(String userId, String action, LocalDateTime createdAt) {
+        return AuditLog.builder()
+                .startupId(STARTUP_ID)
+                .userId(userId)
+                .action(action)
+                .target("dashboard")
+                .meta(new MetaData("8.8.8.8", "Mozilla/5.0 (X11; Linux x86_64)", "US"))
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.dto.response.ApiResponse;
+import dev.io.tracebit.dto.response.AuditLogView;
+import dev.io.tracebit.entity.AuditLog;
+import dev.io.tracebit.entity.MetaData;
+import dev.io.tracebit.exception.ValidationException;
+import dev.io.tracebit.repository.AuditLogRepository;
+import dev.io.tracebit.service.AuditLogService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the database, in a range long before any real logs.
+ */
+@SpringBootTest
+class AuditLogServiceImplTest {
+
+    private static final String ACME = "tenant-test-acme";
+    private static final String GLOBEX = "tenant-test-globex";
+    private static final LocalDateTime START = LocalDateTime.of(2000, 3, 1, 9, 0);
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM audit_logs WHERE startup_id IN (?, ?)", ACME, GLOBEX);
+    }
+
+    @Test
+    void startupsOnlySeeTheirOwnLogs() {
+        long acmeLogin = save(ACME, "login", START);
+        long acmeLogout = save(ACME, "logout", START.plusMinutes(1));
+        long globexLogin = save(GLOBEX, "login", START.plusMinutes(2));
+
+        // Loaded for acme first, so a lookup by globex must not come from acme's cache entry.
+        assertEquals(acmeLogin, ((AuditLogView) auditLogService.getAuditLogById(ACME, acmeLogin).getData()).id());
+        assertTrue(auditLogService.getAuditLogById(GLOBEX, acmeLogin).isError());
+        assertEquals(GLOBEX, ((AuditLogView) auditLogService.getAuditLogById(GLOBEX, globexLogin).getData()).startupId());
+
+        Map<?, ?> byIds = (Map<?, ?>) auditLogService.getAuditLogsByIds(GLOBEX, List.of(acmeLogin, globexLogin, acmeLogout)).getData();
+        assertEquals(List.of(globexLogin), ((List<?>) byIds.get("logs")).stream().map(log -> ((AuditLogView) log).id()).toList());
+        assertEquals(List.of(acmeLogin, acmeLogout), byIds.get("notFound"));
+
+        assertEquals(2L, total(auditLogService.searchAuditLogs(ACME, null, null, null, START, START.plusHours(1), 0, 10)));
+        assertEquals(1L, total(auditLogService.searchAuditLogs(GLOBEX, null, null, "log", START, START.plusHours(1), 0, 10)));
+        assertEquals(0L, total(auditLogService.searchAuditLogs(GLOBEX, null, null, "logout", START, START.plusHours(1), 0, 10)));
+    }
+
+    @Test
+    void multiGetKeepsRequestOrderAndServesRepeatsFromTheCaches() {
+        long first = save(ACME, "login", START);
+        long second = save(ACME, "logout", START.plusMinutes(1));
+        long missing = -first;
+
+        assertEquals(List.of(second, first), ids(auditLogService.getAuditLogsByIds(ACME, List.of(second, missing, first, second))));
+        assertEquals(List.of(missing), notFound(auditLogService.getAuditLogsByIds(ACME, List.of(second, missing, first))));
+
+        // Gone from the database, but still cached, as is the miss.
+        jdbcTemplate.update("DELETE FROM audit_logs WHERE id = ?", first);
+        ApiResponse cached = auditLogService.getAuditLogsByIds(ACME, List.of(first, missing));
+        assertEquals(List.of(first), ids(cached));
+        assertEquals(List.of(missing), notFound(cached));
+
+        assertThrows(ValidationException.class, () -> auditLogService.getAuditLogsByIds(ACME, List.of()));
+        assertThrows(ValidationException.class, () -> auditLogService.getAuditLogsByIds(ACME,
+                LongStream.rangeClosed(1, 501).boxed().toList()));
+    }
+
+    @Test
+    void cachedLogsAreNotServedPastTheirExpiry() throws Exception {
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(2);
+        long single = save(ACME, "login", START, expiresAt);
+        long multi = save(ACME, "logout", START.plusMinutes(1), expiresAt);
+
+        assertFalse(auditLogService.getAuditLogById(ACME, single).isError());
+        assertEquals(List.of(multi), ids(auditLogService.getAuditLogsByIds(ACME, List.of(multi))));
+
+        // The rows are still in the database, waiting for the purge; only the cache could serve them.
+        Thread.sleep(Duration.between(LocalDateTime.now(), expiresAt).toMillis() + 100);
+        assertTrue(auditLogService.getAuditLogById(ACME, single).isError());
+        assertEquals(List.of(multi), notFound(auditLogService.getAuditLogsByIds(ACME, List.of(multi))));
+    }
+
+    private long save(String startupId, String action, LocalDateTime createdAt) {
+        return save(startupId, action, createdAt, null);
+    }
+
+    private long save(String startupId, String action, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        return auditLogRepository.save(AuditLog.builder()
+                .startupId(startupId)
+                .userId("user_1")
+                .action(action)
+                .target("dashboard")
+                .meta(new MetaData("8.8.8.8", "Mozilla/5.0 (X11; Linux x86_64)", "US"))
+                .createdAt(createdAt)
+                .expiresAt(expiresAt)
+                .build()).getId();
+    }
+
+    private static List<Long> ids(ApiResponse response) {
+        return ((List<?>) ((Map<?, ?>) response.getData()).get("logs")).stream().map(log -> ((AuditLogView) log).id()).toList();
+    }
+
+    private static Object notFound(ApiResponse response) {
+        return ((Map<?, ?>) response.getData()).get("notFound");
+    }
+
+    private static long total(ApiResponse response) {
+        return (Long) ((Map<?, ?>) ((Map<?, ?>) response.getData()).get("pagination")).get("totalElements");
+    }
+}
@@ -0,0 +1,79 @@
+package dev.io.tracebit.service.impl;
+
+import dev.io.tracebit.config.RetentionProperties;
+import dev.io.tracebit.repository.RetentionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RetentionServiceImplTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private final RetentionRepository repository = mock(RetentionRepository.class);
+    private final RetentionProperties properties = new RetentionProperties();
+
+    @Test
+    void appliesTheMostSpecificPolicyAndKeepsPartitionsForTheLongest() {
+        policy(null, "page_view", 30);
+        policy("acme", null, 365);
+        policy("acme", "LOGIN_FAILED", 2555);
+        RetentionServiceImpl service = service(90);
+
+        assertEquals(2555, service.getPartitionRetentionDays());
+        assertEquals(CREATED_AT.plusDays(2555), service.resolveExpiry("acme", "login_failed", CREATED_AT));
+        assertEquals(CREATED_AT.plusDays(365), service.resolveExpiry("acme", "page_view", CREATED_AT));
+        assertEquals(CREATED_AT.plusDays(30), service.resolveExpiry("globex", "page_view", CREATED_AT));
+        // Partitions now outlive the default, so unmatched rows need an expiry of their own.
+        assertEquals(CREATED_AT.plusDays(90), service.resolveExpiry("globex", "login", CREATED_AT));
+
+        properties.getPolicies().clear();
+        policy(null, "page_view", 30);
+        RetentionServiceImpl shorter = service(90);
+        assertEquals(90, shorter.getPartitionRetentionDays());
+        assertNull(shorter.resolveExpiry("globex", "login", CREATED_AT));
+
+        policy(null, null, 30);
+        assertThrows(IllegalStateException.class, () -> service(90));
+    }
+
+    @Test
+    void purgesInBatchesPausingWhileReplicasLag() {
+        policy(null, "page_view", 30);
+        properties.setPauseMs(1);
+        properties.setRowsPerSecond(1_000_000);
+        when(repository.findCheckpoint(anyString())).thenReturn(40L);
+        when(repository.replicationLagMs()).thenReturn(60_000L, 0L);
+        when(repository.deleteExpiredBatch(anyString(), anyLong(), any(), anyInt()))
+                .thenReturn(List.of(41L, 45L))
+                .thenReturn(List.of(50L))
+                .thenReturn(List.of());
+
+        service(90).purgeExpiredAuditLogs();
+
+        verify(repository, times(4)).replicationLagMs();
+        verify(repository).deleteExpiredBatch(anyString(), eq(40L), any(), anyInt());
+        verify(repository).deleteExpiredBatch(anyString(), eq(45L), any(), anyInt());
+        verify(repository).deleteExpiredBatch(anyString(), eq(50L), any(), anyInt());
+        verify(repository).saveCheckpoint(anyString(), eq(0L));
+    }
+
+    private void policy(String startupId, String action, int days) {
+        RetentionProperties.Policy policy = new RetentionProperties.Policy();
+        policy.setStartupId(startupId);
+        policy.setAction(action);
+        policy.setDays(days);
+        properties.getPolicies().add(policy);
+    }
+
+    private RetentionServiceImpl service(int retentionDays) {
+        RetentionServiceImpl service = new RetentionServiceImpl(repository, properties, retentionDays);
+        service.loadPolicies();
+        return service;
+    }
+}
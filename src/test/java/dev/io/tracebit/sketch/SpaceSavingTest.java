@@ -0,0 +1,59 @@
+package dev.io.tracebit.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void findsHeavyHittersInLongTailWithFewCounters() {
+        SpaceSaving summary = new SpaceSaving(50);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            if (i % 10 == 0) {
+                summary.add("noisy_user");
+            } else if (i % 25 == 0) {
+                summary.add("busy_user");
+            } else {
+                summary.add("user_" + random.nextInt(50_000));
+            }
+        }
+
+        List<SpaceSaving.Entry> top = summary.top(2);
+        assertEquals(List.of("noisy_user", "busy_user"), top.stream().map(SpaceSaving.Entry::value).toList());
+        for (SpaceSaving.Entry entry : top) {
+            long actual = entry.value().equals("noisy_user") ? 10_000 : 2_000;
+            assertTrue(entry.count() >= actual && entry.count() - entry.error() <= actual, entry.toString());
+        }
+        assertEquals(100_000, summary.getTotal());
+    }
+
+    @Test
+    void countsExactlyWhileUnderCapacity() {
+        SpaceSaving summary = new SpaceSaving(3);
+        for (String value : new String[]{"a", "b", "a", "c", "a", "b"}) {
+            summary.add(value);
+        }
+
+        assertEquals(List.of(new SpaceSaving.Entry("a", 3, 0), new SpaceSaving.Entry("b", 2, 0)), summary.top(2));
+    }
+
+    @Test
+    void topKeepsTheHighestCountsInOrderForAnyK() {
+        SpaceSaving summary = new SpaceSaving(10);
+        for (int value = 1; value <= 8; value++) {
+            for (int i = 0; i < value * value % 11; i++) {
+                summary.add("v" + value);
+            }
+        }
+
+        // Counts: v1=1 v2=4 v3=9 v4=5 v5=3 v6=3 v7=5 v8=9
+        assertEquals(List.of(9L, 9L, 5L), summary.top(3).stream().map(SpaceSaving.Entry::count).toList());
+        assertEquals(List.of(9L, 9L, 5L, 5L, 4L, 3L, 3L, 1L), summary.top(20).stream().map(SpaceSaving.Entry::count).toList());
+        assertEquals(List.of(), summary.top(0));
+    }
+}
@@ -0,0 +1,113 @@
+package dev.io.tracebit.tail;
+
+import dev.io.tracebit.entity.AuditLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TailSenderPoolTest {
+
+    private final TailSenderPool pool = new TailSenderPool(1, 10);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void stalledSinkIsEvictedWithoutHoldingUpOtherTails() throws Exception {
+        StalledSink stalledSink = new StalledSink();
+        QueueSink healthySink = new QueueSink();
+        TailSubscriber stalled = new TailSubscriber(null, null, null, 10, pool, stalledSink);
+        TailSubscriber healthy = new TailSubscriber(null, null, null, 10, pool, healthySink);
+
+        stalled.offer(log(1));
+        assertTrue(stalledSink.entered.await(5, TimeUnit.SECONDS));
+        healthy.offer(log(2));
+        // The only thread is stuck in the stalled write.
+        assertNull(healthySink.sent.poll(200, TimeUnit.MILLISECONDS));
+
+        assertFalse(pool.evictIfStalled(stalled, TimeUnit.MINUTES.toNanos(1), System.nanoTime()));
+        assertFalse(pool.evictIfStalled(healthy, 0, System.nanoTime()));
+        assertTrue(pool.evictIfStalled(stalled, 0, System.nanoTime()));
+        assertTrue(stalled.isClosed());
+        assertEquals(1, pool.getStalled());
+        assertEquals(2L, healthySink.sent.poll(5, TimeUnit.SECONDS));
+
+        // The sink is only closed once the blocked write returns.
+        stalled.offer(log(3));
+        assertFalse(stalledSink.closed.await(100, TimeUnit.MILLISECONDS));
+        stalledSink.release.countDown();
+        assertTrue(stalledSink.closed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, pool.getStalled());
+        assertEquals(List.of(1L), stalledSink.sent);
+        assertFalse(pool.evictIfStalled(stalled, 0, System.nanoTime()));
+
+        healthy.offer(log(4));
+        assertEquals(4L, healthySink.sent.poll(5, TimeUnit.SECONDS));
+    }
+
+    private static AuditLog log(long id) {
+        return AuditLog.builder().id(id).userId("user_1").action("login").target("invoice").build();
+    }
+
+    private static final class StalledSink implements TailSubscriber.Sink {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private final List<Long> sent = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(AuditLog log) {
+            sent.add(log.getId());
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void dropped(long count) {
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+
+    private static final class QueueSink implements TailSubscriber.Sink {
+        private final BlockingQueue<Long> sent = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(AuditLog log) {
+            sent.add(log.getId());
+        }
+
+        @Override
+        public void dropped(long count) {
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dev.io.tracebit.tail;
+
+import dev.io.tracebit.entity.AuditLog;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TailSubscriberTest {
+
+    @Test
+    void slowConsumerDropsBeyondItsBufferAndIsTold() {
+        List<Runnable> pending = new ArrayList<>();
+        Executor manual = pending::add;
+        RecordingSink sink = new RecordingSink();
+        TailSubscriber subscriber = new TailSubscriber("USER_1", null, "invoice", 3, manual, sink);
+
+        assertTrue(subscriber.matches(log(1, "user_1", "invoice_1")));
+        assertFalse(subscriber.matches(log(2, "user_1", "account_2")));
+        assertFalse(subscriber.matches(log(3, "user_2", "invoice_3")));
+
+        for (long id = 1; id <= 5; id++) {
+            subscriber.offer(log(id, "user_1", "invoice_" + id));
+        }
+        assertEquals(1, pending.size());
+        pending.remove(0).run();
+
+        assertEquals(List.of("log 1", "log 2", "log 3", "dropped 2"), sink.events);
+    }
+
+    @Test
+    void failedWriteClosesTheTail() {
+        RecordingSink sink = new RecordingSink();
+        sink.failing = true;
+        TailSubscriber subscriber = new TailSubscriber(null, null, null, 10, Runnable::run, sink);
+
+        subscriber.offer(log(1, "user_1", "invoice_1"));
+
+        assertTrue(subscriber.isClosed());
+        assertTrue(sink.closed);
+        subscriber.offer(log(2, "user_1", "invoice_2"));
+        assertTrue(sink.events.isEmpty());
+    }
+
+    private static AuditLog log(long id, String userId, String target) {
+        return AuditLog.builder().id(id).userId(userId).action("login").target(target).build();
+    }
+
+    private static final class RecordingSink implements TailSubscriber.Sink {
+        private final List<String> events = new ArrayList<>();
+        private boolean failing;
+        private boolean closed;
+
+        @Override
+        public void send(AuditLog log) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            events.add("log " + log.getId());
+        }
+
+        @Override
+        public void dropped(long count) {
+            events.add("dropped " + count);
+        }
+
+        @Override
+        public void heartbeat() {
+            events.add("heartbeat");
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}